@@ -0,0 +1,255 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapred.RawKeyValueIterator;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.map.WrappedMapper;
+import org.apache.hadoop.mapreduce.lib.reduce.WrappedReducer;
+import org.apache.hadoop.mapreduce.task.MapContextImpl;
+import org.apache.hadoop.mapreduce.task.ReduceContextImpl;
+import org.apache.hadoop.util.Progress;
+
+/**
+ * 基准测试用的内存 Mapper/Reducer Context
+ * 功能：不启动 LocalJobRunner，直接用内存中的输入行或已排序的 (单词, 计数) 记录驱动
+ * Mapper.run() / Reducer.run()，输出写入只做累加的 RecordWriter，测量的只有用户代码的热路径
+ */
+public final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * Map 输出为 Text/IntWritable 的作业配置
+     */
+    public static Configuration newConfiguration() {
+        Configuration conf = new Configuration(false);
+        conf.setClass(MRJobConfig.MAP_OUTPUT_KEY_CLASS, Text.class, Object.class);
+        conf.setClass(MRJobConfig.MAP_OUTPUT_VALUE_CLASS, IntWritable.class, Object.class);
+        conf.setInt(MRJobConfig.NUM_REDUCES, 4);
+        return conf;
+    }
+
+    public static Mapper<LongWritable, Text, Text, IntWritable>.Context mapContext(
+            Configuration conf, LineReader input, CountingWriter output) {
+        MapContextImpl<LongWritable, Text, Text, IntWritable> context = new MapContextImpl<>(conf,
+            new TaskAttemptID("benchmark", 0, TaskType.MAP, 0, 0), input, output, null, new CountersReporter(), null);
+        return new WrappedMapper<LongWritable, Text, Text, IntWritable>().getMapContext(context);
+    }
+
+    /**
+     * WritableComparator 实现的是原始类型的 RawComparator，传给 ReduceContextImpl 时只能做未检查转换
+     */
+    @SuppressWarnings("unchecked")
+    public static Reducer<Text, IntWritable, Text, IntWritable>.Context reduceContext(
+            Configuration conf, SortedRecords input, CountingWriter output) throws IOException, InterruptedException {
+        CountersReporter reporter = new CountersReporter();
+        ReduceContextImpl<Text, IntWritable, Text, IntWritable> context = new ReduceContextImpl<>(conf,
+            new TaskAttemptID("benchmark", 0, TaskType.REDUCE, 0, 0), input.iterator(),
+            reporter.getCounter("Reduce", "Input Keys"), reporter.getCounter("Reduce", "Input Values"),
+            output, null, reporter, WritableComparator.get(Text.class), Text.class, IntWritable.class);
+        return new WrappedReducer<Text, IntWritable, Text, IntWritable>().getReducerContext(context);
+    }
+
+    /**
+     * 内存中的输入行，reset() 后可重复读取
+     */
+    public static final class LineReader extends RecordReader<LongWritable, Text> {
+        private final Text[] lines;
+        private final LongWritable key = new LongWritable();
+        private int next;
+
+        public LineReader(String[] lines) {
+            this.lines = new Text[lines.length];
+            for (int i = 0; i < lines.length; i++) {
+                this.lines[i] = new Text(lines[i]);
+            }
+        }
+
+        public void reset() {
+            next = 0;
+        }
+
+        @Override
+        public void initialize(InputSplit split, TaskAttemptContext context) {
+        }
+
+        @Override
+        public boolean nextKeyValue() {
+            if (next >= lines.length) {
+                return false;
+            }
+            key.set(next++);
+            return true;
+        }
+
+        @Override
+        public LongWritable getCurrentKey() {
+            return key;
+        }
+
+        @Override
+        public Text getCurrentValue() {
+            return lines[next - 1];
+        }
+
+        @Override
+        public float getProgress() {
+            return lines.length == 0 ? 1f : (float) next / lines.length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * 已序列化并按键排序的 (单词, 计数) 记录，模拟 Shuffle 之后 Reducer/Combiner 的输入
+     */
+    public static final class SortedRecords {
+        private final List<byte[]> keys = new ArrayList<>();
+        private final List<byte[]> values = new ArrayList<>();
+
+        /**
+         * @param words 每个元素对应一条 (word, 1) 记录
+         */
+        public SortedRecords(List<String> words) throws IOException {
+            List<String> sorted = new ArrayList<>(words);
+            Collections.sort(sorted);
+            DataOutputBuffer buffer = new DataOutputBuffer();
+            Text word = new Text();
+            IntWritable one = new IntWritable(1);
+            for (String w : sorted) {
+                buffer.reset();
+                word.set(w);
+                word.write(buffer);
+                keys.add(Arrays.copyOf(buffer.getData(), buffer.getLength()));
+                buffer.reset();
+                one.write(buffer);
+                values.add(Arrays.copyOf(buffer.getData(), buffer.getLength()));
+            }
+        }
+
+        public int size() {
+            return keys.size();
+        }
+
+        RawKeyValueIterator iterator() {
+            return new RawKeyValueIterator() {
+                private final DataInputBuffer key = new DataInputBuffer();
+                private final DataInputBuffer value = new DataInputBuffer();
+                private int next;
+
+                @Override
+                public DataInputBuffer getKey() {
+                    return key;
+                }
+
+                @Override
+                public DataInputBuffer getValue() {
+                    return value;
+                }
+
+                @Override
+                public boolean next() {
+                    if (next >= keys.size()) {
+                        return false;
+                    }
+                    byte[] k = keys.get(next);
+                    byte[] v = values.get(next++);
+                    key.reset(k, k.length);
+                    value.reset(v, v.length);
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public Progress getProgress() {
+                    return new Progress();
+                }
+            };
+        }
+    }
+
+    /**
+     * 只统计输出记录数和字节数的 RecordWriter，避免输出被 JIT 消除
+     */
+    public static final class CountingWriter extends RecordWriter<Text, IntWritable> {
+        private long records;
+        private long checksum;
+
+        @Override
+        public void write(Text key, IntWritable value) {
+            records++;
+            checksum += key.getLength() + value.get();
+        }
+
+        @Override
+        public void close(TaskAttemptContext context) {
+        }
+
+        public long records() {
+            return records;
+        }
+
+        public long checksum() {
+            return checksum;
+        }
+    }
+
+    /**
+     * 提供真实 Counter 对象的 StatusReporter（DummyReporter 的 getCounter 返回 null）
+     */
+    private static final class CountersReporter extends StatusReporter {
+        private final Counters counters = new Counters();
+
+        @Override
+        public Counter getCounter(Enum<?> name) {
+            return counters.findCounter(name);
+        }
+
+        @Override
+        public Counter getCounter(String group, String name) {
+            return counters.findCounter(group, name);
+        }
+
+        @Override
+        public void progress() {
+        }
+
+        @Override
+        public float getProgress() {
+            return 0;
+        }
+
+        @Override
+        public void setStatus(String status) {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigdata.assignment.common.BatchedCounters;
+
+/**
+ * 自定义计数器的开销：每个单词调用 context.getCounter(group, name).increment(1)（原 Mapper 的写法）
+ * 与 BatchedCounters 本地累加、最后 flush 一次的对比，结果为每条记录的耗时（ns/record）
+ * 每 WORDS_PER_LINE 条记录另外累加一次行计数，与 WordCountOptimizedMapper 的调用比例一致
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CounterBenchmark {
+
+    static final int RECORDS = 120000;
+    static final int WORDS_PER_LINE = 12;
+
+    private Mapper<LongWritable, Text, Text, IntWritable>.Context context;
+    private BatchedCounters counters;
+    private int linesProcessed;
+    private int wordsProcessed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContexts.mapContext(BenchmarkContexts.newConfiguration(),
+            new BenchmarkContexts.LineReader(new String[0]), new BenchmarkContexts.CountingWriter());
+        counters = new BatchedCounters();
+        linesProcessed = counters.add("Custom Counters", "Lines Processed");
+        wordsProcessed = counters.add("Custom Counters", "Words Processed");
+        counters.setup(context);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long perRecordLookup() {
+        for (int i = 0; i < RECORDS; i++) {
+            if (i % WORDS_PER_LINE == 0) {
+                context.getCounter("Custom Counters", "Lines Processed").increment(1);
+            }
+            context.getCounter("Custom Counters", "Words Processed").increment(1);
+        }
+        return context.getCounter("Custom Counters", "Words Processed").getValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long batched() {
+        for (int i = 0; i < RECORDS; i++) {
+            if (i % WORDS_PER_LINE == 0) {
+                counters.increment(linesProcessed);
+                counters.tick(context);
+            }
+            counters.increment(wordsProcessed);
+        }
+        counters.flush(context);
+        return context.getCounter("Custom Counters", "Words Processed").getValue();
+    }
+}
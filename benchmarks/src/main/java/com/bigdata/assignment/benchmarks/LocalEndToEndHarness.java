@@ -0,0 +1,426 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 本地端到端基准：不依赖 Docker 容器和 HDFS，在单机上重复对比优化前后的整体表现
+ *
+ * 流程：
+ * 1. 在工作目录下生成确定性的 Zipf 语料（大小、词汇量、seed 不变时复用已有文件）
+ * 2. 为每个 Driver 启动一个子进程（Driver 会调用 System.exit），使用生成的 core-site.xml /
+ *    mapred-site.xml 强制 LocalJobRunner + 本地文件系统，不受 HADOOP_CONF_DIR 影响
+ * 3. 从子进程日志中的作业计数器解析 MAP_OUTPUT_BYTES、SPILLED_RECORDS、Shuffle 字节数、GC 时间等，
+ *    写入 results.tsv 并打印对比表（WordCountConfigTestDriver 的每个配置各占一行）
+ * 4. 耗时分两列：processing_time_ms 为 Driver 报告（job-report.csv）中的作业耗时，按作业 ID 与计数器对应；
+ *    process_elapsed_ms 为子进程总耗时，包含 JVM 启动和 Driver 的前后处理
+ *    并发提交的作业（WordCountConfigTestDriver）不在日志中打印计数器，这些作业的计数器取自各自的 job-report.csv
+ *
+ * 用法：LocalEndToEndHarness &lt;workDir&gt; [size=64m] [vocab=50000] [seed=N] [runs=problem1,problem2,...]
+ * runs 中每项为 名称[:参数[+参数...]]，名称与参数之间只在第一个 ':' 处分开，参数之间用 '+' 分隔并原样传给 Driver，
+ * 参数自身可以包含 ':'，例如 problem2:inmapper+vint、problem2:sampled:6+hotkeys:10、problem3:topk:100
+ */
+public class LocalEndToEndHarness {
+
+    private static final String DEFAULT_RUNS = "problem1,problem2,problem2:inmapper,problem3,config";
+
+    /** 运行名称 → Driver 主类 */
+    private static final Map<String, String> DRIVERS = new LinkedHashMap<>();
+    static {
+        DRIVERS.put("problem1", "com.bigdata.assignment.problem1.WordCountDriver");
+        DRIVERS.put("problem2", "com.bigdata.assignment.problem2.WordCountWithCombinerDriver");
+        DRIVERS.put("problem3", "com.bigdata.assignment.problem3.WordCountOptimizedDriver");
+        DRIVERS.put("config", "com.bigdata.assignment.problem3.WordCountConfigTestDriver");
+    }
+
+    /** 结果表中的列：列名 → 计数器显示名 */
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+    static {
+        COLUMNS.put("map_input_records", "Map input records");
+        COLUMNS.put("map_output_records", "Map output records");
+        COLUMNS.put("map_output_bytes", "Map output bytes");
+        COLUMNS.put("map_output_materialized_bytes", "Map output materialized bytes");
+        COLUMNS.put("spilled_records", "Spilled Records");
+        COLUMNS.put("shuffle_bytes", "Reduce shuffle bytes");
+        COLUMNS.put("reduce_output_records", "Reduce output records");
+        COLUMNS.put("gc_time_ms", "GC time elapsed (ms)");
+        COLUMNS.put("cpu_time_ms", "CPU time spent (ms)");
+    }
+
+    /** 结果表中的列：列名 → job-report.csv 中的 TaskCounter 名称 */
+    private static final Map<String, String> REPORT_COUNTERS = new LinkedHashMap<>();
+    static {
+        REPORT_COUNTERS.put("map_input_records", "MAP_INPUT_RECORDS");
+        REPORT_COUNTERS.put("map_output_records", "MAP_OUTPUT_RECORDS");
+        REPORT_COUNTERS.put("map_output_bytes", "MAP_OUTPUT_BYTES");
+        REPORT_COUNTERS.put("map_output_materialized_bytes", "MAP_OUTPUT_MATERIALIZED_BYTES");
+        REPORT_COUNTERS.put("spilled_records", "SPILLED_RECORDS");
+        REPORT_COUNTERS.put("shuffle_bytes", "REDUCE_SHUFFLE_BYTES");
+        REPORT_COUNTERS.put("reduce_output_records", "REDUCE_OUTPUT_RECORDS");
+        REPORT_COUNTERS.put("gc_time_ms", "GC_TIME_MILLIS");
+        REPORT_COUNTERS.put("cpu_time_ms", "CPU_MILLISECONDS");
+    }
+
+    private static final String TASK_COUNTER_PREFIX = "org.apache.hadoop.mapreduce.TaskCounter:";
+    private static final String REPORT_DIR = "_dir";
+
+    /** 一个运行中 Driver 参数之间的分隔符（参数本身可能包含 ':'） */
+    private static final String OPTION_SEPARATOR = "+";
+
+    /** Job 完成时的日志行，之后紧跟该作业的计数器块 */
+    private static final Pattern JOB_COMPLETED =
+        Pattern.compile("\\bJob (job_\\S+) completed");
+
+    /** Driver 写出的作业报告（与 JobReport.CSV_FILE 相同） */
+    private static final String JOB_REPORT_CSV = "job-report.csv";
+
+    /** problem1 的 Driver 固定设置了 mapreduce.job.jar，本地运行时工作目录下需要有该文件 */
+    private static final String PROBLEM1_JOB_JAR = "hadoop-mapreduce-assignment-1.0-SNAPSHOT.jar";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LocalEndToEndHarness <workDir> [size=64m] [vocab=" + ZipfCorpus.DEFAULT_VOCABULARY_SIZE
+                + "] [seed=" + ZipfCorpus.DEFAULT_SEED + "] [runs=" + DEFAULT_RUNS + "]");
+            System.exit(-1);
+        }
+
+        File workDir = new File(args[0]).getAbsoluteFile();
+        long sizeBytes = 64L * 1024 * 1024;
+        int vocabulary = ZipfCorpus.DEFAULT_VOCABULARY_SIZE;
+        long seed = ZipfCorpus.DEFAULT_SEED;
+        String runs = DEFAULT_RUNS;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("size=")) {
+                sizeBytes = parseSize(arg.substring(5));
+            } else if (arg.startsWith("vocab=")) {
+                vocabulary = Integer.parseInt(arg.substring(6));
+            } else if (arg.startsWith("seed=")) {
+                seed = Long.parseLong(arg.substring(5));
+            } else if (arg.startsWith("runs=")) {
+                runs = arg.substring(5);
+            } else {
+                System.err.println("Unknown option: " + arg);
+                System.exit(-1);
+            }
+        }
+
+        File inputDir = new File(workDir, "input");
+        File confDir = new File(workDir, "conf");
+        File logDir = new File(workDir, "logs");
+        File outputDir = new File(workDir, "output");
+        for (File dir : new File[]{inputDir, confDir, logDir, outputDir}) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create directory: " + dir);
+            }
+        }
+
+        prepareCorpus(inputDir, sizeBytes, vocabulary, seed);
+        writeLocalConfiguration(confDir);
+        prepareJobJar(workDir);
+
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (String run : runs.split(",")) {
+            if (!run.trim().isEmpty()) {
+                rows.addAll(runDriver(run.trim(), workDir, inputDir, outputDir, confDir, logDir));
+            }
+        }
+        writeResults(new File(workDir, "results.tsv"), rows);
+    }
+
+    /**
+     * 生成语料；参数与上次相同时复用已有文件
+     */
+    private static void prepareCorpus(File inputDir, long sizeBytes, int vocabulary, long seed) throws IOException {
+        File corpus = new File(inputDir, "corpus.txt");
+        File marker = new File(inputDir, ".corpus.properties");
+        Properties expected = new Properties();
+        expected.setProperty("size", Long.toString(sizeBytes));
+        expected.setProperty("vocab", Integer.toString(vocabulary));
+        expected.setProperty("seed", Long.toString(seed));
+
+        if (corpus.isFile() && marker.isFile()) {
+            Properties actual = new Properties();
+            try (FileInputStream in = new FileInputStream(marker)) {
+                actual.load(in);
+            }
+            if (expected.equals(actual)) {
+                System.out.println("Reusing corpus: " + corpus + " (" + corpus.length() + " bytes)");
+                return;
+            }
+        }
+
+        System.out.println("Generating Zipf corpus: " + sizeBytes + " bytes, vocabulary " + vocabulary + ", seed " + seed);
+        long start = System.currentTimeMillis();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(corpus), 1 << 16)) {
+            new ZipfCorpus(vocabulary, ZipfCorpus.DEFAULT_EXPONENT, seed).write(out, sizeBytes, 12);
+        }
+        try (FileOutputStream out = new FileOutputStream(marker)) {
+            expected.store(out, "LocalEndToEndHarness corpus parameters");
+        }
+        System.out.println("Corpus generated in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * 子进程 classpath 最前面的配置目录：强制本地运行，并让作业计数器输出到控制台
+     */
+    private static void writeLocalConfiguration(File confDir) throws IOException {
+        writeFile(new File(confDir, "core-site.xml"), "<?xml version=\"1.0\"?>\n<configuration>\n"
+            + "  <property><name>fs.defaultFS</name><value>file:///</value></property>\n"
+            + "</configuration>\n");
+        writeFile(new File(confDir, "mapred-site.xml"), "<?xml version=\"1.0\"?>\n<configuration>\n"
+            + "  <property><name>mapreduce.framework.name</name><value>local</value></property>\n"
+            + "</configuration>\n");
+        writeFile(new File(confDir, "log4j.properties"), "log4j.rootLogger=WARN, stdout\n"
+            + "log4j.logger.org.apache.hadoop.mapreduce.Job=INFO\n"
+            + "log4j.appender.stdout=org.apache.log4j.ConsoleAppender\n"
+            + "log4j.appender.stdout.Target=System.out\n"
+            + "log4j.appender.stdout.layout=org.apache.log4j.PatternLayout\n"
+            + "log4j.appender.stdout.layout.ConversionPattern=%d{HH:mm:ss} %-5p %c{1} - %m%n\n");
+    }
+
+    private static void prepareJobJar(File workDir) throws IOException {
+        File jobJar = new File(workDir, PROBLEM1_JOB_JAR);
+        if (!jobJar.exists()) {
+            // LocalJobRunner 不会从该 jar 加载类（类已在 classpath 上），空 jar 即可
+            new JarOutputStream(new FileOutputStream(jobJar)).close();
+        }
+    }
+
+    /**
+     * 以子进程运行一个 Driver，返回其中每个作业的结果行
+     */
+    private static List<Map<String, String>> runDriver(String run, File workDir, File inputDir, File outputDir,
+                                                       File confDir, File logDir) throws IOException, InterruptedException {
+        int colon = run.indexOf(':');
+        String name = colon < 0 ? run : run.substring(0, colon);
+        List<String> options = new ArrayList<>();
+        if (colon >= 0) {
+            for (String option : run.substring(colon + 1).split(Pattern.quote(OPTION_SEPARATOR))) {
+                if (!option.isEmpty()) {
+                    options.add(option);
+                }
+            }
+        }
+        String mainClass = DRIVERS.get(name);
+        if (mainClass == null) {
+            throw new IllegalArgumentException("Unknown run: " + name + " (expected one of " + DRIVERS.keySet() + ")");
+        }
+        // 参数中可能有路径（cache:DIR），标签只保留文件名安全的字符
+        String label = run.replaceAll("[^A-Za-z0-9._-]", "-");
+        File output = new File(outputDir, label);
+        File log = new File(logDir, label + ".log");
+
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Dlog4j.configuration=file:" + new File(confDir, "log4j.properties").getPath());
+        command.add("-cp");
+        command.add(confDir.getPath() + File.pathSeparator + System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.add(inputDir.getPath());
+        command.add(output.getPath());
+        command.addAll(options);
+
+        System.out.println("\n=== Running " + label + " ===");
+        long start = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command).directory(workDir).redirectErrorStream(true)
+            .redirectOutput(log).start();
+        int exitCode = process.waitFor();
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Exit code " + exitCode + ", elapsed " + elapsed + " ms, log: " + log);
+
+        List<String> jobIds = new ArrayList<>();
+        List<Map<String, Long>> jobs = parseCounters(log, jobIds);
+        Map<String, Map<String, String>> reports = readReports(output, output);
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < jobs.size() || rows.isEmpty() && reports.isEmpty(); i++) {
+            Map<String, String> row = new LinkedHashMap<>();
+            row.put("run", jobs.size() > 1 ? label + "#" + (i + 1) : label);
+            row.put("exit_code", Integer.toString(exitCode));
+            Map<String, String> report = i < jobIds.size() ? reports.remove(jobIds.get(i)) : null;
+            String processingTime = report == null ? null : report.get("processing_time_ms");
+            row.put("processing_time_ms", processingTime == null ? "-" : processingTime);
+            row.put("process_elapsed_ms", Long.toString(elapsed));
+            Map<String, Long> counters = i < jobs.size() ? jobs.get(i) : new LinkedHashMap<String, Long>();
+            for (Map.Entry<String, String> column : COLUMNS.entrySet()) {
+                Long value = counters.get(column.getValue());
+                row.put(column.getKey(), value == null ? "-" : value.toString());
+            }
+            rows.add(row);
+        }
+
+        // 日志中没有计数器的作业（并发提交），按报告所在目录命名
+        for (Map<String, String> report : reports.values()) {
+            Map<String, String> row = new LinkedHashMap<>();
+            String dir = report.get(REPORT_DIR);
+            row.put("run", dir.isEmpty() ? label : label + "/" + dir);
+            row.put("exit_code", Integer.toString(exitCode));
+            String processingTime = report.get("processing_time_ms");
+            row.put("processing_time_ms", processingTime == null ? "-" : processingTime);
+            row.put("process_elapsed_ms", Long.toString(elapsed));
+            for (Map.Entry<String, String> column : REPORT_COUNTERS.entrySet()) {
+                String value = report.get(column.getValue());
+                row.put(column.getKey(), value == null ? "-" : value);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 解析 Job 在完成时打印的计数器块（"Counters: N" 之后以制表符缩进的 "名称=值" 行）
+     * @param jobIds 按相同顺序填入每个计数器块所属的作业 ID（之前的 "Job ... completed" 行，未知时为 null）
+     */
+    static List<Map<String, Long>> parseCounters(File log, List<String> jobIds) throws IOException {
+        List<Map<String, Long>> jobs = new ArrayList<>();
+        Map<String, Long> current = null;
+        String lastJobId = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(log), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher completed = JOB_COMPLETED.matcher(line);
+                if (completed.find()) {
+                    lastJobId = completed.group(1);
+                    current = null;
+                } else if (line.matches(".*\\bCounters: \\d+$")) {
+                    current = new LinkedHashMap<>();
+                    jobs.add(current);
+                    jobIds.add(lastJobId);
+                    lastJobId = null;
+                } else if (current != null && line.startsWith("\t")) {
+                    int eq = line.lastIndexOf('=');
+                    if (eq > 0) {
+                        try {
+                            current.put(line.substring(0, eq).trim(), Long.parseLong(line.substring(eq + 1).trim()));
+                        } catch (NumberFormatException e) {
+                            // 非数值行（例如计数器组名）忽略
+                        }
+                    }
+                } else {
+                    current = null;
+                }
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * 读取输出目录（含子目录）下所有 job-report.csv：作业 ID → processing_time_ms、TaskCounter 计数器和所在目录（相对 root）
+     */
+    static Map<String, Map<String, String>> readReports(File root, File dir) throws IOException {
+        Map<String, Map<String, String>> reports = new LinkedHashMap<>();
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return reports;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                reports.putAll(readReports(root, file));
+            } else if (file.getName().equals(JOB_REPORT_CSV)) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                    // 第一行是表头
+                    String line = reader.readLine();
+                    while ((line = reader.readLine()) != null) {
+                        String[] fields = line.split(",");
+                        if (fields.length != 4) {
+                            continue;
+                        }
+                        Map<String, String> report = reports.get(fields[0]);
+                        if (report == null) {
+                            report = new LinkedHashMap<>();
+                            report.put(REPORT_DIR, root.toURI().relativize(dir.toURI()).getPath().replaceAll("/$", ""));
+                            reports.put(fields[0], report);
+                        }
+                        if (fields[1].equals("job") && fields[2].equals("processing_time_ms")) {
+                            report.put("processing_time_ms", fields[3]);
+                        } else if (fields[1].equals("counter") && fields[2].startsWith(TASK_COUNTER_PREFIX)) {
+                            report.put(fields[2].substring(TASK_COUNTER_PREFIX.length()), fields[3]);
+                        }
+                    }
+                }
+            }
+        }
+        return reports;
+    }
+
+    private static void writeResults(File file, List<Map<String, String>> rows) throws IOException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> header = new ArrayList<>(rows.get(0).keySet());
+        int[] widths = new int[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            widths[i] = header.get(i).length();
+            for (Map<String, String> row : rows) {
+                widths[i] = Math.max(widths[i], row.get(header.get(i)).length());
+            }
+        }
+
+        try (PrintWriter tsv = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            tsv.println(String.join("\t", header));
+            for (Map<String, String> row : rows) {
+                tsv.println(String.join("\t", row.values()));
+            }
+        }
+
+        System.out.println("\n=== Local End-to-End Results ===");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < header.size(); i++) {
+            line.append(String.format("%-" + (widths[i] + 2) + "s", header.get(i)));
+        }
+        System.out.println(line.toString().trim());
+        for (Map<String, String> row : rows) {
+            line.setLength(0);
+            int i = 0;
+            for (String value : row.values()) {
+                line.append(String.format("%-" + (widths[i++] + 2) + "s", value));
+            }
+            System.out.println(line.toString().trim());
+        }
+        System.out.println("Results saved to: " + file);
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+
+    private static long parseSize(String size) {
+        String s = size.trim().toLowerCase();
+        long unit = 1;
+        if (s.endsWith("g")) {
+            unit = 1024L * 1024 * 1024;
+        } else if (s.endsWith("m")) {
+            unit = 1024L * 1024;
+        } else if (s.endsWith("k")) {
+            unit = 1024L;
+        }
+        if (unit > 1) {
+            s = s.substring(0, s.length() - 1);
+        }
+        return Long.parseLong(s) * unit;
+    }
+}
@@ -0,0 +1,110 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigdata.assignment.common.ChunkInputFormat;
+
+/**
+ * 各题目 Mapper 的热路径基准：一次调用用 Mapper.run() 处理 LINES 行 Zipf 语料，
+ * 结果为每个输入行的耗时（ns/record），配合 -prof gc 得到每行分配的字节数（gc.alloc.rate.norm）
+ * problem3-chunk 把同样的行拼接成 ChunkInputFormat 的块记录（默认块大小），结果仍按行计
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    static final int LINES = 10000;
+    static final int WORDS_PER_LINE = 12;
+
+    @Param({"problem1", "problem2", "problem2-inmapper", "problem3", "problem3-chunk"})
+    public String mapper;
+
+    private Mapper<LongWritable, Text, Text, IntWritable> instance;
+    private BenchmarkContexts.LineReader input;
+    private BenchmarkContexts.CountingWriter output;
+    private Mapper<LongWritable, Text, Text, IntWritable>.Context context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Configuration conf = BenchmarkContexts.newConfiguration();
+        String[] lines = new ZipfCorpus().nextLines(LINES, WORDS_PER_LINE);
+        if (mapper.endsWith("-chunk")) {
+            conf.setClass(MRJobConfig.INPUT_FORMAT_CLASS_ATTR, ChunkInputFormat.class, InputFormat.class);
+            lines = toChunks(lines, ChunkInputFormat.DEFAULT_CHUNK_BYTES);
+        }
+        input = new BenchmarkContexts.LineReader(lines);
+        output = new BenchmarkContexts.CountingWriter();
+        context = BenchmarkContexts.mapContext(conf, input, output);
+        instance = newMapper(mapper);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public long map() throws Exception {
+        input.reset();
+        instance.run(context);
+        return output.checksum();
+    }
+
+    private static Mapper<LongWritable, Text, Text, IntWritable> newMapper(String name) {
+        switch (name) {
+            case "problem1":
+                return new com.bigdata.assignment.problem1.WordCountMapper();
+            case "problem2":
+                return new com.bigdata.assignment.problem2.WordCountMapper();
+            case "problem2-inmapper":
+                return new com.bigdata.assignment.problem2.CombinerOptimizedMapper();
+            case "problem3":
+            case "problem3-chunk":
+                return new com.bigdata.assignment.problem3.WordCountOptimizedMapper();
+            default:
+                throw new IllegalArgumentException("Unknown mapper: " + name);
+        }
+    }
+
+    /**
+     * 按 ChunkRecordReader 的方式把完整的行拼接成不超过 chunkBytes 的块（每行以 '\n' 结尾）
+     */
+    private static String[] toChunks(String[] lines, int chunkBytes) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        for (String line : lines) {
+            if (chunk.length() > 0 && chunk.length() + line.length() + 1 > chunkBytes) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+            }
+            chunk.append(line).append('\n');
+        }
+        if (chunk.length() > 0) {
+            chunks.add(chunk.toString());
+        }
+        return chunks.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bigdata.assignment.problem2.AlphabetPartitioner;
+import com.bigdata.assignment.problem2.HotKeyPartitioner;
+import com.bigdata.assignment.problem2.HotKeys;
+
+/**
+ * 分区器的热路径基准：对 WORDS 个 Zipf 分布的单词调用 getPartition，结果为每个单词的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PartitionerBenchmark {
+
+    static final int WORDS = 100000;
+    static final int PARTITIONS = 4;
+
+    @Param({"alphabet", "hotkeys"})
+    public String partitioner;
+
+    private Partitioner<Text, IntWritable> instance;
+    private Text[] words;
+    private final IntWritable one = new IntWritable(1);
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ZipfCorpus corpus = new ZipfCorpus();
+        words = new Text[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = new Text(corpus.nextWord());
+        }
+
+        Configuration conf = BenchmarkContexts.newConfiguration();
+        if ("hotkeys".equals(partitioner)) {
+            // 以语料中最常见的 20 个单词作为高频单词
+            String[] hot = new String[20];
+            for (int i = 0; i < hot.length; i++) {
+                hot[i] = corpus.wordAt(i);
+            }
+            conf.setStrings(HotKeys.HOT_KEYS_KEY, hot);
+            instance = ReflectionUtils.newInstance(HotKeyPartitioner.class, conf);
+        } else {
+            instance = new AlphabetPartitioner();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int getPartition() {
+        int sum = 0;
+        for (Text word : words) {
+            sum += instance.getPartition(word, one, PARTITIONS);
+        }
+        return sum;
+    }
+}
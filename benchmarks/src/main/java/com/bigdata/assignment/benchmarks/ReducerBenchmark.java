@@ -0,0 +1,88 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Combiner 和 Reducer 的热路径基准：输入为已排序的 RECORDS 条 (单词, 1) 记录（模拟 Shuffle 结果），
+ * 一次调用用 Reducer.run() 处理全部记录，结果为每条输入记录的耗时（ns/record）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReducerBenchmark {
+
+    static final int RECORDS = 100000;
+
+    @Param({"problem2-combiner", "problem3-combiner", "problem1-reducer", "problem2-reducer",
+            "problem2-combiner-reducer", "problem3-reducer"})
+    public String reducer;
+
+    private Configuration conf;
+    private BenchmarkContexts.SortedRecords input;
+    private BenchmarkContexts.CountingWriter output;
+    private Reducer<Text, IntWritable, Text, IntWritable> instance;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        conf = BenchmarkContexts.newConfiguration();
+        ZipfCorpus corpus = new ZipfCorpus();
+        List<String> words = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            words.add(corpus.nextWord());
+        }
+        input = new BenchmarkContexts.SortedRecords(words);
+        output = new BenchmarkContexts.CountingWriter();
+        instance = newReducer(reducer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long reduce() throws Exception {
+        // ReduceContext 持有输入迭代器状态，每次调用重新创建（相对 RECORDS 条记录开销可忽略）
+        instance.run(BenchmarkContexts.reduceContext(conf, input, output));
+        return output.checksum();
+    }
+
+    private static Reducer<Text, IntWritable, Text, IntWritable> newReducer(String name) {
+        switch (name) {
+            case "problem2-combiner":
+                return new com.bigdata.assignment.problem2.WordCountCombiner();
+            case "problem3-combiner":
+                return new com.bigdata.assignment.problem3.WordCountOptimizedCombiner();
+            case "problem1-reducer":
+                return new com.bigdata.assignment.problem1.WordCountReducer();
+            case "problem2-reducer":
+                return new com.bigdata.assignment.problem2.WordCountReducer();
+            case "problem2-combiner-reducer":
+                return new com.bigdata.assignment.problem2.WordCountWithCombinerReducer();
+            case "problem3-reducer":
+                return new com.bigdata.assignment.problem3.WordCountOptimizedReducer();
+            default:
+                throw new IllegalArgumentException("Unknown reducer: " + name);
+        }
+    }
+}
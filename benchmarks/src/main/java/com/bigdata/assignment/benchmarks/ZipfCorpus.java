@@ -0,0 +1,144 @@
+package com.bigdata.assignment.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 确定性的 Zipf 分布文本语料生成器（用于基准测试和本地端到端测试）
+ * 功能：生成 vocabularySize 个随机小写单词，第 r 个单词的出现概率正比于 1 / r^exponent；
+ * 相同的参数和 seed 总是生成相同的文本，便于对比优化前后的结果
+ *
+ * 为覆盖分词器的各条路径，少量单词首字母大写、附带标点，偶尔插入数字和单字母单词
+ */
+public class ZipfCorpus {
+
+    public static final int DEFAULT_VOCABULARY_SIZE = 50000;
+    public static final double DEFAULT_EXPONENT = 1.07;
+    public static final long DEFAULT_SEED = 20251018L;
+
+    private static final String[] PUNCTUATION = {",", ".", ";", "!", "?", "\"", "'s"};
+
+    private final String[] vocabulary;
+    private final double[] cumulative;
+    private final Random random;
+
+    public ZipfCorpus() {
+        this(DEFAULT_VOCABULARY_SIZE, DEFAULT_EXPONENT, DEFAULT_SEED);
+    }
+
+    public ZipfCorpus(int vocabularySize, double exponent, long seed) {
+        if (vocabularySize <= 0) {
+            throw new IllegalArgumentException("Vocabulary size must be positive: " + vocabularySize);
+        }
+        random = new Random(seed);
+        vocabulary = new String[vocabularySize];
+        Set<String> seen = new HashSet<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < vocabularySize; i++) {
+            do {
+                word.setLength(0);
+                // 排名越靠前的单词越短，接近自然语言
+                int length = 2 + random.nextInt(Math.min(12, 2 + 31 - Integer.numberOfLeadingZeros(i + 1)));
+                for (int j = 0; j < length; j++) {
+                    word.append((char) ('a' + random.nextInt(26)));
+                }
+            } while (!seen.add(word.toString()));
+            vocabulary[i] = word.toString();
+        }
+
+        cumulative = new double[vocabularySize];
+        double sum = 0;
+        for (int i = 0; i < vocabularySize; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < vocabularySize; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * 按 Zipf 分布抽取一个单词
+     */
+    public String nextWord() {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return vocabulary[low];
+    }
+
+    /**
+     * 生成一行文本（不含换行符）
+     */
+    public String nextLine(int wordsPerLine) {
+        StringBuilder line = new StringBuilder(wordsPerLine * 8);
+        for (int i = 0; i < wordsPerLine; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            int noise = random.nextInt(100);
+            String word = nextWord();
+            if (noise < 5) {
+                line.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else if (noise < 6) {
+                line.append(random.nextInt(10000));
+            } else if (noise < 7) {
+                line.append((char) ('a' + random.nextInt(26)));
+            } else {
+                line.append(word);
+            }
+            if (noise >= 90) {
+                line.append(PUNCTUATION[noise % PUNCTUATION.length]);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * 生成一批文本行
+     */
+    public String[] nextLines(int lines, int wordsPerLine) {
+        String[] result = new String[lines];
+        for (int i = 0; i < lines; i++) {
+            result[i] = nextLine(wordsPerLine);
+        }
+        return result;
+    }
+
+    /**
+     * 写出至少 targetBytes 字节的文本
+     * @return 实际写出的字节数
+     */
+    public long write(OutputStream out, long targetBytes, int wordsPerLine) throws IOException {
+        long written = 0;
+        while (written < targetBytes) {
+            byte[] line = (nextLine(wordsPerLine) + "\n").getBytes(StandardCharsets.UTF_8);
+            out.write(line);
+            written += line.length;
+        }
+        return written;
+    }
+
+    /**
+     * 排名为 rank（从 0 开始）的单词
+     */
+    public String wordAt(int rank) {
+        return vocabulary[rank];
+    }
+
+    public int getVocabularySize() {
+        return vocabulary.length;
+    }
+}
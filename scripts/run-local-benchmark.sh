@@ -0,0 +1,34 @@
+#!/bin/bash
+
+# 本地端到端基准测试脚本 - 不依赖 Docker 容器和 HDFS
+# 使用方法: ./run-local-benchmark.sh <工作目录> [size=64m] [vocab=50000] [seed=N] [runs=problem1,problem2,...]
+# 示例: ./run-local-benchmark.sh output/local-bench size=256m runs=problem2,problem2:inmapper+vint,problem3
+
+set -e  # 遇到错误时停止执行
+
+# 检查参数
+if [ $# -lt 1 ]; then
+    echo "用法: $0 <工作目录> [size=64m] [vocab=50000] [seed=N] [runs=problem1,problem2,problem2:inmapper,problem3,config]"
+    exit 1
+fi
+
+PROJECT_ROOT=$(cd "$(dirname "$0")/.." && pwd)
+BENCH_JAR="$PROJECT_ROOT/benchmarks/target/benchmarks.jar"
+
+echo "=== 本地端到端基准测试（LocalJobRunner）==="
+
+# 编译项目和基准测试模块
+echo "正在编译项目..."
+cd "$PROJECT_ROOT"
+mvn -q install -DskipTests
+cd "$PROJECT_ROOT/benchmarks"
+mvn -q clean package
+
+if [ ! -f "$BENCH_JAR" ]; then
+    echo "错误: JAR文件不存在: $BENCH_JAR"
+    exit 1
+fi
+
+# 运行（相同参数生成的语料完全相同，可重复对比优化前后的结果）
+cd "$PROJECT_ROOT"
+java -cp "$BENCH_JAR" com.bigdata.assignment.benchmarks.LocalEndToEndHarness "$@"
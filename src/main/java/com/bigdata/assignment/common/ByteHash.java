@@ -0,0 +1,30 @@
+package com.bigdata.assignment.common;
+
+/**
+ * 公共组件：单词字节的 64 位哈希
+ * 功能：FNV-1a 累积后再经过 MurmurHash3 的 fmix64 混合，高低位分布都足够均匀，
+ * 供 CountMinSketch（拆成两个 32 位哈希）和 HyperLogLog（取前缀零个数）共用
+ */
+public final class ByteHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ByteHash() {
+    }
+
+    public static long hash64(byte[] bytes, int offset, int length) {
+        long h = FNV_OFFSET;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h ^= bytes[i] & 0xff;
+            h *= FNV_PRIME;
+        }
+        // fmix64
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
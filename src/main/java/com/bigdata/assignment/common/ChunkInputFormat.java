@@ -0,0 +1,87 @@
+package com.bigdata.assignment.common;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+
+/**
+ * 公共组件：按块读取整行的输入格式
+ * 功能：TextInputFormat 每行产生一条 (LongWritable, Text) 记录，5400 万单词的语料需要数百万次 map() 调用
+ * 和逐行的 Text 复制；这里每条记录是一块由完整行组成的字节（默认约 256KB，以 '\n' 结尾），
+ * Mapper 用 WordTokenizer 在一个循环中切分整块，逐记录的框架开销降为原来的几千分之一，
+ * 整块数据连续驻留在 CPU 缓存中
+ *
+ * - 键：块首字节在文件中的偏移
+ * - 值：若干完整的行（包含行尾的 '\n'）；单行超过块大小时整行作为一块
+ * - 分片边界规则与 LineRecordReader 相同：跳过分片起点所在的残行，读到跨过分片终点的那一行为止，
+ *   每行恰好属于一个分片
+ * - 单词不会跨行，UTF-8 多字节字符中也不会出现 '\n'，因此切分结果与逐行处理完全一致
+ * - 压缩输入不可切分，整个文件由一个 Mapper 解压读取
+ *
+ * 注意：MAP_INPUT_RECORDS 计数器统计的是块数，行数由 Mapper 通过 countLines() 统计
+ *
+ * 设置：wordcount.chunk.bytes - 每块的目标字节数（默认 262144）
+ */
+public class ChunkInputFormat extends FileInputFormat<LongWritable, Text> {
+
+    public static final String CHUNK_BYTES_KEY = "wordcount.chunk.bytes";
+    public static final int DEFAULT_CHUNK_BYTES = 256 * 1024;
+
+    /**
+     * 使用按块读取作为作业的输入格式
+     * @param chunkBytes 每块的目标字节数，不大于 0 时使用默认值
+     */
+    public static void configure(Job job, int chunkBytes) {
+        job.setInputFormatClass(ChunkInputFormat.class);
+        if (chunkBytes > 0) {
+            job.getConfiguration().setInt(CHUNK_BYTES_KEY, chunkBytes);
+        }
+    }
+
+    /**
+     * 当前任务的输入是否为块记录（在 Mapper.setup 中调用）
+     */
+    public static boolean isChunked(TaskAttemptContext context) {
+        try {
+            Class<?> inputFormat = context.getInputFormatClass();
+            return ChunkInputFormat.class.isAssignableFrom(inputFormat)
+                || CombineChunkInputFormat.class.isAssignableFrom(inputFormat);
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 统计一条块记录中的行数（最后一行可能没有 '\n'）
+     */
+    public static int countLines(Text chunk) {
+        byte[] bytes = chunk.getBytes();
+        int length = chunk.getLength();
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '\n') {
+                lines++;
+            }
+        }
+        return length > 0 && bytes[length - 1] != '\n' ? lines + 1 : lines;
+    }
+
+    @Override
+    public RecordReader<LongWritable, Text> createRecordReader(InputSplit split, TaskAttemptContext context) {
+        return new ChunkRecordReader();
+    }
+
+    @Override
+    protected boolean isSplitable(JobContext context, Path file) {
+        CompressionCodec codec = new CompressionCodecFactory(context.getConfiguration()).getCodec(file);
+        return codec == null;
+    }
+}
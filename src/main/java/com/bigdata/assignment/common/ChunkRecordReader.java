@@ -0,0 +1,209 @@
+package com.bigdata.assignment.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+
+/**
+ * 公共组件：ChunkInputFormat 的 RecordReader
+ * 功能：把分片读成若干块完整的行
+ *
+ * 分片 [start, end) 拥有起始位置 p 满足 start < p <= end 的所有行（start 为 0 时包括第一行），
+ * 与 LineRecordReader 的规则一致：非首个分片先跳过第一个 '\n' 之前的残行，
+ * 最后一块结束于位置不小于 end 的第一个 '\n'（或文件末尾）
+ *
+ * 每次从流中读满缓冲区，向后找到最后一个 '\n' 作为块尾，剩余的不完整行留到下一块开头，
+ * 只在最后一块中向前查找分片终点之后的 '\n'，不逐字节扫描整块
+ */
+public class ChunkRecordReader extends RecordReader<LongWritable, Text> {
+
+    private final LongWritable key = new LongWritable();
+    private final Text value = new Text();
+
+    private InputStream in;
+    private Decompressor decompressor;
+    private long start;
+    private long end;
+
+    // buffer[0, filled) 对应文件中 [pos, pos + filled) 的字节，均尚未输出
+    private byte[] buffer;
+    private int filled;
+    private long pos;
+    private boolean eof;
+    private boolean finished;
+
+    @Override
+    public void initialize(InputSplit genericSplit, TaskAttemptContext context) throws IOException {
+        FileSplit split = (FileSplit) genericSplit;
+        Configuration conf = context.getConfiguration();
+        buffer = new byte[Math.max(1, conf.getInt(ChunkInputFormat.CHUNK_BYTES_KEY,
+            ChunkInputFormat.DEFAULT_CHUNK_BYTES))];
+
+        Path file = split.getPath();
+        FSDataInputStream fileIn = file.getFileSystem(conf).open(file);
+        CompressionCodec codec = new CompressionCodecFactory(conf).getCodec(file);
+        if (codec != null) {
+            // 压缩文件不可切分：从头解压到文件末尾
+            decompressor = CodecPool.getDecompressor(codec);
+            in = codec.createInputStream(fileIn, decompressor);
+            start = 0;
+            end = Long.MAX_VALUE;
+        } else {
+            fileIn.seek(split.getStart());
+            in = fileIn;
+            start = split.getStart();
+            end = start + split.getLength();
+        }
+        pos = start;
+
+        if (start != 0) {
+            skipPartialLine();
+        }
+    }
+
+    /**
+     * 丢弃分片起点之后第一个 '\n' 及之前的字节，这一行属于上一个分片
+     */
+    private void skipPartialLine() throws IOException {
+        while (true) {
+            if (filled == 0 && !fill()) {
+                finished = true;
+                return;
+            }
+            for (int i = 0; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    consume(i + 1);
+                    finished = pos > end;
+                    return;
+                }
+            }
+            consume(filled);
+        }
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException {
+        if (finished) {
+            return false;
+        }
+        while (true) {
+            if (filled < buffer.length) {
+                fill();
+            }
+            if (filled == 0) {
+                finished = true;
+                return false;
+            }
+
+            // 1. 分片终点落在缓冲区内：块尾为终点之后的第一个 '\n'，这是本分片的最后一块
+            int endIndex = (int) Math.max(0, Math.min(end - pos, filled));
+            for (int i = endIndex; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    finished = true;
+                    return emit(i + 1);
+                }
+            }
+
+            // 2. 否则以缓冲区中最后一个 '\n' 为块尾
+            if (!eof) {
+                for (int i = filled - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        return emit(i + 1);
+                    }
+                }
+            }
+
+            // 3. 文件末尾：剩余字节（可能没有 '\n'）作为最后一块
+            if (eof) {
+                finished = true;
+                return emit(filled);
+            }
+
+            // 4. 单行超过缓冲区：扩容后继续读取
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            }
+        }
+    }
+
+    private boolean emit(int length) {
+        key.set(pos);
+        value.set(buffer, 0, length);
+        consume(length);
+        return true;
+    }
+
+    /**
+     * 丢弃缓冲区开头的 n 个字节
+     */
+    private void consume(int n) {
+        System.arraycopy(buffer, n, buffer, 0, filled - n);
+        filled -= n;
+        pos += n;
+    }
+
+    /**
+     * 从流中读取数据直到缓冲区满或文件结束
+     * @return 缓冲区中是否有数据
+     */
+    private boolean fill() throws IOException {
+        while (!eof && filled < buffer.length) {
+            int n = in.read(buffer, filled, buffer.length - filled);
+            if (n < 0) {
+                eof = true;
+            } else {
+                filled += n;
+            }
+        }
+        return filled > 0;
+    }
+
+    @Override
+    public LongWritable getCurrentKey() {
+        return key;
+    }
+
+    @Override
+    public Text getCurrentValue() {
+        return value;
+    }
+
+    @Override
+    public float getProgress() {
+        if (finished) {
+            return 1.0f;
+        }
+        if (end == Long.MAX_VALUE || end == start) {
+            return 0.0f;
+        }
+        return Math.min(1.0f, (pos - start) / (float) (end - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } finally {
+            if (decompressor != null) {
+                CodecPool.returnDecompressor(decompressor);
+                decompressor = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bigdata.assignment.common;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReader;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReaderWrapper;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+
+/**
+ * 公共组件：合并小文件的按块输入格式
+ * 功能：CombineTextInputFormat 的按块版本，把多个小文件（或文件块）按节点/机架就近打包成
+ * 不超过 mapreduce.input.fileinputformat.split.maxsize 的分片，分片内的每个文件由
+ * ChunkRecordReader 读成完整行的块，Mapper 的处理方式与 ChunkInputFormat 相同
+ */
+public class CombineChunkInputFormat extends CombineFileInputFormat<LongWritable, Text> {
+
+    @Override
+    public RecordReader<LongWritable, Text> createRecordReader(InputSplit split, TaskAttemptContext context)
+            throws IOException {
+        return new CombineFileRecordReader<LongWritable, Text>(
+            (CombineFileSplit) split, context, ChunkReaderWrapper.class);
+    }
+
+    @Override
+    protected boolean isSplitable(JobContext context, Path file) {
+        return new CompressionCodecFactory(context.getConfiguration()).getCodec(file) == null;
+    }
+
+    /**
+     * 读取合并分片中的第 idx 个文件
+     */
+    private static class ChunkReaderWrapper extends CombineFileRecordReaderWrapper<LongWritable, Text> {
+        // CombineFileRecordReader 通过反射调用该构造函数
+        public ChunkReaderWrapper(CombineFileSplit split, TaskAttemptContext context, Integer idx)
+                throws IOException, InterruptedException {
+            super(new ChunkInputFormat(), split, context, idx);
+        }
+    }
+}
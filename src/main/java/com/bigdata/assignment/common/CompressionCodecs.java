@@ -0,0 +1,134 @@
+package com.bigdata.assignment.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.ZStandardCodec;
+
+/**
+ * 公共组件：中间结果和最终输出的压缩格式选择
+ * 功能：按短名称（none / snappy / lz4 / zstd / deflate）设置 Map 输出压缩和 FileOutputFormat 输出压缩，
+ * 所需的库不可用时退回纯 Java 实现的 deflate：
+ * - snappy：Hadoop 3.3+ 使用 snappy-java
+ * - lz4：Hadoop 3.3+ 使用 lz4-java
+ * - zstd：需要带 zstd 的 libhadoop 本地库
+ * - deflate：本地 zlib 不可用时 Hadoop 自动使用 java.util.zip
+ * 可用性在提交作业的客户端上检查，集群节点的库应与客户端一致
+ */
+public final class CompressionCodecs {
+
+    public static final String NONE = "none";
+    public static final String SNAPPY = "snappy";
+    public static final String LZ4 = "lz4";
+    public static final String ZSTD = "zstd";
+    public static final String DEFLATE = "deflate";
+
+    /** 全部可选格式，codec 基准按此顺序运行 */
+    public static final String[] NAMES = {NONE, SNAPPY, LZ4, ZSTD, DEFLATE};
+
+    private static final Set<String> WARNED = new HashSet<>();
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * 短名称对应的 CompressionCodec 类名，none 返回 null
+     */
+    public static String codecClass(String name) {
+        switch (name) {
+            case NONE:
+                return null;
+            case SNAPPY:
+                return "org.apache.hadoop.io.compress.SnappyCodec";
+            case LZ4:
+                return "org.apache.hadoop.io.compress.Lz4Codec";
+            case ZSTD:
+                return "org.apache.hadoop.io.compress.ZStandardCodec";
+            case DEFLATE:
+                return "org.apache.hadoop.io.compress.DefaultCodec";
+            default:
+                throw new IllegalArgumentException("Unknown codec: " + name + " (expected none, snappy, lz4, zstd or deflate)");
+        }
+    }
+
+    /**
+     * 当前 JVM 中能否使用该格式
+     */
+    public static boolean isAvailable(String name) {
+        codecClass(name);
+        try {
+            switch (name) {
+                case SNAPPY:
+                    // 触发 snappy-java 加载其自带的本地库
+                    Class.forName("org.xerial.snappy.Snappy").getMethod("maxCompressedLength", int.class).invoke(null, 1);
+                    return true;
+                case LZ4:
+                    Class.forName("net.jpountz.lz4.LZ4Factory");
+                    return true;
+                case ZSTD:
+                    return ZStandardCodec.isNativeCodeLoaded();
+                default:
+                    return true;
+            }
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 返回实际使用的格式：不可用时退回 deflate 并打印一次提示
+     */
+    public static synchronized String resolve(String name) {
+        if (isAvailable(name)) {
+            return name;
+        }
+        if (WARNED.add(name)) {
+            System.err.println("Codec " + name + " is not available in this JVM, falling back to " + DEFLATE);
+        }
+        return DEFLATE;
+    }
+
+    /**
+     * 设置 Map 输出（Shuffle 数据）压缩
+     * @return 实际使用的格式
+     */
+    public static String configureMapOutput(Configuration conf, String name) {
+        String resolved = resolve(name);
+        String codecClass = codecClass(resolved);
+        conf.setBoolean("mapreduce.map.output.compress", codecClass != null);
+        if (codecClass != null) {
+            conf.set("mapreduce.map.output.compress.codec", codecClass);
+        }
+        return resolved;
+    }
+
+    /**
+     * 设置最终输出（part-r-* 文件）压缩，压缩后的文件名带有格式的扩展名
+     * @return 实际使用的格式
+     */
+    public static String configureOutput(Configuration conf, String name) {
+        String resolved = resolve(name);
+        String codecClass = codecClass(resolved);
+        conf.setBoolean("mapreduce.output.fileoutputformat.compress", codecClass != null);
+        if (codecClass != null) {
+            conf.set("mapreduce.output.fileoutputformat.compress.codec", codecClass);
+        }
+        return resolved;
+    }
+
+    /**
+     * 打开一个作业输出文件，按扩展名自动解压（未压缩的文件原样返回）
+     */
+    public static InputStream open(FileSystem fs, Path path) throws IOException {
+        CompressionCodec codec = new CompressionCodecFactory(fs.getConf()).getCodec(path);
+        InputStream in = fs.open(path);
+        return codec == null ? in : codec.createInputStream(in);
+    }
+}
@@ -0,0 +1,136 @@
+package com.bigdata.assignment.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * 公共组件：Count-Min Sketch 近似计数
+ * 功能：depth 行 × width 列的计数矩阵，每个单词在每行命中一列，估计值取各行最小值
+ *
+ * 误差保证（N 为总计数）：估计值 &gt;= 真实值，且以 1 - delta 的概率
+ * 估计值 &lt;= 真实值 + epsilon * N，其中 width = ceil(e / epsilon)，depth = ceil(ln(1 / delta))
+ *
+ * 相同尺寸的 Sketch 可逐格相加合并（各 Mapper 分别构建，Reducer 合并）
+ */
+public class CountMinSketch implements Writable {
+
+    private int width;
+    private int depth;
+    private long[] table;
+    private long totalCount;
+
+    /** 供反序列化使用 */
+    public CountMinSketch() {
+        this(1, 1);
+    }
+
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.table = new long[width * depth];
+    }
+
+    /**
+     * 按误差参数创建
+     * @param epsilon 相对总计数的误差上限
+     * @param delta   超出误差上限的概率
+     */
+    public static CountMinSketch withErrorBounds(double epsilon, double delta) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Invalid Count-Min Sketch bounds: epsilon=" + epsilon + ", delta=" + delta);
+        }
+        int width = (int) Math.ceil(Math.E / epsilon);
+        int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch(width, depth);
+    }
+
+    /**
+     * @param hash ByteHash.hash64 的结果
+     */
+    public void add(long hash, long count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            table[row * width + column(h1, h2, row)] += count;
+        }
+        totalCount += count;
+    }
+
+    public long estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[row * width + column(h1, h2, row)]);
+        }
+        return min;
+    }
+
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Cannot merge Count-Min Sketches of different sizes: "
+                + width + "x" + depth + " vs " + other.width + "x" + other.depth);
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] += other.table[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /** 单个估计值的加性误差上限 epsilon * N */
+    public double getErrorBound() {
+        return Math.E / width * totalCount;
+    }
+
+    /** 误差上限成立的概率 1 - delta */
+    public double getConfidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    /**
+     * Kirsch-Mitzenmacher：第 row 行的哈希为 h1 + row * h2
+     */
+    private int column(int h1, int h2, int row) {
+        int h = h1 + row * h2;
+        return (h & Integer.MAX_VALUE) % width;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeVInt(out, width);
+        WritableUtils.writeVInt(out, depth);
+        WritableUtils.writeVLong(out, totalCount);
+        for (long cell : table) {
+            WritableUtils.writeVLong(out, cell);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        width = WritableUtils.readVInt(in);
+        depth = WritableUtils.readVInt(in);
+        totalCount = WritableUtils.readVLong(in);
+        if (table.length != width * depth) {
+            table = new long[width * depth];
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] = WritableUtils.readVLong(in);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.bigdata.assignment.common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * 公共组件：按频率排序的外部归并排序
+ * 功能：读取 "word\tcount" 格式的结果，按 count 降序、word 升序输出。
+ * 内存中只保留不超过预算的一批记录，排序后写成本地有序 run 文件，最后对所有 run 做 k 路归并，
+ * 因此 Driver 的内存占用与词汇量无关
+ *
+ * 全部数据能放入一个 run 时直接在内存中排序输出，不产生临时文件。
+ *
+ * 配置参数：
+ * - wordcount.results.sort.buffer.mb：内存中一批记录的预算（默认 64MB）
+ * - wordcount.results.sort.tmp.dir：run 文件所在的本地目录（默认 java.io.tmpdir）
+ */
+public class ExternalFrequencySorter {
+
+    public static final String BUFFER_MB_KEY = "wordcount.results.sort.buffer.mb";
+    public static final String TMP_DIR_KEY = "wordcount.results.sort.tmp.dir";
+    public static final int DEFAULT_BUFFER_MB = 64;
+
+    /** 按 count 降序、word 升序（与原 Driver 内排序规则一致） */
+    static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            int cmp = Integer.compare(b.count, a.count);
+            return cmp != 0 ? cmp : a.word.compareTo(b.word);
+        }
+    };
+
+    /** 每条记录的内存开销估算：对象头 + String + char[] */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final long memoryBudgetBytes;
+    private final File tmpDir;
+
+    private Entry[] buffer = new Entry[1024];
+    private int buffered;
+    private long bufferedBytes;
+    private final List<File> runs = new ArrayList<>();
+    private long totalRecords;
+
+    /**
+     * @param memoryBudgetBytes 内存中一批记录的字节预算
+     * @param tmpDir            run 文件所在的本地目录
+     */
+    public ExternalFrequencySorter(long memoryBudgetBytes, File tmpDir) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.tmpDir = tmpDir;
+    }
+
+    public static ExternalFrequencySorter fromConf(Configuration conf) {
+        long budget = Math.max(1, conf.getInt(BUFFER_MB_KEY, DEFAULT_BUFFER_MB)) * 1024L * 1024L;
+        File tmpDir = new File(conf.get(TMP_DIR_KEY, System.getProperty("java.io.tmpdir")));
+        return new ExternalFrequencySorter(budget, tmpDir);
+    }
+
+    /**
+     * 读取一个 "word\tcount" 格式的文本流（例如 part-r-* 文件），格式不正确的行被跳过
+     */
+    public void addAll(InputStream in) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0 || tab == line.length() - 1 || line.indexOf('\t', tab + 1) >= 0) {
+                    continue;
+                }
+                add(line.substring(0, tab), Integer.parseInt(line.substring(tab + 1)));
+            }
+        }
+    }
+
+    public void add(String word, int count) throws IOException {
+        if (buffered == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffered << 1);
+        }
+        buffer[buffered++] = new Entry(word, count);
+        bufferedBytes += ENTRY_OVERHEAD_BYTES + 2L * word.length();
+        totalRecords++;
+        if (bufferedBytes >= memoryBudgetBytes) {
+            spill();
+        }
+    }
+
+    public long getTotalRecords() {
+        return totalRecords;
+    }
+
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * 按频率顺序把所有记录以 "word\tcount\n" 写入 out（不关闭 out），并删除临时 run 文件
+     */
+    public void writeSorted(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(new BufferedOutputStream(out, 1 << 16), StandardCharsets.UTF_8);
+        try {
+            if (runs.isEmpty()) {
+                // 全部在内存中：直接排序输出
+                Arrays.sort(buffer, 0, buffered, ORDER);
+                for (int i = 0; i < buffered; i++) {
+                    writeLine(writer, buffer[i].word, buffer[i].count);
+                }
+            } else {
+                if (buffered > 0) {
+                    spill();
+                }
+                merge(writer);
+            }
+            writer.flush();
+        } finally {
+            buffer = new Entry[0];
+            buffered = 0;
+            for (File run : runs) {
+                run.delete();
+            }
+            runs.clear();
+        }
+    }
+
+    /**
+     * 将当前内存中的记录排序后写成一个 run 文件
+     */
+    private void spill() throws IOException {
+        Arrays.sort(buffer, 0, buffered, ORDER);
+        File run = File.createTempFile("wordcount-run-", ".bin", tmpDir);
+        run.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < buffered; i++) {
+                out.writeInt(buffer[i].count);
+                out.writeUTF(buffer[i].word);
+                buffer[i] = null;
+            }
+        }
+        runs.add(run);
+        buffered = 0;
+        bufferedBytes = 0;
+    }
+
+    /**
+     * k 路归并所有 run 文件，每个 run 只在内存中保留当前一条记录
+     */
+    private void merge(Writer writer) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(runs.size(), new Comparator<RunReader>() {
+            @Override
+            public int compare(RunReader a, RunReader b) {
+                return ORDER.compare(a.current, b.current);
+            }
+        });
+        List<RunReader> readers = new ArrayList<>();
+        try {
+            for (File run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                writeLine(writer, reader.current.word, reader.current.count);
+                if (reader.advance()) {
+                    heap.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static void writeLine(Writer writer, String word, int count) throws IOException {
+        writer.write(word);
+        writer.write('\t');
+        writer.write(Integer.toString(count));
+        writer.write('\n');
+    }
+
+    static final class Entry {
+        final String word;
+        final int count;
+
+        Entry(String word, int count) {
+            this.word = word;
+            this.count = count;
+        }
+    }
+
+    private static final class RunReader {
+        private final DataInputStream in;
+        Entry current;
+
+        RunReader(File run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            int count;
+            try {
+                count = in.readInt();
+            } catch (EOFException e) {
+                current = null;
+                return false;
+            }
+            current = new Entry(in.readUTF(), count);
+            return true;
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bigdata.assignment.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * 公共组件：HyperLogLog 基数估计（用于近似的 unique_words）
+ * 功能：哈希前 p 位选择寄存器，寄存器记录剩余位中前导零个数 + 1 的最大值，
+ * 估计值的相对标准误差约为 1.04 / sqrt(2^p)（p = 14 时约 0.81%），内存为 2^p 字节
+ *
+ * 小基数时使用线性计数修正；相同精度的 HLL 取各寄存器最大值即可合并
+ */
+public class HyperLogLog implements Writable {
+
+    private int precision;
+    private byte[] registers;
+
+    /** 供反序列化使用 */
+    public HyperLogLog() {
+        this(4);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be in [4, 18]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @param hash ByteHash.hash64 的结果
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 末尾补 1，保证剩余位全零时 rank 不超过 64 - precision + 1
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // 线性计数
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLogs of different precision: "
+                + precision + " vs " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /** 相对标准误差 1.04 / sqrt(m) */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeVInt(out, precision);
+        out.write(registers);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        precision = WritableUtils.readVInt(in);
+        if (registers.length != 1 << precision) {
+            registers = new byte[1 << precision];
+        }
+        in.readFully(registers);
+    }
+}
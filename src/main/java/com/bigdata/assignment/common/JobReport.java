@@ -0,0 +1,586 @@
+package com.bigdata.assignment.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.TaskID;
+import org.apache.hadoop.mapreduce.TaskReport;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.jobhistory.JobHistoryParser;
+
+/**
+ * 公共组件：各 Driver 共用的作业性能报告
+ * 功能：从已完成的 Job 中收集计数器、真实的 Map/Reduce 任务数和每个任务的起止时间，计算
+ * - 阶段耗时：map（首个 Map 开始到最后一个 Map 结束）、shuffle / merge / reduce（各 Reducer 中的最大值）
+ * - 任务耗时分位数（p50 / p90 / p99 / max）和拖尾比例（max / p50）
+ * - 每个分区（Reducer）的输入字节数，以及 putPartitionMetric() 加入的分区指标（见 PartitionMetrics）
+ * 输出 job-report.json 和 job-report.csv（长表格式 job_id,section,name,value，多次运行可直接拼接作图）；
+ * Driver 自己的指标通过 put() 加入，并可按原格式写出 statistics.txt / performance-report.txt；
+ * putDetail() 加入的指标（如 Driver 后处理耗时）只写入 JSON/CSV，不改变 statistics.txt 的内容；
+ * 从结果缓存恢复的报告由 markCached() 加上 cache_hit / cache_key 指标
+ *
+ * 任务起止时间来自 job.getTaskReports()；shuffle / merge 的分界只记录在作业历史文件中，
+ * 找不到历史文件时（例如本地作业运行器）只给出 Reduce 任务总耗时。本地作业运行器也不提供任务报告，
+ * 此时任务数取自提交时计算的分片数
+ */
+public class JobReport {
+
+    public static final String JSON_FILE = "job-report.json";
+    public static final String CSV_FILE = "job-report.csv";
+
+    private static final String TASK_COUNTER = "org.apache.hadoop.mapreduce.TaskCounter";
+    private static final String INPUT_FORMAT_COUNTER = "org.apache.hadoop.mapreduce.lib.input.FileInputFormatCounter";
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final String jobId;
+    private final String jobName;
+    private final long processingTime;
+    private final Counters counters;
+    private final int mapTaskCount;
+    private final int reduceTaskCount;
+    private final boolean taskReportsAvailable;
+    private final boolean historyAvailable;
+    private final List<TaskTiming> mapTasks;
+    private final List<TaskTiming> reduceTasks;
+
+    // Driver 指标：名称 -> 格式化后的值，numeric 中记录哪些值在 JSON 中不加引号
+    private final Map<String, String> metrics = new LinkedHashMap<>();
+    private final Map<String, Boolean> numeric = new HashMap<>();
+    // 只写入 JSON/CSV 的指标名
+    private final Set<String> details = new HashSet<>();
+    // 各分区的附加指标（例如 PartitionMetrics 的计数器）：分区号 -> 名称 -> 值
+    private final Map<Integer, Map<String, Long>> partitionMetrics = new TreeMap<>();
+
+    /**
+     * 单个任务的时间线，未知的时间为 -1
+     */
+    private static class TaskTiming {
+        final String taskId;
+        final int partition;
+        long startTime = -1;
+        long finishTime = -1;
+        long shuffleFinishTime = -1;
+        long sortFinishTime = -1;
+        long inputBytes = -1;
+
+        TaskTiming(TaskID taskId) {
+            this.taskId = taskId.toString();
+            this.partition = taskId.getId();
+        }
+
+        long duration() {
+            return startTime > 0 && finishTime >= startTime ? finishTime - startTime : -1;
+        }
+    }
+
+    private JobReport(Job job, long processingTime, List<TaskTiming> mapTasks, List<TaskTiming> reduceTasks,
+                      boolean taskReportsAvailable, boolean historyAvailable) throws IOException {
+        this.jobId = String.valueOf(job.getJobID());
+        this.jobName = job.getJobName();
+        this.processingTime = processingTime;
+        this.counters = job.getCounters();
+        this.mapTasks = mapTasks;
+        this.reduceTasks = reduceTasks;
+        this.taskReportsAvailable = taskReportsAvailable;
+        this.historyAvailable = historyAvailable;
+        this.mapTaskCount = mapTasks.isEmpty()
+            ? job.getConfiguration().getInt(MRJobConfig.NUM_MAPS, 0) : mapTasks.size();
+        this.reduceTaskCount = reduceTasks.isEmpty() ? job.getNumReduceTasks() : reduceTasks.size();
+    }
+
+    /**
+     * 从已完成的作业收集报告
+     * @param processingTime Driver 测得的作业耗时（毫秒）
+     */
+    public static JobReport fromJob(Job job, long processingTime) throws IOException, InterruptedException {
+        Map<TaskID, TaskTiming> maps = new HashMap<>();
+        Map<TaskID, TaskTiming> reduces = new HashMap<>();
+        boolean taskReportsAvailable = readTaskReports(job.getTaskReports(TaskType.MAP), maps,
+            INPUT_FORMAT_COUNTER, "BYTES_READ");
+        taskReportsAvailable |= readTaskReports(job.getTaskReports(TaskType.REDUCE), reduces,
+            TASK_COUNTER, "REDUCE_SHUFFLE_BYTES");
+        boolean historyAvailable = readHistory(job, maps, reduces);
+        return new JobReport(job, processingTime, sorted(maps), sorted(reduces), taskReportsAvailable, historyAvailable);
+    }
+
+    private static boolean readTaskReports(TaskReport[] reports, Map<TaskID, TaskTiming> tasks,
+                                           String bytesGroup, String bytesCounter) {
+        if (reports == null) {
+            return false;
+        }
+        for (TaskReport report : reports) {
+            TaskTiming task = new TaskTiming(report.getTaskID());
+            task.startTime = report.getStartTime();
+            task.finishTime = report.getFinishTime();
+            if (report.getTaskCounters() != null) {
+                task.inputBytes = report.getTaskCounters().findCounter(bytesGroup, bytesCounter).getValue();
+            }
+            tasks.put(report.getTaskID(), task);
+        }
+        return reports.length > 0;
+    }
+
+    /**
+     * 从作业历史文件中读取成功尝试的 shuffle / sort 完成时间，并补全任务报告中缺失的任务
+     * @return 是否读到了历史文件
+     */
+    private static boolean readHistory(Job job, Map<TaskID, TaskTiming> maps, Map<TaskID, TaskTiming> reduces) {
+        try {
+            String historyUrl = job.getHistoryUrl();
+            if (historyUrl == null || historyUrl.isEmpty()) {
+                return false;
+            }
+            Path historyFile = new Path(historyUrl);
+            JobHistoryParser.JobInfo info = new JobHistoryParser(
+                historyFile.getFileSystem(job.getConfiguration()), historyFile).parse();
+            for (JobHistoryParser.TaskInfo taskInfo : info.getAllTasks().values()) {
+                JobHistoryParser.TaskAttemptInfo attempt = taskInfo.getSuccessfulAttemptId() == null ? null
+                    : taskInfo.getAllTaskAttempts().get(taskInfo.getSuccessfulAttemptId());
+                Map<TaskID, TaskTiming> tasks = taskInfo.getTaskType() == TaskType.MAP ? maps
+                    : taskInfo.getTaskType() == TaskType.REDUCE ? reduces : null;
+                if (tasks == null || attempt == null) {
+                    continue;
+                }
+                TaskTiming task = tasks.get(taskInfo.getTaskId());
+                if (task == null) {
+                    task = new TaskTiming(taskInfo.getTaskId());
+                    task.startTime = attempt.getStartTime();
+                    task.finishTime = attempt.getFinishTime();
+                    Counters taskCounters = attempt.getCounters();
+                    if (taskCounters != null) {
+                        task.inputBytes = taskInfo.getTaskType() == TaskType.MAP
+                            ? taskCounters.findCounter(INPUT_FORMAT_COUNTER, "BYTES_READ").getValue()
+                            : taskCounters.findCounter(TASK_COUNTER, "REDUCE_SHUFFLE_BYTES").getValue();
+                    }
+                    tasks.put(taskInfo.getTaskId(), task);
+                }
+                if (taskInfo.getTaskType() == TaskType.REDUCE) {
+                    task.shuffleFinishTime = attempt.getShuffleFinishTime();
+                    task.sortFinishTime = attempt.getSortFinishTime();
+                }
+            }
+            return true;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            System.err.println("Job history not available for task phase timing: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static List<TaskTiming> sorted(Map<TaskID, TaskTiming> tasks) {
+        List<TaskTiming> list = new ArrayList<>(tasks.values());
+        Collections.sort(list, new Comparator<TaskTiming>() {
+            @Override
+            public int compare(TaskTiming a, TaskTiming b) {
+                return Integer.compare(a.partition, b.partition);
+            }
+        });
+        return list;
+    }
+
+    // ---- Driver 指标 ----
+
+    public JobReport put(String name, long value) {
+        return put(name, Long.toString(value), true);
+    }
+
+    public JobReport put(String name, boolean value) {
+        return put(name, Boolean.toString(value), true);
+    }
+
+    public JobReport put(String name, String value) {
+        return put(name, value, false);
+    }
+
+    /**
+     * 加入保留 decimals 位小数的指标（与原报告中的 String.format 格式一致，不随默认语言环境改用逗号作小数点）
+     */
+    public JobReport put(String name, double value, int decimals) {
+        return put(name, String.format(Locale.ROOT, "%." + decimals + "f", value), true);
+    }
+
+    /**
+     * 加入只写入 JSON/CSV 报告的指标（writeMetrics() 不输出）
+     */
+    public JobReport putDetail(String name, long value) {
+        details.add(name);
+        return put(name, Long.toString(value), true);
+    }
+
+    public JobReport putDetail(String name, String value) {
+        details.add(name);
+        return put(name, value, false);
+    }
+
+    private JobReport put(String name, String value, boolean isNumeric) {
+        metrics.put(name, value);
+        numeric.put(name, isNumeric);
+        return this;
+    }
+
+    /**
+     * 加入某个分区的指标，写入 JSON 的 partitions 和 CSV 的 partition 行
+     */
+    public JobReport putPartitionMetric(int partition, String name, long value) {
+        Map<String, Long> values = partitionMetrics.get(partition);
+        if (values == null) {
+            values = new LinkedHashMap<>();
+            partitionMetrics.put(partition, values);
+        }
+        values.put(name, value);
+        return this;
+    }
+
+    public int getMapTaskCount() {
+        return mapTaskCount;
+    }
+
+    public int getReduceTaskCount() {
+        return reduceTaskCount;
+    }
+
+    public Counters getCounters() {
+        return counters;
+    }
+
+    public long getTaskCounter(String name) {
+        return counters.findCounter(TASK_COUNTER, name).getValue();
+    }
+
+    // ---- 阶段与分位数 ----
+
+    /**
+     * 阶段耗时（毫秒），无法得到的阶段不出现
+     */
+    public Map<String, Long> getPhaseDurations() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        long firstStart = Long.MAX_VALUE;
+        long lastFinish = -1;
+        for (TaskTiming task : mapTasks) {
+            if (task.duration() >= 0) {
+                firstStart = Math.min(firstStart, task.startTime);
+                lastFinish = Math.max(lastFinish, task.finishTime);
+            }
+        }
+        if (lastFinish >= 0) {
+            phases.put("map", lastFinish - firstStart);
+        }
+
+        // Reduce 阶段按 Reducer 中的最大值（关键路径）统计
+        long shuffle = -1;
+        long merge = -1;
+        long reduce = -1;
+        long reduceTask = -1;
+        for (TaskTiming task : reduceTasks) {
+            reduceTask = Math.max(reduceTask, task.duration());
+            if (task.duration() >= 0 && task.shuffleFinishTime > 0 && task.sortFinishTime >= task.shuffleFinishTime) {
+                shuffle = Math.max(shuffle, task.shuffleFinishTime - task.startTime);
+                merge = Math.max(merge, task.sortFinishTime - task.shuffleFinishTime);
+                reduce = Math.max(reduce, task.finishTime - task.sortFinishTime);
+            }
+        }
+        if (shuffle >= 0) {
+            phases.put("shuffle", shuffle);
+            phases.put("merge", merge);
+            phases.put("reduce", reduce);
+        }
+        if (reduceTask >= 0) {
+            phases.put("reduce_task", reduceTask);
+        }
+        return phases;
+    }
+
+    /**
+     * 任务耗时分位数（最近秩法）和拖尾比例 max / p50，没有任务耗时时返回空表
+     */
+    private static Map<String, String> durationStats(List<TaskTiming> tasks) {
+        long[] durations = new long[tasks.size()];
+        int n = 0;
+        for (TaskTiming task : tasks) {
+            if (task.duration() >= 0) {
+                durations[n++] = task.duration();
+            }
+        }
+        Map<String, String> stats = new LinkedHashMap<>();
+        if (n == 0) {
+            return stats;
+        }
+        Arrays.sort(durations, 0, n);
+        for (double percentile : PERCENTILES) {
+            int rank = (int) Math.ceil(percentile / 100.0 * n);
+            stats.put("p" + (int) percentile, Long.toString(durations[Math.max(0, rank - 1)]));
+        }
+        stats.put("max", Long.toString(durations[n - 1]));
+        long median = Long.parseLong(stats.get("p50"));
+        stats.put("straggler_ratio", String.format(Locale.ROOT, "%.2f", median > 0 ? (double) durations[n - 1] / median : 1.0));
+        return stats;
+    }
+
+    // ---- 输出 ----
+
+    /**
+     * 写出 job-report.json 和 job-report.csv 到目录 dir
+     */
+    public void write(FileSystem fs, Path dir) throws IOException {
+        writeString(fs, new Path(dir, JSON_FILE), toJson());
+        writeString(fs, new Path(dir, CSV_FILE), toCsv());
+        System.out.println(JSON_FILE + " and " + CSV_FILE + " generated");
+    }
+
+    /**
+     * 按 put() 的顺序以 "name\tvalue" 格式写出 Driver 指标（statistics.txt / performance-report.txt），
+     * putDetail() 加入的指标除外
+     */
+    public void writeMetrics(FileSystem fs, Path path) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> metric : metrics.entrySet()) {
+            if (details.contains(metric.getKey())) {
+                continue;
+            }
+            text.append(metric.getKey()).append('\t').append(metric.getValue()).append('\n');
+        }
+        writeString(fs, path, text.toString());
+    }
+
+    /**
+     * 在从缓存恢复的 job-report.json / job-report.csv 中加入 cache_hit、cache_key 和 cache_restore_time_ms 指标，
+     * 区分恢复的报告和本次实际运行的报告（processing_time_ms 等其余内容仍是产生缓存条目的那次运行）
+     */
+    public static void markCached(FileSystem fs, Path dir, String cacheKey, long restoreTime) throws IOException {
+        Path jsonPath = new Path(dir, JSON_FILE);
+        if (fs.exists(jsonPath)) {
+            String json = readString(fs, jsonPath);
+            String marker = "  \"metrics\": {";
+            int start = json.indexOf(marker);
+            if (start >= 0) {
+                int end = start + marker.length();
+                String entries = "\n    \"cache_hit\": true,\n    \"cache_key\": " + quote(cacheKey)
+                    + ",\n    \"cache_restore_time_ms\": " + restoreTime;
+                boolean empty = json.startsWith("}", end);
+                json = json.substring(0, end) + entries + (empty ? "\n  " : ",") + json.substring(end);
+                writeString(fs, jsonPath, json);
+            }
+        }
+        Path csvPath = new Path(dir, CSV_FILE);
+        if (fs.exists(csvPath)) {
+            String csv = readString(fs, csvPath);
+            int lineStart = csv.indexOf('\n') + 1;
+            int fieldEnd = csv.indexOf(',', lineStart);
+            if (lineStart > 0 && fieldEnd > lineStart) {
+                String id = csv.substring(lineStart, fieldEnd);
+                StringBuilder rows = new StringBuilder(csv);
+                rows.append(id).append(",metric,cache_hit,true\n")
+                    .append(id).append(",metric,cache_key,").append(csvField(cacheKey)).append('\n')
+                    .append(id).append(",metric,cache_restore_time_ms,").append(restoreTime).append('\n');
+                writeString(fs, csvPath, rows.toString());
+            }
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"job_id\": ").append(quote(jobId)).append(",\n");
+        json.append("  \"job_name\": ").append(quote(jobName)).append(",\n");
+        json.append("  \"processing_time_ms\": ").append(processingTime).append(",\n");
+        json.append("  \"map_tasks_count\": ").append(mapTaskCount).append(",\n");
+        json.append("  \"reduce_tasks_count\": ").append(reduceTaskCount).append(",\n");
+        json.append("  \"task_reports_available\": ").append(taskReportsAvailable).append(",\n");
+        json.append("  \"history_available\": ").append(historyAvailable).append(",\n");
+
+        json.append("  \"metrics\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> metric : metrics.entrySet()) {
+            json.append(separator).append("    ").append(quote(metric.getKey())).append(": ")
+                .append(numeric.get(metric.getKey()) ? metric.getValue() : quote(metric.getValue()));
+            separator = ",\n";
+        }
+        json.append(metrics.isEmpty() ? "},\n" : "\n  },\n");
+
+        appendJsonObject(json, "phases_ms", getPhaseDurations());
+        appendJsonObject(json, "map_task_ms", durationStats(mapTasks));
+        appendJsonObject(json, "reduce_task_ms", durationStats(reduceTasks));
+
+        json.append("  \"partitions\": [");
+        separator = "\n";
+        Map<Integer, TaskTiming> reduceByPartition = new HashMap<>();
+        for (TaskTiming task : reduceTasks) {
+            reduceByPartition.put(task.partition, task);
+        }
+        TreeSet<Integer> partitions = new TreeSet<>(reduceByPartition.keySet());
+        partitions.addAll(partitionMetrics.keySet());
+        for (int partition : partitions) {
+            json.append(separator).append("    {\"partition\": ").append(partition);
+            TaskTiming task = reduceByPartition.get(partition);
+            if (task != null) {
+                json.append(", \"input_bytes\": ").append(task.inputBytes)
+                    .append(", \"duration_ms\": ").append(task.duration());
+            }
+            if (partitionMetrics.containsKey(partition)) {
+                for (Map.Entry<String, Long> metric : partitionMetrics.get(partition).entrySet()) {
+                    json.append(", ").append(quote(metric.getKey())).append(": ").append(metric.getValue());
+                }
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append(partitions.isEmpty() ? "],\n" : "\n  ],\n");
+
+        json.append("  \"tasks\": [");
+        separator = "\n";
+        for (List<TaskTiming> tasks : Arrays.asList(mapTasks, reduceTasks)) {
+            for (TaskTiming task : tasks) {
+                json.append(separator).append("    {\"task_id\": ").append(quote(task.taskId))
+                    .append(", \"start_time\": ").append(task.startTime)
+                    .append(", \"finish_time\": ").append(task.finishTime)
+                    .append(", \"duration_ms\": ").append(task.duration())
+                    .append(", \"input_bytes\": ").append(task.inputBytes).append('}');
+                separator = ",\n";
+            }
+        }
+        json.append(mapTasks.isEmpty() && reduceTasks.isEmpty() ? "],\n" : "\n  ],\n");
+
+        json.append("  \"counters\": {");
+        separator = "\n";
+        for (CounterGroup group : counters) {
+            json.append(separator).append("    ").append(quote(group.getName())).append(": {");
+            String counterSeparator = "";
+            for (Counter counter : group) {
+                json.append(counterSeparator).append(quote(counter.getName())).append(": ").append(counter.getValue());
+                counterSeparator = ", ";
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * 长表格式：job_id,section,name,value
+     */
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder("job_id,section,name,value\n");
+        appendCsv(csv, "job", "processing_time_ms", Long.toString(processingTime));
+        appendCsv(csv, "job", "map_tasks_count", Integer.toString(mapTaskCount));
+        appendCsv(csv, "job", "reduce_tasks_count", Integer.toString(reduceTaskCount));
+        for (Map.Entry<String, String> metric : metrics.entrySet()) {
+            appendCsv(csv, "metric", metric.getKey(), metric.getValue());
+        }
+        for (Map.Entry<String, Long> phase : getPhaseDurations().entrySet()) {
+            appendCsv(csv, "phase_ms", phase.getKey(), Long.toString(phase.getValue()));
+        }
+        for (Map.Entry<String, String> stat : durationStats(mapTasks).entrySet()) {
+            appendCsv(csv, "map_task_ms", stat.getKey(), stat.getValue());
+        }
+        for (Map.Entry<String, String> stat : durationStats(reduceTasks).entrySet()) {
+            appendCsv(csv, "reduce_task_ms", stat.getKey(), stat.getValue());
+        }
+        for (TaskTiming task : reduceTasks) {
+            appendCsv(csv, "partition_input_bytes", Integer.toString(task.partition), Long.toString(task.inputBytes));
+        }
+        for (Map.Entry<Integer, Map<String, Long>> partition : partitionMetrics.entrySet()) {
+            for (Map.Entry<String, Long> metric : partition.getValue().entrySet()) {
+                appendCsv(csv, "partition", partition.getKey() + ":" + metric.getKey(), Long.toString(metric.getValue()));
+            }
+        }
+        for (List<TaskTiming> tasks : Arrays.asList(mapTasks, reduceTasks)) {
+            for (TaskTiming task : tasks) {
+                appendCsv(csv, "task_duration_ms", task.taskId, Long.toString(task.duration()));
+            }
+        }
+        for (CounterGroup group : counters) {
+            for (Counter counter : group) {
+                appendCsv(csv, "counter", group.getName() + ":" + counter.getName(), Long.toString(counter.getValue()));
+            }
+        }
+        return csv.toString();
+    }
+
+    private static void appendJsonObject(StringBuilder json, String name, Map<String, ?> values) {
+        json.append("  ").append(quote(name)).append(": {");
+        String separator = "";
+        for (Map.Entry<String, ?> value : values.entrySet()) {
+            json.append(separator).append(quote(value.getKey())).append(": ").append(value.getValue());
+            separator = ", ";
+        }
+        json.append("},\n");
+    }
+
+    private void appendCsv(StringBuilder csv, String section, String name, String value) {
+        csv.append(csvField(jobId)).append(',').append(section).append(',')
+            .append(csvField(name)).append(',').append(csvField(value)).append('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String readString(FileSystem fs, Path path) throws IOException {
+        try (FSDataInputStream in = fs.open(path)) {
+            return new String(IOUtils.readFullyToByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void writeString(FileSystem fs, Path path, String text) throws IOException {
+        try (OutputStream out = fs.create(path, true)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
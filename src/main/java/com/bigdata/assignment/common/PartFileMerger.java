@@ -0,0 +1,180 @@
+package com.bigdata.assignment.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.CommonPathCapabilities;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+
+/**
+ * 公共组件：把按分区顺序排列的 part-r-* 文件合并为一个结果文件（words.txt）
+ * 功能：逐字节复制时所有数据都要经过客户端 JVM 读出再写回文件系统；文件系统支持 concat 时（HDFS）改为元数据操作：
+ * 1. 第一个非空分区文件 rename 为结果文件
+ * 2. 其余非空分区文件用 FileSystem.concat 按顺序拼接到结果文件后面（HDFS 上由 NameNode 移动块，不复制数据）
+ * 合并后分区文件的数据已移入结果文件，不再保留（concat 不删除源文件的文件系统上也会删除，目录状态一致）
+ *
+ * 以下情况退回并发预读复制（PartFilePrefetcher），分区文件保持不变：
+ * - 文件系统不支持 concat（如带校验和的 LocalFileSystem）或 concat 失败
+ * - 文件系统的 scheme 不在 wordcount.merge.concat.schemes 中（默认只有 hdfs；
+ *   RawLocalFileSystem 虽然声明支持 concat，但会重新创建目标文件，语义与 HDFS 的追加不同）
+ * - 分区文件是压缩的（结果文件需要解压后的文本）
+ * - 分区文件与结果文件不在同一目录
+ * - wordcount.merge.concat=false（需要保留 part-r-* 时使用）
+ */
+public final class PartFileMerger {
+
+    public static final String CONCAT_KEY = "wordcount.merge.concat";
+    public static final String CONCAT_SCHEMES_KEY = "wordcount.merge.concat.schemes";
+    public static final String DEFAULT_CONCAT_SCHEMES = "hdfs";
+
+    /** 合并方式，写入 JSON/CSV 报告的 words_merge_mode */
+    public static final String CONCAT = "concat";
+    public static final String RENAME = "rename";
+    public static final String COPY = "copy";
+
+    private static final String PART_PREFIX = "part-r-";
+
+    private PartFileMerger() {
+    }
+
+    /**
+     * 列出目录下的 part-r-* 文件，按分区号（而不是文件名的字典序）排序
+     * 分区号位数和压缩扩展名都不影响顺序，任意 Reducer 数都适用
+     */
+    public static List<Path> listPartFiles(FileSystem fs, Path dir) throws IOException {
+        FileStatus[] statuses = fs.globStatus(new Path(dir, PART_PREFIX + "*"));
+        List<Path> partFiles = new ArrayList<>();
+        if (statuses == null) {
+            return partFiles;
+        }
+        Arrays.sort(statuses, new Comparator<FileStatus>() {
+            @Override
+            public int compare(FileStatus a, FileStatus b) {
+                int cmp = Long.compare(partition(a.getPath()), partition(b.getPath()));
+                return cmp != 0 ? cmp : a.getPath().getName().compareTo(b.getPath().getName());
+            }
+        });
+        for (FileStatus status : statuses) {
+            if (status.isFile()) {
+                partFiles.add(status.getPath());
+            }
+        }
+        return partFiles;
+    }
+
+    /**
+     * 文件名中的分区号，无法解析时排在最后
+     */
+    public static long partition(Path path) {
+        String name = path.getName();
+        int end = PART_PREFIX.length();
+        while (end < name.length() && Character.isDigit(name.charAt(end))) {
+            end++;
+        }
+        if (!name.startsWith(PART_PREFIX) || end == PART_PREFIX.length() || end - PART_PREFIX.length() > 18) {
+            return Long.MAX_VALUE;
+        }
+        return Long.parseLong(name.substring(PART_PREFIX.length(), end));
+    }
+
+    /**
+     * 按顺序把 partFiles 合并为 target（已存在时覆盖）
+     * @return 实际使用的合并方式：concat、rename（只有一个非空分区）或 copy
+     */
+    public static String merge(FileSystem fs, List<Path> partFiles, Path target, Configuration conf) throws IOException {
+        if (conf.getBoolean(CONCAT_KEY, true) && canConcat(fs, partFiles, target, conf)) {
+            String mode = concat(fs, partFiles, target);
+            if (mode != null) {
+                return mode;
+            }
+        }
+        copy(fs, partFiles, target, conf);
+        return COPY;
+    }
+
+    /**
+     * 并发预读各分区文件，按顺序写入 target
+     */
+    public static long copy(FileSystem fs, List<Path> partFiles, Path target, Configuration conf) throws IOException {
+        try (PartFilePrefetcher parts = new PartFilePrefetcher(fs, partFiles, conf);
+             OutputStream out = fs.create(target, true)) {
+            return parts.copyTo(out);
+        }
+    }
+
+    private static boolean canConcat(FileSystem fs, List<Path> partFiles, Path target, Configuration conf)
+            throws IOException {
+        List<String> schemes = Arrays.asList(conf.getTrimmedStrings(CONCAT_SCHEMES_KEY, DEFAULT_CONCAT_SCHEMES));
+        if (partFiles.isEmpty() || !schemes.contains(fs.getUri().getScheme())) {
+            return false;
+        }
+        Path dir = fs.makeQualified(target).getParent();
+        CompressionCodecFactory codecs = new CompressionCodecFactory(conf);
+        for (Path partFile : partFiles) {
+            if (codecs.getCodec(partFile) != null || !fs.makeQualified(partFile).getParent().equals(dir)) {
+                return false;
+            }
+        }
+        return fs.hasPathCapability(dir, CommonPathCapabilities.FS_CONCAT);
+    }
+
+    /**
+     * @return 合并方式；concat 失败时恢复分区文件并返回 null
+     */
+    private static String concat(FileSystem fs, List<Path> partFiles, Path target) throws IOException {
+        // 空文件不能作为 concat 的源文件，也不影响结果
+        List<Path> sources = new ArrayList<>();
+        for (Path partFile : partFiles) {
+            if (fs.getFileStatus(partFile).getLen() > 0) {
+                sources.add(partFile);
+            }
+        }
+        if (sources.isEmpty()) {
+            return null;
+        }
+
+        Path first = sources.remove(0);
+        fs.delete(target, false);
+        if (!fs.rename(first, target)) {
+            System.err.println("Cannot rename " + first + " to " + target + ", copying partition files instead");
+            return null;
+        }
+        if (sources.isEmpty()) {
+            deleteEmpty(fs, partFiles, first);
+            return RENAME;
+        }
+        try {
+            fs.concat(target, sources.toArray(new Path[sources.size()]));
+        } catch (IOException | UnsupportedOperationException e) {
+            // HDFS 的 concat 是单个 NameNode 操作，失败时源文件不变，只需把第一个分区文件改回原名
+            System.err.println("concat failed (" + e.getMessage() + "), copying partition files instead");
+            if (!fs.rename(target, first)) {
+                throw new IOException("Cannot restore " + first + " after failed concat", e);
+            }
+            return null;
+        }
+        for (Path source : sources) {
+            if (fs.exists(source)) {
+                fs.delete(source, false);
+            }
+        }
+        deleteEmpty(fs, partFiles, first);
+        return CONCAT;
+    }
+
+    private static void deleteEmpty(FileSystem fs, List<Path> partFiles, Path first) throws IOException {
+        for (Path partFile : partFiles) {
+            if (!partFile.equals(first) && fs.exists(partFile) && fs.getFileStatus(partFile).getLen() == 0) {
+                fs.delete(partFile, false);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,320 @@
+package com.bigdata.assignment.common;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * 公共组件：Driver 端并发预读作业输出文件
+ * 功能：Driver 生成 words.txt、word-count-results.txt 等汇总文件时，原先逐个打开 part-r-* 并用 4KB 缓冲区串行读取，
+ * 耗时随 Reducer 数线性增长（每个文件都要等待打开和 DataNode 的首字节延迟）。这里：
+ * 1. 在固定大小的线程池上同时打开多个文件，每个文件以大块（默认 1MB）读入一个有界队列
+ * 2. 调用方仍按文件顺序消费，拼接结果与串行读取逐字节相同
+ * 3. 每个文件最多预读 prefetch 块；排在正在消费的文件之后的文件共用 线程数 × prefetch × 块大小 的字节预算，
+ *    读取前占用一个块大小，块被消费后归还，因此内存上限约为 (线程数 + 1) × prefetch × 块大小，与文件数无关
+ * 4. 不满一块的读取（小文件、文件末尾）按实际字节数保存，多占用的预算立即归还
+ * 文件通过 CompressionCodecs.open 打开，压缩的输出文件会自动解压
+ *
+ * 线程池按文件顺序领取任务，正在消费的文件总是已经开始读取，且不受字节预算限制，因此不会互相等待
+ *
+ * 设置：
+ * - wordcount.postprocess.threads：读取线程数（默认 4，不超过文件数）
+ * - wordcount.postprocess.buffer.bytes：每次读取的块大小（默认 1MB）
+ * - wordcount.postprocess.prefetch：每个文件最多预读的块数（默认 4）
+ */
+public class PartFilePrefetcher implements Closeable {
+
+    public static final String THREADS_KEY = "wordcount.postprocess.threads";
+    public static final String BUFFER_BYTES_KEY = "wordcount.postprocess.buffer.bytes";
+    public static final String PREFETCH_KEY = "wordcount.postprocess.prefetch";
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+    public static final int DEFAULT_PREFETCH = 4;
+
+    /** 文件结束标记 */
+    private static final Chunk END = new Chunk(null, -1, null, 0);
+
+    private final List<Path> files;
+    private final List<BlockingQueue<Chunk>> queues;
+    private final ExecutorService executor;
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final int threads;
+    private volatile boolean closed;
+
+    // 预读字节预算，由 budgetLock 保护
+    private final Object budgetLock = new Object();
+    private long budgetBytes;
+    /** 正在消费的文件序号，它的读取不占用预算 */
+    private int consuming;
+
+    public PartFilePrefetcher(FileSystem fs, List<Path> files, Configuration conf) {
+        this(fs, files, conf.getInt(THREADS_KEY, DEFAULT_THREADS), conf.getInt(BUFFER_BYTES_KEY, DEFAULT_BUFFER_BYTES),
+            conf.getInt(PREFETCH_KEY, DEFAULT_PREFETCH));
+    }
+
+    public PartFilePrefetcher(final FileSystem fs, List<Path> files, int threads, final int bufferBytes, int prefetch) {
+        if (threads <= 0 || bufferBytes <= 0 || prefetch <= 0) {
+            throw new IllegalArgumentException("Threads (" + threads + "), buffer size (" + bufferBytes
+                + ") and prefetch depth (" + prefetch + ") must be positive");
+        }
+        this.files = new ArrayList<>(files);
+        this.queues = new ArrayList<>(files.size());
+        this.threads = Math.max(1, Math.min(threads, files.size()));
+        this.budgetBytes = (long) this.threads * prefetch * bufferBytes;
+        this.executor = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+            private final AtomicInteger next = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "part-file-prefetch-" + next.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // 按文件顺序提交，保证线程池先读取排在前面的文件
+        for (int i = 0; i < this.files.size(); i++) {
+            final int index = i;
+            final Path file = this.files.get(i);
+            final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(prefetch + 1);
+            queues.add(queue);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    prefetch(fs, index, file, queue, bufferBytes);
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    public Path getPath(int index) {
+        return files.get(index);
+    }
+
+    public int getThreadCount() {
+        return threads;
+    }
+
+    /**
+     * 已从文件系统读取（解压后）的字节数
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * 按顺序读取第 index 个文件内容的流；每个文件只能消费一次
+     */
+    public InputStream open(final int index) {
+        return new InputStream() {
+            private Chunk current;
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (!fill()) {
+                    return -1;
+                }
+                return current.data[position++] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+                int n = Math.min(length, current.length - position);
+                System.arraycopy(current.data, position, buffer, offset, n);
+                position += n;
+                return n;
+            }
+
+            private boolean fill() throws IOException {
+                while (current != END && (current == null || position == current.length)) {
+                    current = take(index);
+                    position = 0;
+                }
+                return current != END;
+            }
+        };
+    }
+
+    /**
+     * 按文件顺序把所有文件的内容拼接写入 out
+     * @return 写入的字节数
+     */
+    public long copyTo(OutputStream out) throws IOException {
+        long written = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Chunk chunk;
+            while ((chunk = take(i)) != END) {
+                out.write(chunk.data, 0, chunk.length);
+                written += chunk.length;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * 停止所有读取；未消费完的文件会被中断并关闭
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (budgetLock) {
+            budgetLock.notifyAll();
+        }
+        executor.shutdownNow();
+        for (BlockingQueue<Chunk> queue : queues) {
+            queue.clear();
+        }
+    }
+
+    private Chunk take(int index) throws IOException {
+        if (closed) {
+            throw new IOException("Prefetcher is closed");
+        }
+        synchronized (budgetLock) {
+            if (index > consuming) {
+                consuming = index;
+                budgetLock.notifyAll();
+            }
+        }
+        Chunk chunk;
+        try {
+            chunk = queues.get(index).take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + files.get(index));
+        }
+        if (chunk.error != null) {
+            // 保留结束标记，重复读取时仍然报告同一个错误
+            queues.get(index).offer(chunk);
+            throw new IOException("Failed to read " + files.get(index) + ": " + chunk.error.getMessage(), chunk.error);
+        }
+        if (chunk == END) {
+            queues.get(index).offer(END);
+        }
+        // 交给调用方的块不再计入预算（调用方同时只持有一块）
+        release(chunk.charged);
+        return chunk;
+    }
+
+    /**
+     * 占用一个块大小的预算；正在消费（或已消费过）的文件不需要等待
+     * @return 实际占用的字节数
+     */
+    private long acquire(int index, int bytes) throws InterruptedException {
+        synchronized (budgetLock) {
+            while (!closed && index > consuming && budgetBytes < bytes) {
+                budgetLock.wait();
+            }
+            if (closed || index <= consuming) {
+                return 0;
+            }
+            budgetBytes -= bytes;
+            return bytes;
+        }
+    }
+
+    private void release(long bytes) {
+        if (bytes > 0) {
+            synchronized (budgetLock) {
+                budgetBytes += bytes;
+                budgetLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 读取线程：把一个文件按块读入队列，以 END 或错误结束
+     */
+    private void prefetch(FileSystem fs, int index, Path file, BlockingQueue<Chunk> queue, int bufferBytes) {
+        try {
+            try (InputStream in = CompressionCodecs.open(fs, file)) {
+                while (!closed) {
+                    long charged = acquire(index, bufferBytes);
+                    byte[] data = new byte[bufferBytes];
+                    int length;
+                    try {
+                        length = readFully(in, data);
+                    } catch (IOException | RuntimeException e) {
+                        release(charged);
+                        throw e;
+                    }
+                    if (length < data.length) {
+                        // 不满一块：只保留实际读到的字节
+                        data = Arrays.copyOf(data, length);
+                        release(charged - Math.min(charged, length));
+                        charged = Math.min(charged, length);
+                    }
+                    if (length > 0) {
+                        bytesRead.addAndGet(length);
+                        queue.put(new Chunk(data, length, null, charged));
+                    }
+                    if (length < bufferBytes) {
+                        break;
+                    }
+                }
+            }
+            queue.put(END);
+        } catch (InterruptedException e) {
+            // close() 中断了读取
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            Chunk unread;
+            while ((unread = queue.poll()) != null) {
+                release(unread.charged);
+            }
+            queue.offer(new Chunk(null, -1, e, 0));
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] data) throws IOException {
+        int length = 0;
+        int read;
+        while (length < data.length && (read = in.read(data, length, data.length - length)) > 0) {
+            length += read;
+        }
+        return length;
+    }
+
+    private static class Chunk {
+        final byte[] data;
+        final int length;
+        final Exception error;
+        /** 占用的预读预算字节数，消费后归还 */
+        final long charged;
+
+        Chunk(byte[] data, int length, Exception error, long charged) {
+            this.data = data;
+            this.length = length;
+            this.error = error;
+            this.charged = charged;
+        }
+    }
+}
\ No newline at end of file
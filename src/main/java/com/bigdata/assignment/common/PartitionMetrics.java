@@ -0,0 +1,122 @@
+package com.bigdata.assignment.common;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+/**
+ * 公共组件：按 Reducer 实际分区号统计的分区指标
+ * 功能：分区号直接取自 context.getTaskAttemptID().getTaskID().getId()，即 Partitioner 真正分配的分区，
+ * Reducer 中不再重复实现（并可能偏离）Partitioner 的分区规则；采样范围分区、高频单词分散等
+ * 任意分区数都能正确统计
+ *
+ * 每个分区写入 "Partition Counters" 组：
+ * - Partition N Records：输出的不同单词数（原有计数器）
+ * - Partition N Input Records：输入的值个数（Combiner 合并后的 Shuffle 记录数）
+ * - Partition N Key Bytes：输入单词的字节数之和
+ * - Partition N Reduce Time (ms)：setup 到 cleanup 的耗时
+ * Driver 通过 addTo() 把这些值连同直方图加入 JobReport
+ */
+public class PartitionMetrics {
+
+    public static final String COUNTER_GROUP = "Partition Counters";
+
+    static final String RECORDS = "Records";
+    static final String INPUT_RECORDS = "Input Records";
+    static final String KEY_BYTES = "Key Bytes";
+    static final String REDUCE_TIME = "Reduce Time (ms)";
+
+    private static final String[] METRICS = {RECORDS, INPUT_RECORDS, KEY_BYTES, REDUCE_TIME};
+    private static final int HISTOGRAM_WIDTH = 40;
+
+    private final BatchedCounters counters = new BatchedCounters();
+    private int partition;
+    private int records;
+    private int inputRecords;
+    private int keyBytes;
+    private int reduceTime;
+    private long startTime;
+
+    /**
+     * 在 Reducer.setup 中调用
+     */
+    public void setup(TaskAttemptContext context) {
+        partition = context.getTaskAttemptID().getTaskID().getId();
+        records = counters.add(COUNTER_GROUP, counterName(partition, RECORDS));
+        inputRecords = counters.add(COUNTER_GROUP, counterName(partition, INPUT_RECORDS));
+        keyBytes = counters.add(COUNTER_GROUP, counterName(partition, KEY_BYTES));
+        reduceTime = counters.add(COUNTER_GROUP, counterName(partition, REDUCE_TIME));
+        counters.setup(context);
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 每个 reduce() 调用一次
+     * @param values 该单词的输入值个数
+     */
+    public void record(TaskAttemptContext context, Text key, int values) {
+        counters.increment(records);
+        counters.increment(inputRecords, values);
+        counters.increment(keyBytes, key.getLength());
+        counters.tick(context);
+    }
+
+    /**
+     * 在 Reducer.cleanup 中调用，发布本分区的全部计数器
+     */
+    public void cleanup(TaskAttemptContext context) {
+        counters.increment(reduceTime, System.currentTimeMillis() - startTime);
+        counters.flush(context);
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    static String counterName(int partition, String metric) {
+        return "Partition " + partition + " " + metric;
+    }
+
+    public static long getRecords(Counters counters, int partition) {
+        return get(counters, partition, RECORDS);
+    }
+
+    private static long get(Counters counters, int partition, String metric) {
+        return counters.findCounter(COUNTER_GROUP, counterName(partition, metric)).getValue();
+    }
+
+    /**
+     * 把各分区的指标加入作业报告，并打印记录数、字节数和耗时的直方图及倾斜度（max / mean）
+     */
+    public static void addTo(JobReport report, int numPartitions) {
+        Counters counters = report.getCounters();
+        long[][] values = new long[METRICS.length][numPartitions];
+        for (int m = 0; m < METRICS.length; m++) {
+            for (int p = 0; p < numPartitions; p++) {
+                values[m][p] = get(counters, p, METRICS[m]);
+                report.putPartitionMetric(p, metricKey(METRICS[m]), values[m][p]);
+            }
+        }
+
+        System.out.println("=== Partition Histogram ===");
+        for (int m = 0; m < METRICS.length; m++) {
+            long max = 0;
+            long sum = 0;
+            for (long value : values[m]) {
+                max = Math.max(max, value);
+                sum += value;
+            }
+            double mean = numPartitions == 0 ? 0 : (double) sum / numPartitions;
+            System.out.println(METRICS[m] + " (skew max/mean: " + String.format("%.2f", mean > 0 ? max / mean : 0) + ")");
+            for (int p = 0; p < numPartitions; p++) {
+                int bar = max == 0 ? 0 : (int) Math.round((double) values[m][p] / max * HISTOGRAM_WIDTH);
+                System.out.println(String.format("  partition %3d | %-" + HISTOGRAM_WIDTH + "s %d", p,
+                    new String(new char[bar]).replace('\0', '#'), values[m][p]));
+            }
+        }
+    }
+
+    private static String metricKey(String metric) {
+        return metric.replace(" (ms)", "_ms").replace(' ', '_').toLowerCase();
+    }
+}
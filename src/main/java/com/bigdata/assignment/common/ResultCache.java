@@ -0,0 +1,287 @@
+package com.bigdata.assignment.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FileUtil;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+
+/**
+ * 公共组件：按输入指纹和作业配置缓存作业结果
+ * 功能：对未变化的输入重复运行同一个作业时，跳过作业提交，直接从缓存目录复制结果文件和报告
+ *
+ * 缓存键（SHA-256）包含：
+ * - 输入文件的路径、长度、修改时间（wordcount.cache.checksums=true 时还包括文件校验和，本地文件系统不提供）
+ * - Mapper / Combiner / Reducer / 输入格式 / Partitioner / Map 输出类型 / Reducer 数和作业名
+ * - Mapper、Combiner、Reducer、Partitioner、输入格式、WordTokenizer 以及调用方传入的类（Driver、后处理用的排序器等）的字节码，
+ *   这些类修改后旧结果自动失效；其他类（例如它们调用的工具类）的修改不会被发现，需要时用新的缓存目录
+ * - 所有 wordcount.* 设置（切分、过滤、Top-K、近似模式等）以及压缩、分片和排序缓冲区设置（报告中会记录这些值）
+ *
+ * 缓存目录中每个条目是一个以缓存键命名的子目录，先写入临时目录再 rename，不会读到写了一半的条目；
+ * 命中时更新条目目录的修改时间，写入新条目后按修改时间从旧到新删除条目，直到总大小不超过上限（LRU）
+ *
+ * 设置：
+ * - wordcount.cache.dir：缓存目录（默认为默认文件系统上主目录下的 .wordcount-cache）
+ * - wordcount.cache.max.bytes：缓存总大小上限（默认 1GB）
+ * - wordcount.cache.checksums：是否把文件校验和计入指纹（默认 false，HDFS 上需要额外的 DataNode 读取）
+ */
+public class ResultCache {
+
+    public static final String CACHE_DIR_KEY = "wordcount.cache.dir";
+    public static final String MAX_BYTES_KEY = "wordcount.cache.max.bytes";
+    public static final String CHECKSUMS_KEY = "wordcount.cache.checksums";
+    public static final long DEFAULT_MAX_BYTES = 1L << 30;
+
+    private static final String[] TUNING_KEYS = {
+        FileInputFormat.SPLIT_MAXSIZE, FileInputFormat.SPLIT_MINSIZE,
+        "mapreduce.task.io.sort.mb", "mapreduce.map.sort.spill.percent",
+        "mapreduce.map.output.compress", "mapreduce.map.output.compress.codec",
+        "mapreduce.output.fileoutputformat.compress", "mapreduce.output.fileoutputformat.compress.codec",
+    };
+
+    private final Configuration conf;
+    private final FileSystem fs;
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    /**
+     * @param cacheDir 缓存目录，为 null 时使用 wordcount.cache.dir 或默认目录
+     */
+    public ResultCache(Configuration conf, String cacheDir) throws IOException {
+        this.conf = conf;
+        String dir = cacheDir != null ? cacheDir : conf.get(CACHE_DIR_KEY);
+        if (dir == null) {
+            FileSystem defaultFs = FileSystem.get(conf);
+            this.cacheDir = new Path(defaultFs.getHomeDirectory(), ".wordcount-cache");
+        } else {
+            this.cacheDir = new Path(dir);
+        }
+        this.fs = this.cacheDir.getFileSystem(conf);
+        this.maxBytes = conf.getLong(MAX_BYTES_KEY, DEFAULT_MAX_BYTES);
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * 计算已设置好输入路径的作业的缓存键
+     * @param codeClasses 除作业类之外同样影响缓存结果的类（Driver、后处理类），其字节码计入缓存键
+     */
+    public String fingerprint(Job job, Class<?>... codeClasses) throws IOException {
+        Configuration jobConf = job.getConfiguration();
+        MessageDigest digest = newDigest();
+        boolean checksums = jobConf.getBoolean(CHECKSUMS_KEY, false);
+
+        // 1. 输入文件
+        for (Path input : FileInputFormat.getInputPaths(job)) {
+            FileSystem inputFs = input.getFileSystem(jobConf);
+            FileStatus[] matches = inputFs.globStatus(input);
+            if (matches == null) {
+                throw new IOException("Input path does not exist: " + input);
+            }
+            for (FileStatus match : matches) {
+                for (FileStatus file : listInputFiles(inputFs, match)) {
+                    update(digest, "file", inputFs.makeQualified(file.getPath()).toString(),
+                        Long.toString(file.getLen()), Long.toString(file.getModificationTime()));
+                    if (checksums) {
+                        FileChecksum checksum = inputFs.getFileChecksum(file.getPath());
+                        update(digest, "checksum", checksum == null ? "none" : checksum.toString());
+                    }
+                }
+            }
+        }
+
+        // 2. 作业结构和代码
+        try {
+            List<Class<?>> classes = new ArrayList<>(Arrays.<Class<?>>asList(
+                job.getMapperClass(), job.getCombinerClass(), job.getReducerClass(), job.getPartitionerClass(),
+                job.getInputFormatClass(), WordTokenizer.class));
+            classes.addAll(Arrays.asList(codeClasses));
+            update(digest, "job", job.getJobName(), String.valueOf(job.getMapperClass()),
+                String.valueOf(job.getCombinerClass()), String.valueOf(job.getReducerClass()),
+                String.valueOf(job.getInputFormatClass()), String.valueOf(job.getPartitionerClass()),
+                String.valueOf(job.getMapOutputKeyClass()), String.valueOf(job.getMapOutputValueClass()),
+                Integer.toString(job.getNumReduceTasks()));
+            for (Class<?> cls : classes) {
+                if (cls != null) {
+                    updateClassBytes(digest, cls);
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot resolve job classes for the cache key", e);
+        }
+
+        // 3. 影响结果或报告的设置
+        Map<String, String> settings = new TreeMap<>();
+        for (Map.Entry<String, String> entry : jobConf) {
+            if (entry.getKey().startsWith("wordcount.") && !entry.getKey().startsWith("wordcount.cache.")) {
+                settings.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String key : TUNING_KEYS) {
+            settings.put(key, String.valueOf(jobConf.get(key)));
+        }
+        for (Map.Entry<String, String> entry : settings.entrySet()) {
+            update(digest, "conf", entry.getKey(), entry.getValue());
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        return hex.substring(0, 32);
+    }
+
+    /**
+     * 命中时把条目中的所有文件复制到 outputPath（会先创建目录）并更新条目的使用时间，
+     * 恢复的 JSON/CSV 报告中加入 cache_hit、cache_key 和恢复耗时（见 JobReport.markCached）
+     * @return 恢复耗时（毫秒），未命中时为 -1
+     */
+    public long restore(String key, FileSystem outputFs, Path outputPath) throws IOException {
+        long start = System.currentTimeMillis();
+        Path entry = new Path(cacheDir, key);
+        if (!fs.exists(entry)) {
+            return -1;
+        }
+        outputFs.mkdirs(outputPath);
+        for (FileStatus file : fs.listStatus(entry)) {
+            FileUtil.copy(fs, file.getPath(), outputFs, new Path(outputPath, file.getPath().getName()), false, true, conf);
+        }
+        fs.setTimes(entry, System.currentTimeMillis(), -1);
+        long restoreTime = System.currentTimeMillis() - start;
+        JobReport.markCached(outputFs, outputPath, key, restoreTime);
+        return restoreTime;
+    }
+
+    /**
+     * 把 outputPath 下匹配 patterns（glob）的文件存为一个缓存条目，然后按 LRU 淘汰超出上限的条目
+     */
+    public void store(String key, FileSystem outputFs, Path outputPath, String... patterns) throws IOException {
+        Path entry = new Path(cacheDir, key);
+        Path temp = new Path(cacheDir, "_tmp-" + key + "-" + System.nanoTime());
+        fs.mkdirs(temp);
+        try {
+            for (String pattern : patterns) {
+                FileStatus[] files = outputFs.globStatus(new Path(outputPath, pattern));
+                if (files == null) {
+                    continue;
+                }
+                for (FileStatus file : files) {
+                    if (file.isFile()) {
+                        FileUtil.copy(outputFs, file.getPath(), fs, new Path(temp, file.getPath().getName()), false, true, conf);
+                    }
+                }
+            }
+            fs.delete(entry, true);
+            if (!fs.rename(temp, entry)) {
+                throw new IOException("Failed to publish cache entry " + entry);
+            }
+        } finally {
+            fs.delete(temp, true);
+        }
+        evict(key);
+    }
+
+    /**
+     * 删除最久未使用的条目，直到总大小不超过上限（刚写入的条目除外）
+     */
+    private void evict(String keep) throws IOException {
+        List<FileStatus> entries = new ArrayList<>();
+        final Map<Path, Long> sizes = new TreeMap<>();
+        long total = 0;
+        for (FileStatus status : fs.listStatus(cacheDir)) {
+            if (status.isDirectory() && !status.getPath().getName().startsWith("_")) {
+                long size = fs.getContentSummary(status.getPath()).getLength();
+                sizes.put(status.getPath(), size);
+                entries.add(status);
+                total += size;
+            }
+        }
+        Collections.sort(entries, new Comparator<FileStatus>() {
+            @Override
+            public int compare(FileStatus a, FileStatus b) {
+                return Long.compare(a.getModificationTime(), b.getModificationTime());
+            }
+        });
+        for (FileStatus status : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (status.getPath().getName().equals(keep)) {
+                continue;
+            }
+            fs.delete(status.getPath(), true);
+            total -= sizes.get(status.getPath());
+            System.out.println("Evicted cache entry " + status.getPath().getName() + " (" + sizes.get(status.getPath())
+                + " bytes)");
+        }
+    }
+
+    /**
+     * 与 FileInputFormat 一致：跳过 _ 和 . 开头的文件，目录只展开一层
+     */
+    private static List<FileStatus> listInputFiles(FileSystem fs, FileStatus status) throws IOException {
+        if (status.isFile()) {
+            return Collections.singletonList(status);
+        }
+        FileStatus[] children = fs.listStatus(status.getPath());
+        Arrays.sort(children);
+        List<FileStatus> files = new ArrayList<>();
+        for (FileStatus child : children) {
+            String name = child.getPath().getName();
+            if (child.isFile() && !name.startsWith("_") && !name.startsWith(".")) {
+                files.add(child);
+            }
+        }
+        return files;
+    }
+
+    private static void updateClassBytes(MessageDigest digest, Class<?> cls) throws IOException {
+        String resource = cls.getName().replace('.', '/') + ".class";
+        ClassLoader loader = cls.getClassLoader() != null ? cls.getClassLoader() : ClassLoader.getSystemClassLoader();
+        try (InputStream in = loader.getResourceAsStream(resource)) {
+            if (in == null) {
+                update(digest, "class", cls.getName());
+                return;
+            }
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String... fields) {
+        for (String field : fields) {
+            digest.update(field.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.bigdata.assignment.common;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.util.ReflectionUtils;
+
+/**
+ * 公共组件：Shuffle 键值类型的选择
+ * 功能：Driver 通过 configure() 选择 Map 输出类型（Text/WordKey，IntWritable/VIntCount），
+ * Mapper 和 Combiner 通过 newKey()/newCount() 创建与之匹配的可复用对象
+ * （框架要求 Map 和 Combiner 输出对象的类型与声明的 Map 输出类型完全一致）
+ */
+public final class ShuffleTypes {
+
+    private ShuffleTypes() {
+    }
+
+    /**
+     * 设置 Map 输出的键值类型
+     * @param rawKey    使用 WordKey（memcmp 比较）代替 Text
+     * @param vintCount 使用 VIntCount（变长编码）代替 IntWritable
+     */
+    public static void configure(Job job, boolean rawKey, boolean vintCount) {
+        job.setMapOutputKeyClass(rawKey ? WordKey.class : Text.class);
+        job.setMapOutputValueClass(vintCount ? VIntCount.class : IntWritable.class);
+    }
+
+    /**
+     * 创建与 Map 输出键类型一致的单词对象
+     */
+    public static Text newKey(TaskInputOutputContext<?, ?, ?, ?> context) {
+        return (Text) ReflectionUtils.newInstance(context.getMapOutputKeyClass(), context.getConfiguration());
+    }
+
+    /**
+     * 创建与 Map 输出值类型一致的计数对象
+     */
+    public static IntWritable newCount(TaskInputOutputContext<?, ?, ?, ?> context, int value) {
+        IntWritable count = (IntWritable) ReflectionUtils.newInstance(
+            context.getMapOutputValueClass(), context.getConfiguration());
+        count.set(value);
+        return count;
+    }
+}
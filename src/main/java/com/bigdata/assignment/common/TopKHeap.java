@@ -0,0 +1,145 @@
+package com.bigdata.assignment.common;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * 公共组件：保留频率最高的 K 个单词的有界最小堆
+ * 功能：堆顶是当前 K 个候选中"最差"的一个（计数最小，计数相同时字节序最大），
+ * 新单词只有优于堆顶时才替换堆顶，因此每次 offer 为 O(log K)，内存只与 K 有关
+ *
+ * 每个堆槽位固定持有一个可复用的 byte[] 存放单词，堆本身只交换 int 槽位号，
+ * 替换堆顶时把新单词拷贝进被淘汰槽位的缓冲区，不为每条记录分配对象。
+ * 结果顺序与 word-count-results.txt 一致：计数降序，计数相同时按字典序
+ */
+public class TopKHeap {
+
+    private final int capacity;
+    private final int[] heap;       // 堆中存放槽位号
+    private final int[] counts;     // 按槽位号索引
+    private final byte[][] keys;
+    private final int[] keyLengths;
+    private int size;
+
+    public TopKHeap(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Top-K capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.heap = new int[capacity];
+        this.counts = new int[capacity];
+        this.keys = new byte[capacity][];
+        this.keyLengths = new int[capacity];
+    }
+
+    /**
+     * 提交一个候选单词
+     * @return 单词是否进入了 Top-K
+     */
+    public boolean offer(byte[] bytes, int offset, int length, int count) {
+        boolean full = size == capacity;
+        if (full && compare(count, bytes, offset, length, heap[0]) <= 0) {
+            return false;
+        }
+
+        // 未满时使用新槽位追加到堆尾；已满时复用堆顶（被淘汰）的槽位
+        int slot = full ? heap[0] : size;
+        byte[] key = keys[slot];
+        if (key == null || key.length < length) {
+            keys[slot] = key = new byte[Math.max(length, 16)];
+        }
+        System.arraycopy(bytes, offset, key, 0, length);
+        keyLengths[slot] = length;
+        counts[slot] = count;
+
+        if (full) {
+            siftDown(0);
+        } else {
+            heap[size] = slot;
+            siftUp(size++);
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按结果顺序（计数降序、字典序升序）返回所有槽位号
+     */
+    public int[] sortedSlots() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = heap[i];
+        }
+        Arrays.sort(order, (a, b) -> -compareSlots(a, b));
+        int[] slots = new int[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = order[i];
+        }
+        return slots;
+    }
+
+    public byte[] keyBytes(int slot) {
+        return keys[slot];
+    }
+
+    public int keyLength(int slot) {
+        return keyLengths[slot];
+    }
+
+    public int count(int slot) {
+        return counts[slot];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 比较候选与槽位：正数表示候选更好（计数更大，或计数相同而字节序更小）
+     */
+    private int compare(int count, byte[] bytes, int offset, int length, int slot) {
+        if (count != counts[slot]) {
+            return count > counts[slot] ? 1 : -1;
+        }
+        return -WritableComparator.compareBytes(bytes, offset, length, keys[slot], 0, keyLengths[slot]);
+    }
+
+    private int compareSlots(int a, int b) {
+        return compare(counts[a], keys[a], 0, keyLengths[a], b);
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compareSlots(slot, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && compareSlots(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (compareSlots(slot, heap[child]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bigdata.assignment.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * 公共组件：以变长整数序列化的计数值
+ * 功能：Combiner 合并后的计数绝大多数都很小，变长编码时 -112~127 只占 1 字节（IntWritable 固定 4 字节），
+ * 可以缩小 spill 文件和 shuffle 数据量
+ *
+ * 继承自 IntWritable，现有的 Combiner / Reducer（以 IntWritable 为值类型）无需修改即可使用。
+ */
+public class VIntCount extends IntWritable {
+
+    public VIntCount() {
+        super();
+    }
+
+    public VIntCount(int value) {
+        super(value);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        WritableUtils.writeVInt(out, get());
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        set(WritableUtils.readVInt(in));
+    }
+}
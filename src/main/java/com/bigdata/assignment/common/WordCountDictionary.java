@@ -0,0 +1,660 @@
+package com.bigdata.assignment.common;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * 公共组件：按单词排序、分块压缩的二进制计数文件（words.dict）
+ * 功能：代替 words.txt 供下游按单词查询，无需逐行 split("\t") / parseInt 解析整个文件
+ *
+ * 文件布局：
+ *   "WCD1"
+ *   数据块 × N：每块最多 BLOCK_ENTRIES 个单词，块内前缀压缩（front coding）后整体 deflate 压缩
+ *     条目 = 与上一个单词的公共前缀长度(varint) + 后缀长度(varint) + 后缀字节 + 计数(varint)
+ *     每块第一个单词的公共前缀长度为 0，因此块可以独立解码
+ *   稀疏索引：块数(varint)，每块一项 = 首个单词、文件偏移、压缩长度、解压长度、条目数
+ *   尾部（固定 32 字节）：索引的文件偏移(long)、单词数(long)、计数总和(long)、版本(int)、"WCD1"
+ *
+ * 读取时只加载尾部和索引（每 128 个单词一项），点查询二分查找索引后解压一个块，
+ * 前缀扫描从前缀所在的块开始顺序解码，直到单词不再以该前缀开头
+ *
+ * 单词必须按字节（无符号）严格递增的顺序写入（与 Reducer 输出的顺序一致），
+ * 多个分区文件通过 writeMerged() 多路归并后写入
+ *
+ * 用法：WordCountDictionary convert <words.txt> <words.dict> | get <words.dict> <word>... | prefix <words.dict> <prefix> [limit]
+ */
+public class WordCountDictionary {
+
+    public static final String FILE_NAME = "words.dict";
+    public static final int BLOCK_ENTRIES = 128;
+
+    private static final int MAGIC = 0x57434431; // "WCD1"
+    private static final int VERSION = 1;
+    private static final int FOOTER_BYTES = 32;
+
+    /**
+     * 前缀扫描和多路归并的回调
+     */
+    public interface Visitor {
+        /**
+         * @return false 时停止扫描
+         */
+        boolean visit(String word, long count) throws IOException;
+    }
+
+    /**
+     * 按顺序追加 (单词, 计数)，close() 时写出最后一块、索引和尾部
+     */
+    public static class Writer implements Closeable {
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private long position;
+
+        // 当前块（未压缩）
+        private byte[] block = new byte[8192];
+        private int blockLength;
+        private int blockEntries;
+        private byte[] blockFirstWord;
+
+        private byte[] previous = new byte[64];
+        private int previousLength = -1;
+
+        private final ByteBuffer index = new ByteBuffer();
+        private int blockCount;
+        private long wordCount;
+        private long totalCount;
+        private byte[] compressed = new byte[8192];
+
+        public Writer(OutputStream out) throws IOException {
+            this.out = out;
+            writeInt(MAGIC);
+        }
+
+        public void append(String word, long count) throws IOException {
+            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+            append(bytes, 0, bytes.length, count);
+        }
+
+        public void append(byte[] word, int offset, int length, long count) throws IOException {
+            if (previousLength >= 0 && compare(previous, 0, previousLength, word, offset, length) >= 0) {
+                throw new IOException("Words must be appended in strictly increasing byte order: "
+                    + new String(word, offset, length, StandardCharsets.UTF_8));
+            }
+            if (blockEntries == BLOCK_ENTRIES) {
+                flushBlock();
+            }
+
+            int shared = 0;
+            if (blockEntries > 0) {
+                int max = Math.min(previousLength, length);
+                while (shared < max && previous[shared] == word[offset + shared]) {
+                    shared++;
+                }
+            } else {
+                blockFirstWord = Arrays.copyOfRange(word, offset, offset + length);
+            }
+            ensureBlockCapacity(length + 25);
+            blockLength = writeVarLong(block, blockLength, shared);
+            blockLength = writeVarLong(block, blockLength, length - shared);
+            System.arraycopy(word, offset + shared, block, blockLength, length - shared);
+            blockLength += length - shared;
+            blockLength = writeVarLong(block, blockLength, count);
+            blockEntries++;
+
+            if (previous.length < length) {
+                previous = new byte[Math.max(length, previous.length * 2)];
+            }
+            System.arraycopy(word, offset, previous, 0, length);
+            previousLength = length;
+            wordCount++;
+            totalCount += count;
+        }
+
+        private void ensureBlockCapacity(int extra) {
+            if (blockLength + extra > block.length) {
+                block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + extra));
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockEntries == 0) {
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(block, 0, blockLength);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            out.write(compressed, 0, compressedLength);
+
+            index.writeVarLong(blockFirstWord.length);
+            index.write(blockFirstWord, 0, blockFirstWord.length);
+            index.writeVarLong(position);
+            index.writeVarLong(compressedLength);
+            index.writeVarLong(blockLength);
+            index.writeVarLong(blockEntries);
+            blockCount++;
+
+            position += compressedLength;
+            blockLength = 0;
+            blockEntries = 0;
+        }
+
+        public long getWordCount() {
+            return wordCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBlock();
+                long indexOffset = position;
+                ByteBuffer header = new ByteBuffer();
+                header.writeVarLong(blockCount);
+                out.write(header.bytes, 0, header.length);
+                out.write(index.bytes, 0, index.length);
+                position += header.length + index.length;
+
+                writeLong(indexOffset);
+                writeLong(wordCount);
+                writeLong(totalCount);
+                writeInt(VERSION);
+                writeInt(MAGIC);
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+            position += 4;
+        }
+
+        private void writeLong(long value) throws IOException {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+    }
+
+    /**
+     * 随机访问读取器：构造时只读取尾部和稀疏索引，之后按需解压单个块（缓存最近一块）
+     */
+    public static class Reader implements Closeable {
+        private final FSDataInputStream in;
+        private final byte[][] firstWords;
+        private final long[] offsets;
+        private final int[] compressedLengths;
+        private final int[] rawLengths;
+        private final int[] entries;
+        private final long wordCount;
+        private final long totalCount;
+        private final Inflater inflater = new Inflater(true);
+
+        private int cachedBlock = -1;
+        private byte[] cachedBytes;
+
+        public Reader(FileSystem fs, Path path) throws IOException {
+            this(fs.open(path), fs.getFileStatus(path).getLen());
+        }
+
+        public Reader(FSDataInputStream in, long fileLength) throws IOException {
+            this.in = in;
+            if (fileLength < 4 + FOOTER_BYTES) {
+                throw new IOException("Not a word count dictionary: file too short");
+            }
+            byte[] footer = new byte[FOOTER_BYTES];
+            in.readFully(fileLength - FOOTER_BYTES, footer);
+            if (readInt(footer, 28) != MAGIC) {
+                throw new IOException("Not a word count dictionary: bad magic");
+            }
+            if (readInt(footer, 24) != VERSION) {
+                throw new IOException("Unsupported word count dictionary version: " + readInt(footer, 24));
+            }
+            long indexOffset = readLong(footer, 0);
+            wordCount = readLong(footer, 8);
+            totalCount = readLong(footer, 16);
+
+            byte[] indexBytes = new byte[(int) (fileLength - FOOTER_BYTES - indexOffset)];
+            in.readFully(indexOffset, indexBytes);
+            int[] pos = {0};
+            int blocks = (int) readVarLong(indexBytes, pos);
+            firstWords = new byte[blocks][];
+            offsets = new long[blocks];
+            compressedLengths = new int[blocks];
+            rawLengths = new int[blocks];
+            entries = new int[blocks];
+            for (int b = 0; b < blocks; b++) {
+                int length = (int) readVarLong(indexBytes, pos);
+                firstWords[b] = Arrays.copyOfRange(indexBytes, pos[0], pos[0] + length);
+                pos[0] += length;
+                offsets[b] = readVarLong(indexBytes, pos);
+                compressedLengths[b] = (int) readVarLong(indexBytes, pos);
+                rawLengths[b] = (int) readVarLong(indexBytes, pos);
+                entries[b] = (int) readVarLong(indexBytes, pos);
+            }
+        }
+
+        /**
+         * 不同单词数
+         */
+        public long getWordCount() {
+            return wordCount;
+        }
+
+        /**
+         * 所有计数之和（单词总数）
+         */
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        public int getBlockCount() {
+            return offsets.length;
+        }
+
+        /**
+         * 点查询
+         * @return 单词的计数，不存在时返回 0
+         */
+        public long get(String word) throws IOException {
+            byte[] key = word.getBytes(StandardCharsets.UTF_8);
+            int b = findBlock(key);
+            if (b < 0) {
+                return 0;
+            }
+            BlockCursor cursor = new BlockCursor(b);
+            while (cursor.next()) {
+                int cmp = compare(cursor.word, 0, cursor.wordLength, key, 0, key.length);
+                if (cmp == 0) {
+                    return cursor.count;
+                }
+                if (cmp > 0) {
+                    break;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * 按字典序访问所有以 prefix 开头的单词
+         * @return 访问的单词数
+         */
+        public int scanPrefix(String prefix, Visitor visitor) throws IOException {
+            byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+            int visited = 0;
+            for (int b = Math.max(0, findBlock(key)); b < offsets.length; b++) {
+                BlockCursor cursor = new BlockCursor(b);
+                while (cursor.next()) {
+                    if (compare(cursor.word, 0, cursor.wordLength, key, 0, key.length) < 0) {
+                        continue;
+                    }
+                    if (!startsWith(cursor.word, cursor.wordLength, key)) {
+                        return visited;
+                    }
+                    visited++;
+                    if (!visitor.visit(new String(cursor.word, 0, cursor.wordLength, StandardCharsets.UTF_8),
+                            cursor.count)) {
+                        return visited;
+                    }
+                }
+            }
+            return visited;
+        }
+
+        /**
+         * 首个单词不大于 key 的最后一块，key 小于所有单词时返回 -1
+         */
+        private int findBlock(byte[] key) {
+            int low = 0;
+            int high = firstWords.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(firstWords[mid], 0, firstWords[mid].length, key, 0, key.length) <= 0) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+
+        private byte[] readBlock(int b) throws IOException {
+            if (b == cachedBlock) {
+                return cachedBytes;
+            }
+            byte[] compressed = new byte[compressedLengths[b]];
+            in.readFully(offsets[b], compressed);
+            byte[] raw = new byte[rawLengths[b]];
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                int n = 0;
+                while (n < raw.length) {
+                    int inflated = inflater.inflate(raw, n, raw.length - n);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new EOFException("Truncated block " + b);
+                    }
+                    n += inflated;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block " + b, e);
+            }
+            cachedBlock = b;
+            cachedBytes = raw;
+            return raw;
+        }
+
+        /**
+         * 顺序解码一个块中的前缀压缩条目
+         */
+        private class BlockCursor {
+            final byte[] bytes;
+            final int[] pos = {0};
+            int remaining;
+            byte[] word = new byte[64];
+            int wordLength;
+            long count;
+
+            BlockCursor(int b) throws IOException {
+                bytes = readBlock(b);
+                remaining = entries[b];
+            }
+
+            boolean next() {
+                if (remaining == 0) {
+                    return false;
+                }
+                remaining--;
+                int shared = (int) readVarLong(bytes, pos);
+                int suffix = (int) readVarLong(bytes, pos);
+                if (word.length < shared + suffix) {
+                    word = Arrays.copyOf(word, Math.max(shared + suffix, word.length * 2));
+                }
+                System.arraycopy(bytes, pos[0], word, shared, suffix);
+                pos[0] += suffix;
+                wordLength = shared + suffix;
+                count = readVarLong(bytes, pos);
+                return true;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+    }
+
+    /**
+     * 把若干个各自有序的 "word\tcount" 文件（如 part-r-*）与额外的有序计数多路归并，写成一个字典文件
+     * 哈希分区的各分区之间没有全局顺序，因此不能直接按分区顺序追加；相同的单词会被累加
+     * @param extra 不在分区文件中的计数（如高频单词的汇总结果），可以为空
+     * @return 写入的单词数
+     */
+    public static long writeMerged(FileSystem fs, List<Path> sortedFiles, SortedMap<String, Long> extra, Path target)
+            throws IOException {
+        try (final Writer writer = new Writer(fs.create(target, true))) {
+            mergeSorted(fs, sortedFiles, extra, new Visitor() {
+                @Override
+                public boolean visit(String word, long count) throws IOException {
+                    writer.append(word, count);
+                    return true;
+                }
+            });
+            return writer.getWordCount();
+        }
+    }
+
+    /**
+     * 多路归并若干个各自按字节序排列的 "word\tcount" 文件（可以是压缩文件）和额外的有序计数，
+     * 按字节序把每个单词及其累加后的计数交给 visitor；只顺序读取每个输入一遍
+     * @param extra 额外的计数，可以为 null
+     */
+    public static void mergeSorted(FileSystem fs, List<Path> sortedFiles, SortedMap<String, Long> extra,
+                                   Visitor visitor) throws IOException {
+        PriorityQueue<MergeSource> queue = new PriorityQueue<>();
+        List<BufferedReader> readers = new ArrayList<>();
+        try {
+            for (Path file : sortedFiles) {
+                BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(CompressionCodecs.open(fs, file), StandardCharsets.UTF_8), 1 << 16);
+                readers.add(reader);
+                MergeSource source = new MergeSource(reader, null);
+                if (source.advance()) {
+                    queue.add(source);
+                }
+            }
+            if (extra != null && !extra.isEmpty()) {
+                MergeSource source = new MergeSource(null, extra.entrySet().iterator());
+                if (source.advance()) {
+                    queue.add(source);
+                }
+            }
+
+            byte[] current = null;
+            long count = 0;
+            while (!queue.isEmpty()) {
+                MergeSource source = queue.poll();
+                if (current != null && Arrays.equals(current, source.word)) {
+                    count += source.count;
+                } else {
+                    if (current != null && !visitor.visit(new String(current, StandardCharsets.UTF_8), count)) {
+                        return;
+                    }
+                    current = source.word;
+                    count = source.count;
+                }
+                if (source.advance()) {
+                    queue.add(source);
+                }
+            }
+            if (current != null) {
+                visitor.visit(new String(current, StandardCharsets.UTF_8), count);
+            }
+        } finally {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * 归并的一路输入：文本文件或有序的计数表
+     */
+    private static class MergeSource implements Comparable<MergeSource> {
+        private final BufferedReader reader;
+        private final Iterator<Map.Entry<String, Long>> entries;
+        byte[] word;
+        long count;
+
+        MergeSource(BufferedReader reader, Iterator<Map.Entry<String, Long>> entries) {
+            this.reader = reader;
+            this.entries = entries;
+        }
+
+        boolean advance() throws IOException {
+            if (entries != null) {
+                if (!entries.hasNext()) {
+                    return false;
+                }
+                Map.Entry<String, Long> entry = entries.next();
+                word = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                count = entry.getValue();
+                return true;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.lastIndexOf('\t');
+                if (tab > 0) {
+                    word = line.substring(0, tab).getBytes(StandardCharsets.UTF_8);
+                    count = Long.parseLong(line.substring(tab + 1));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(MergeSource other) {
+            return compare(word, 0, word.length, other.word, 0, other.word.length);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: WordCountDictionary convert <words.txt> <words.dict>");
+            System.err.println("       WordCountDictionary get <words.dict> <word>...");
+            System.err.println("       WordCountDictionary prefix <words.dict> <prefix> [limit]");
+            System.exit(-1);
+        }
+        Configuration conf = new Configuration();
+        Path path = new Path(args[1]);
+        FileSystem fs = path.getFileSystem(conf);
+        switch (args[0]) {
+            case "convert": {
+                Path target = new Path(args[2]);
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(CompressionCodecs.open(fs, path), StandardCharsets.UTF_8), 1 << 16);
+                     Writer writer = new Writer(target.getFileSystem(conf).create(target))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int tab = line.lastIndexOf('\t');
+                        if (tab > 0) {
+                            writer.append(line.substring(0, tab), Long.parseLong(line.substring(tab + 1)));
+                        }
+                    }
+                    System.out.println("Converted " + writer.getWordCount() + " words to " + target);
+                }
+                break;
+            }
+            case "get":
+                try (Reader reader = new Reader(fs, path)) {
+                    for (int i = 2; i < args.length; i++) {
+                        System.out.println(args[i] + "\t" + reader.get(args[i]));
+                    }
+                }
+                break;
+            case "prefix":
+                try (Reader reader = new Reader(fs, path)) {
+                    final int limit = args.length > 3 ? Integer.parseInt(args[3]) : Integer.MAX_VALUE;
+                    final List<String> lines = new ArrayList<>();
+                    reader.scanPrefix(args[2], new Visitor() {
+                        @Override
+                        public boolean visit(String word, long count) {
+                            lines.add(word + "\t" + count);
+                            return lines.size() < limit;
+                        }
+                    });
+                    for (String line : lines) {
+                        System.out.println(line);
+                    }
+                }
+                break;
+            default:
+                System.err.println("Unknown command: " + args[0]);
+                System.exit(-1);
+        }
+    }
+
+    static int compare(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+        int n = Math.min(aLength, bLength);
+        for (int i = 0; i < n; i++) {
+            int cmp = (a[aOffset + i] & 0xff) - (b[bOffset + i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static boolean startsWith(byte[] word, int length, byte[] prefix) {
+        return length >= prefix.length && compare(word, 0, prefix.length, prefix, 0, prefix.length) == 0;
+    }
+
+    private static int writeVarLong(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarLong(byte[] buffer, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+            | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xffffffffL);
+    }
+
+    /**
+     * 可增长的字节缓冲区，用于构造索引
+     */
+    private static class ByteBuffer {
+        byte[] bytes = new byte[1024];
+        int length;
+
+        void write(byte[] source, int offset, int count) {
+            ensure(count);
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            length = WordCountDictionary.writeVarLong(bytes, length, value);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
\ No newline at end of file
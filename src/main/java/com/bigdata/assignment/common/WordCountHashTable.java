@@ -0,0 +1,180 @@
+package com.bigdata.assignment.common;
+
+import java.util.Arrays;
+
+/**
+ * 公共组件：以字节数组为键的开放寻址计数表
+ * 功能：为 Map 端预聚合（in-mapper combining）提供无装箱、无 String 分配的计数结构
+ *
+ * 存储布局：
+ * - 单词字节依次追加到一块连续的 arena（slab）中，不为每个单词单独分配对象
+ * - 每个条目只保存 arena 偏移、长度、哈希值和 int 计数（均为基本类型数组）
+ * - 哈希槽使用线性探测，槽中存放 条目下标 + 1（0 表示空槽）
+ *
+ * clear() 只重置下标、保留已分配的数组，便于反复 flush 后继续复用。
+ */
+public class WordCountHashTable {
+
+    /** 每个条目在基本类型数组中占用的字节数：offset + length + hash + count */
+    private static final int ENTRY_BYTES = 16;
+
+    private byte[] arena;
+    private int arenaUsed;
+
+    private int[] offsets;
+    private int[] lengths;
+    private int[] hashes;
+    private int[] counts;
+    private int size;
+
+    private int[] slots;
+    private int mask;
+
+    public WordCountHashTable() {
+        this(1 << 14);
+    }
+
+    /**
+     * @param expectedKeys 预计的不同单词数，用于确定初始容量
+     */
+    public WordCountHashTable(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedKeys) - 1) << 1;
+        arena = new byte[capacity * 8];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+        slots = new int[capacity << 1];
+        mask = slots.length - 1;
+    }
+
+    /**
+     * 将单词 [offset, offset + length) 的计数加 delta
+     * @return 该单词是否为表中新增的键
+     */
+    public boolean add(byte[] key, int offset, int length, int delta) {
+        int hash = hash(key, offset, length);
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                break;
+            }
+            if (hashes[entry] == hash && lengths[entry] == length
+                    && equalBytes(arena, offsets[entry], key, offset, length)) {
+                counts[entry] += delta;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // 新单词：追加到 arena 并登记条目
+        if (size == offsets.length) {
+            growEntries();
+            // 哈希槽已重建，需要重新定位空槽
+            slot = hash & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        if (arenaUsed + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaUsed + length));
+        }
+        System.arraycopy(key, offset, arena, arenaUsed, length);
+
+        offsets[size] = arenaUsed;
+        lengths[size] = length;
+        hashes[size] = hash;
+        counts[size] = delta;
+        arenaUsed += length;
+        slots[slot] = ++size;
+        return true;
+    }
+
+    /**
+     * 不同单词数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 当前数据实际占用的字节数估算（单词字节 + 条目数组 + 哈希槽），
+     * 用于按内存预算决定何时 flush；底层数组按倍增扩容，实际容量最多为该值的两倍
+     */
+    public long usedBytes() {
+        return (long) arenaUsed + (long) size * ENTRY_BYTES + (long) slots.length * 4;
+    }
+
+    /**
+     * 存放所有单词字节的 arena，配合 keyOffset()/keyLength() 使用
+     */
+    public byte[] keyBytes() {
+        return arena;
+    }
+
+    public int keyOffset(int entry) {
+        return offsets[entry];
+    }
+
+    public int keyLength(int entry) {
+        return lengths[entry];
+    }
+
+    public int count(int entry) {
+        return counts[entry];
+    }
+
+    /**
+     * 清空所有条目，保留已分配的数组以供复用
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(slots, 0);
+        }
+        size = 0;
+        arenaUsed = 0;
+    }
+
+    private void growEntries() {
+        int capacity = offsets.length << 1;
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+
+        // 保持装载因子不超过 0.5
+        slots = new int[capacity << 1];
+        mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + bytes[i];
+        }
+        // murmur3 fmix32，打散低位以适配 2 的幂次槽数
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean equalBytes(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
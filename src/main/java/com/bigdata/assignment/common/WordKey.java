@@ -0,0 +1,80 @@
+package com.bigdata.assignment.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * 公共组件：Shuffle 阶段使用的单词键
+ * 功能：序列化为 单词字节 + 0x00 结束符，不写变长长度前缀，
+ * 注册的 Comparator 直接对序列化字节做 memcmp 比较，排序和合并时既不反序列化也不解码长度
+ *
+ * 0x00 小于任何单词字符，因此 "ab\0" &lt; "abc\0"，与 Text 的字典序一致。
+ * WordTokenizer 产生的单词只包含字母和 0x0B，不会出现 0x00。
+ *
+ * 继承自 Text，现有的 Partitioner / Combiner / Reducer（以 Text 为键类型）无需修改即可使用。
+ */
+public class WordKey extends Text {
+
+    static {
+        WritableComparator.define(WordKey.class, new Comparator());
+    }
+
+    private static final byte TERMINATOR = 0;
+
+    private byte[] scratch = new byte[64];
+
+    public WordKey() {
+        super();
+    }
+
+    public WordKey(String word) {
+        super(word);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        byte[] bytes = getBytes();
+        int length = getLength();
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == TERMINATOR) {
+                throw new IOException("WordKey cannot contain a 0x00 byte: " + toString());
+            }
+        }
+        out.write(bytes, 0, length);
+        out.writeByte(TERMINATOR);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int length = 0;
+        byte b;
+        while ((b = in.readByte()) != TERMINATOR) {
+            if (length == scratch.length) {
+                byte[] grown = new byte[scratch.length << 1];
+                System.arraycopy(scratch, 0, grown, 0, length);
+                scratch = grown;
+            }
+            scratch[length++] = b;
+        }
+        set(scratch, 0, length);
+    }
+
+    /**
+     * 原始字节比较器：序列化后的字节顺序即为单词的字典序
+     */
+    public static class Comparator extends WritableComparator {
+
+        public Comparator() {
+            super(WordKey.class);
+        }
+
+        @Override
+        public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+            return compareBytes(b1, s1, l1, b2, s2, l2);
+        }
+    }
+}
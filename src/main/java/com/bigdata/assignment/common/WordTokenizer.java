@@ -0,0 +1,168 @@
+package com.bigdata.assignment.common;
+
+import org.apache.hadoop.io.Text;
+
+/**
+ * 公共组件：基于字节的单词切分器
+ * 功能：直接扫描 Text 的 UTF-8 字节，边扫描边将 ASCII 字母转为小写，
+ * 把每个单词写入可复用的缓冲区，Map 热路径上每行不再产生任何对象分配。
+ *
+ * 切分结果与原实现完全一致：
+ *   value.toString().toLowerCase()
+ *        .replaceAll("[^a-zA-Z\\s]", " ")
+ *   → StringTokenizer 按 " \t\n\r\f" 切分 → trim() → 过滤长度小于 2 的单词
+ *
+ * 由此推出的字节级规则：
+ * - 单词字符：ASCII 字母（转为小写）以及垂直制表符 0x0B
+ *   （\s 包含 0x0B，因此不会被替换；但 StringTokenizer 不以它为分隔符，
+ *   只会被 trim() 去掉首尾部分）
+ * - 其余 ASCII 字节和所有非 ASCII 字节都视为分隔符
+ * - 两个非 ASCII 字符经 toLowerCase() 后会变成 ASCII 字母，需要特殊处理：
+ *   U+212A（开尔文符号，E2 84 AA）→ "k"，继续当前单词；
+ *   U+0130（带点大写 I，C4 B0）→ "i" + U+0307，U+0307 随后被替换为空格，即 "i" 后结束单词
+ *
+ * 使用方式：
+ * <pre>
+ *   tokenizer.reset(value);
+ *   while (tokenizer.next(word)) {
+ *       context.write(word, one);
+ *   }
+ * </pre>
+ */
+public class WordTokenizer {
+
+    /** 最短有效单词长度（与原实现 token.length() >= 2 一致） */
+    public static final int MIN_WORD_LENGTH = 2;
+
+    private static final byte VERTICAL_TAB = 0x0B;
+
+    private byte[] bytes;
+    private int pos;
+    private int end;
+
+    // 当前单词（已转小写），由 next() 填充并复用
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    /**
+     * 切分一个 Text 的内容（不复制输入字节）
+     */
+    public void reset(Text text) {
+        reset(text.getBytes(), 0, text.getLength());
+    }
+
+    /**
+     * 切分字节数组中 [start, start + length) 的 UTF-8 内容
+     */
+    public void reset(byte[] bytes, int start, int length) {
+        this.bytes = bytes;
+        this.pos = start;
+        this.end = start + length;
+        this.tokenLength = 0;
+    }
+
+    /**
+     * 读取下一个单词并写入 word
+     * @return 没有更多单词时返回 false
+     */
+    public boolean next(Text word) {
+        if (!nextToken()) {
+            return false;
+        }
+        word.set(token, 0, tokenLength);
+        return true;
+    }
+
+    /**
+     * 读取下一个单词，结果通过 tokenBytes()/tokenLength() 获取
+     * @return 没有更多单词时返回 false
+     */
+    public boolean nextToken() {
+        final byte[] in = bytes;
+        final int limit = end;
+        int p = pos;
+
+        while (p < limit) {
+            int n = 0;
+            boolean terminated = false;
+
+            // 1. 读取一段连续的单词字符
+            while (p < limit) {
+                int b = in[p];
+                if (b >= 'a' && b <= 'z') {
+                    p++;
+                } else if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                    p++;
+                } else if (b == VERTICAL_TAB) {
+                    p++;
+                } else if (b == (byte) 0xE2 && p + 2 < limit
+                        && in[p + 1] == (byte) 0x84 && in[p + 2] == (byte) 0xAA) {
+                    // U+212A KELVIN SIGN → 'k'
+                    b = 'k';
+                    p += 3;
+                } else if (b == (byte) 0xC4 && p + 1 < limit && in[p + 1] == (byte) 0xB0) {
+                    // U+0130 → "i̇"，组合字符随后成为分隔符
+                    b = 'i';
+                    p += 2;
+                    terminated = true;
+                } else {
+                    break;
+                }
+                append(n++, (byte) b);
+                if (terminated) {
+                    break;
+                }
+            }
+
+            if (n == 0) {
+                // 2. 跳过一个分隔符字节
+                p++;
+                continue;
+            }
+
+            // 3. 等价于 String.trim()：去掉首尾的垂直制表符
+            int from = 0;
+            int to = n;
+            while (from < to && token[from] == VERTICAL_TAB) {
+                from++;
+            }
+            while (to > from && token[to - 1] == VERTICAL_TAB) {
+                to--;
+            }
+
+            if (to - from >= MIN_WORD_LENGTH) {
+                if (from > 0) {
+                    System.arraycopy(token, from, token, 0, to - from);
+                }
+                tokenLength = to - from;
+                pos = p;
+                return true;
+            }
+        }
+
+        pos = p;
+        tokenLength = 0;
+        return false;
+    }
+
+    /**
+     * 当前单词的字节（只有前 tokenLength() 个字节有效，下次调用 next 时会被覆盖）
+     */
+    public byte[] tokenBytes() {
+        return token;
+    }
+
+    public int tokenLength() {
+        return tokenLength;
+    }
+
+    private void append(int index, byte b) {
+        if (index == token.length) {
+            byte[] grown = new byte[token.length << 1];
+            System.arraycopy(token, 0, grown, 0, index);
+            token = grown;
+        }
+        token[index] = b;
+    }
+}
@@ -0,0 +1,354 @@
+package com.bigdata.assignment.incremental;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import com.bigdata.assignment.common.JobReport;
+import com.bigdata.assignment.common.WordCountDictionary;
+import com.bigdata.assignment.problem2.WordCountCombiner;
+import com.bigdata.assignment.problem2.WordCountMapper;
+import com.bigdata.assignment.problem2.WordCountReducer;
+
+/**
+ * 增量 WordCount：只统计新增的输入文件，并与上一次的结果合并
+ * 功能：各 Driver 每次都删除输出目录、重新统计全部语料；输入目录只新增了几本书时，
+ * 这里只对新文件运行 MapReduce 作业，再把增量计数与上一次的有序结果做一遍归并连接（merge-join），
+ * 耗时与新数据量（加上一次顺序读取上次结果）成正比
+ *
+ * 输出目录结构：
+ *   CURRENT           - 当前结果所在的版本目录名（如 gen-00003）
+ *   gen-NNNNN/words.txt    - 按单词字节序排列的完整结果
+ *   gen-NNNNN/manifest.txt - 已统计的输入文件清单：路径\t长度\t修改时间
+ *   gen-NNNNN/job-report.json / job-report.csv / statistics.txt
+ * 新结果先完整写入新的版本目录，最后通过带覆盖的 rename 原子地替换 CURRENT，读取方通过
+ * currentResult() 定位结果，不会看到写了一半的输出；上一个版本保留到下一次更新，供正在读取的程序读完
+ *
+ * 文件变化的处理：
+ * - 新文件：统计后合并
+ * - 长度或修改时间变化的文件、被删除的文件：旧内容的计数已混入上次结果、无法单独减去，
+ *   因此退回全量重算（打印原因）；full 参数可强制全量重算
+ *
+ * 用法：IncrementalWordCountDriver [-D key=value ...] <input> <output> [full] [reducers:N]
+ */
+public class IncrementalWordCountDriver {
+
+    public static final String CURRENT_FILE = "CURRENT";
+    public static final String MANIFEST_FILE = "manifest.txt";
+    public static final String WORDS_FILE = "words.txt";
+    private static final String GENERATION_PREFIX = "gen-";
+
+    public static void main(String[] args) throws Exception {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs();
+
+        if (args.length < 2) {
+            printUsage();
+            System.exit(-1);
+        }
+        boolean full = false;
+        int numReduceTasks = 4;
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            if (option.equals("full")) {
+                full = true;
+            } else if (option.startsWith("reducers:")) {
+                numReduceTasks = Integer.parseInt(option.substring("reducers:".length()));
+            } else {
+                System.err.println("Error: Unknown option: " + args[i]);
+                printUsage();
+                System.exit(-1);
+            }
+        }
+        if (numReduceTasks < 1) {
+            System.err.println("Error: Number of reduce tasks must be positive: " + numReduceTasks);
+            System.exit(-1);
+        }
+
+        Path inputPath = new Path(args[0]);
+        Path outputPath = new Path(args[1]);
+        FileSystem inputFs = inputPath.getFileSystem(conf);
+        FileSystem fs = outputPath.getFileSystem(conf);
+        if (!inputFs.exists(inputPath)) {
+            System.err.println("Error: Input directory not found: " + args[0]);
+            System.exit(-1);
+        }
+
+        // 1. 比较输入文件与上次的清单
+        Map<String, FileStatus> inputFiles = listInputFiles(inputFs, inputPath);
+        Path previous = currentResult(fs, outputPath);
+        Map<String, String> manifest = previous == null
+            ? new LinkedHashMap<String, String>() : readManifest(fs, new Path(previous, MANIFEST_FILE));
+
+        List<Path> newFiles = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, FileStatus> entry : inputFiles.entrySet()) {
+            String recorded = manifest.get(entry.getKey());
+            if (recorded == null) {
+                newFiles.add(entry.getValue().getPath());
+            } else if (!recorded.equals(manifestValue(entry.getValue()))) {
+                changed.add("changed: " + entry.getKey());
+            }
+        }
+        for (String path : manifest.keySet()) {
+            if (!inputFiles.containsKey(path)) {
+                changed.add("removed: " + path);
+            }
+        }
+
+        System.out.println("=== Incremental Input Check ===");
+        System.out.println("Input files: " + inputFiles.size() + ", previously counted: " + manifest.size()
+            + ", new: " + newFiles.size() + ", changed or removed: " + changed.size());
+        System.out.println("Previous result: " + (previous == null ? "none" : previous));
+
+        boolean fullRun = full || previous == null || !changed.isEmpty();
+        if (fullRun) {
+            if (previous != null && !full) {
+                for (int i = 0; i < Math.min(changed.size(), 10); i++) {
+                    System.out.println("  " + changed.get(i));
+                }
+                System.out.println("Counts of changed or removed files cannot be subtracted, recounting all input");
+            }
+            newFiles.clear();
+            for (FileStatus status : inputFiles.values()) {
+                newFiles.add(status.getPath());
+            }
+        } else if (newFiles.isEmpty()) {
+            System.out.println("No new input files, result is up to date: " + previous);
+            return;
+        }
+        System.out.println("Mode: " + (fullRun ? "full" : "incremental") + ", files to count: " + newFiles.size());
+        System.out.println("=====================================");
+
+        // 2. 只对需要统计的文件运行作业，增量结果写入临时目录
+        Path generation = new Path(outputPath, nextGeneration(fs, outputPath));
+        Path deltaPath = new Path(outputPath, "_delta-" + generation.getName());
+        fs.delete(deltaPath, true);
+        Job job = createJob(conf, newFiles, deltaPath, numReduceTasks);
+
+        long startTime = System.currentTimeMillis();
+        if (!job.waitForCompletion(true)) {
+            System.err.println("Job execution failed!");
+            fs.delete(deltaPath, true);
+            System.exit(-1);
+        }
+        long jobTime = System.currentTimeMillis() - startTime;
+
+        // 3. 上次结果与增量各分区多路归并，写入新的版本目录
+        List<Path> sortedFiles = new ArrayList<>();
+        if (!fullRun) {
+            sortedFiles.add(new Path(previous, WORDS_FILE));
+        }
+        for (FileStatus status : fs.listStatus(deltaPath)) {
+            if (status.getPath().getName().startsWith("part-")) {
+                sortedFiles.add(status.getPath());
+            }
+        }
+        long mergeStart = System.currentTimeMillis();
+        fs.delete(generation, true);
+        long[] totals = mergeResults(fs, sortedFiles, new Path(generation, WORDS_FILE));
+        writeManifest(fs, new Path(generation, MANIFEST_FILE), inputFiles);
+        long mergeTime = System.currentTimeMillis() - mergeStart;
+
+        JobReport report = JobReport.fromJob(job, jobTime);
+        report.put("mode", fullRun ? "full" : "incremental")
+              .put("input_files", inputFiles.size())
+              .put("counted_files", newFiles.size())
+              .put("previous_generation", previous == null ? "" : previous.getName())
+              .put("generation", generation.getName())
+              .put("processing_time", jobTime)
+              .put("merge_time_ms", mergeTime)
+              .put("total_words", totals[1])
+              .put("unique_words", totals[0]);
+        report.writeMetrics(fs, new Path(generation, "statistics.txt"));
+        report.write(fs, generation);
+
+        // 4. 原子地切换 CURRENT，再清理增量目录和更早的版本
+        promote(fs, outputPath, generation);
+        fs.delete(deltaPath, true);
+        deleteOldGenerations(fs, outputPath, generation, previous);
+
+        System.out.println("=== Incremental Result ===");
+        System.out.println("Job time: " + jobTime + " ms, merge time: " + mergeTime + " ms");
+        System.out.println("Unique words: " + totals[0] + ", total words: " + totals[1]);
+        System.out.println("Result promoted: " + new Path(generation, WORDS_FILE));
+        System.out.println("=====================================");
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: IncrementalWordCountDriver [-D key=value ...] <input> <output> [full] [reducers:N]");
+        System.err.println("Example: IncrementalWordCountDriver /public/data/wordcount /user/xxx/incremental");
+        System.err.println("  full:        忽略上次结果，全量重新统计");
+        System.err.println("  reducers:N:  统计作业的 Reducer 数（默认 4）");
+    }
+
+    /**
+     * 当前结果所在的版本目录，尚无结果时返回 null
+     */
+    public static Path currentResult(FileSystem fs, Path outputPath) throws IOException {
+        Path current = new Path(outputPath, CURRENT_FILE);
+        if (!fs.exists(current)) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(fs.open(current), StandardCharsets.UTF_8))) {
+            String name = reader.readLine();
+            return name == null || name.trim().isEmpty() ? null : new Path(outputPath, name.trim());
+        }
+    }
+
+    private static Job createJob(Configuration conf, List<Path> files, Path deltaPath, int numReduceTasks)
+            throws IOException {
+        Job job = Job.getInstance(conf, "incremental word count");
+        job.setJarByClass(IncrementalWordCountDriver.class);
+        job.setMapperClass(WordCountMapper.class);
+        job.setCombinerClass(WordCountCombiner.class);
+        job.setReducerClass(WordCountReducer.class);
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(IntWritable.class);
+        job.setNumReduceTasks(numReduceTasks);
+        FileInputFormat.setInputPaths(job, files.toArray(new Path[files.size()]));
+        FileOutputFormat.setOutputPath(job, deltaPath);
+        return job;
+    }
+
+    /**
+     * 输入目录下的文件（跳过 _ 和 . 开头的隐藏文件），按完整路径排序
+     */
+    private static Map<String, FileStatus> listInputFiles(FileSystem fs, Path inputPath) throws IOException {
+        FileStatus[] statuses = fs.listStatus(inputPath);
+        Arrays.sort(statuses);
+        Map<String, FileStatus> files = new LinkedHashMap<>();
+        for (FileStatus status : statuses) {
+            String name = status.getPath().getName();
+            if (status.isFile() && !name.startsWith("_") && !name.startsWith(".")) {
+                files.put(fs.makeQualified(status.getPath()).toString(), status);
+            }
+        }
+        return files;
+    }
+
+    private static String manifestValue(FileStatus status) {
+        return status.getLen() + "\t" + status.getModificationTime();
+    }
+
+    private static Map<String, String> readManifest(FileSystem fs, Path path) throws IOException {
+        Map<String, String> manifest = new LinkedHashMap<>();
+        if (!fs.exists(path)) {
+            return manifest;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(fs.open(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    manifest.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private static void writeManifest(FileSystem fs, Path path, Map<String, FileStatus> files) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(fs.create(path, true), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, FileStatus> entry : files.entrySet()) {
+                out.write(entry.getKey() + "\t" + manifestValue(entry.getValue()) + "\n");
+            }
+        }
+    }
+
+    /**
+     * 归并连接：每个输入只顺序读取一遍，相同单词的计数相加
+     * @return {不同单词数, 单词总数}
+     */
+    private static long[] mergeResults(FileSystem fs, List<Path> sortedFiles, Path target) throws IOException {
+        final long[] totals = new long[2];
+        try (final Writer out = new BufferedWriter(
+                new OutputStreamWriter(fs.create(target, true), StandardCharsets.UTF_8), 1 << 16)) {
+            WordCountDictionary.mergeSorted(fs, sortedFiles, null, new WordCountDictionary.Visitor() {
+                @Override
+                public boolean visit(String word, long count) throws IOException {
+                    out.write(word);
+                    out.write('\t');
+                    out.write(Long.toString(count));
+                    out.write('\n');
+                    totals[0]++;
+                    totals[1] += count;
+                    return true;
+                }
+            });
+        }
+        return totals;
+    }
+
+    private static String nextGeneration(FileSystem fs, Path outputPath) throws IOException {
+        int last = 0;
+        if (fs.exists(outputPath)) {
+            for (FileStatus status : fs.listStatus(outputPath)) {
+                int number = generationNumber(status.getPath().getName());
+                last = Math.max(last, number);
+            }
+        }
+        return String.format("%s%05d", GENERATION_PREFIX, last + 1);
+    }
+
+    private static int generationNumber(String name) {
+        if (!name.startsWith(GENERATION_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(GENERATION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 先写临时文件，再带覆盖地 rename 为 CURRENT（HDFS 和本地文件系统上都是原子操作）
+     */
+    private static void promote(FileSystem fs, Path outputPath, Path generation) throws IOException {
+        Path temp = new Path(outputPath, "_" + CURRENT_FILE + ".tmp");
+        try (Writer out = new OutputStreamWriter(fs.create(temp, true), StandardCharsets.UTF_8)) {
+            out.write(generation.getName() + "\n");
+        }
+        FileContext fc = FileContext.getFileContext(fs.getUri(), fs.getConf());
+        fc.rename(temp, new Path(outputPath, CURRENT_FILE), Options.Rename.OVERWRITE);
+    }
+
+    /**
+     * 保留当前和上一个版本，删除更早的版本
+     */
+    private static void deleteOldGenerations(FileSystem fs, Path outputPath, Path current, Path previous)
+            throws IOException {
+        for (FileStatus status : fs.listStatus(outputPath)) {
+            String name = status.getPath().getName();
+            if (generationNumber(name) >= 0 && !name.equals(current.getName())
+                    && (previous == null || !name.equals(previous.getName()))) {
+                fs.delete(status.getPath(), true);
+            }
+        }
+    }
+}
\ No newline at end of file
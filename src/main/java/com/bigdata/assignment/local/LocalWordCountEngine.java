@@ -0,0 +1,477 @@
+package com.bigdata.assignment.local;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+
+import com.bigdata.assignment.common.WordCountHashTable;
+import com.bigdata.assignment.common.WordTokenizer;
+
+/**
+ * 单机本地引擎：不经过 MapReduce 的内存映射 WordCount
+ * 功能：对几百 MB 的语料，作业启动、spill 和 shuffle 的开销远大于计数本身；这里直接在一个 JVM 中完成：
+ * 1. 用 FileChannel.map 映射输入文件，按换行符边界切成若干块（UTF-8 多字节字符中不会出现 '\n'，
+ *    单词也不会跨行，因此切分不影响结果）
+ * 2. 在 ForkJoinPool 上并行处理各块，每个工作线程使用自己的 WordTokenizer 和 WordCountHashTable
+ * 3. 合并各线程的计数表，写出与 Driver 格式完全相同的
+ *    words.txt（word\tcount，按字节字典序，与 Problem 1/2 相同）和
+ *    word-count-results.txt（计数降序、计数相同时按字典序，与 Problem 3 相同）
+ *
+ * 切分规则与 MapReduce 版本共用 WordTokenizer，结果可作为 MR 作业的正确性参照：
+ * verify:<目录> 会把生成的文件与该目录（可为 hdfs:// 路径）下的同名文件逐行比较
+ *
+ * 用法：LocalWordCountEngine <本地输入文件或目录> <本地输出目录> [threads:N] [chunk:MB] [verify:<目录>]
+ */
+public class LocalWordCountEngine {
+
+    public static final String WORDS_FILE = "words.txt";
+    public static final String RESULTS_FILE = "word-count-results.txt";
+
+    /** 默认每块 16MB：322MB 语料约 20 块，足以在各线程间均衡 */
+    private static final int DEFAULT_CHUNK_MB = 16;
+
+    /** 映射区域按该大小分批复制到线程本地缓冲区后再切分 */
+    private static final int COPY_BUFFER_BYTES = 1 << 20;
+
+    /** 查找块边界时每次读取的字节数 */
+    private static final int BOUNDARY_SCAN_BYTES = 1 << 16;
+
+    private static final int EXPECTED_WORDS = 1 << 18;
+
+    private final int threads;
+    private final long chunkBytes;
+
+    // 每个工作线程一张计数表，创建时登记，全部块处理完后合并
+    private final Queue<Worker> workers = new ConcurrentLinkedQueue<Worker>();
+    private final ThreadLocal<Worker> worker = new ThreadLocal<Worker>() {
+        @Override
+        protected Worker initialValue() {
+            Worker w = new Worker();
+            workers.add(w);
+            return w;
+        }
+    };
+
+    private long inputBytes;
+    private int fileCount;
+    private int chunkCount;
+    private long totalWords;
+
+    public LocalWordCountEngine(int threads, long chunkBytes) {
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            printUsage();
+            System.exit(-1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkMb = DEFAULT_CHUNK_MB;
+        String verifyDir = null;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.toLowerCase().startsWith("threads:")) {
+                threads = Integer.parseInt(arg.substring("threads:".length()));
+            } else if (arg.toLowerCase().startsWith("chunk:")) {
+                chunkMb = Integer.parseInt(arg.substring("chunk:".length()));
+            } else if (arg.toLowerCase().startsWith("verify:")) {
+                verifyDir = arg.substring("verify:".length());
+            } else {
+                System.err.println("Unknown option: " + arg);
+                printUsage();
+                System.exit(-1);
+            }
+        }
+
+        Path input = localPath(args[0]);
+        Path output = localPath(args[1]);
+
+        System.out.println("=== Local WordCount Engine ===");
+        System.out.println("Input path: " + input);
+        System.out.println("Output path: " + output);
+        System.out.println("Threads: " + threads + ", chunk size: " + chunkMb + "MB");
+
+        LocalWordCountEngine engine = new LocalWordCountEngine(threads, (long) chunkMb << 20);
+        long startTime = System.currentTimeMillis();
+        WordCountHashTable counts = engine.count(listInputFiles(input));
+        long countTime = System.currentTimeMillis() - startTime;
+
+        Files.createDirectories(output);
+        int[] entries = sortedEntries(counts);
+        writeCounts(counts, entries, output.resolve(WORDS_FILE));
+        sortByFrequency(counts, entries);
+        writeCounts(counts, entries, output.resolve(RESULTS_FILE));
+        long processingTime = System.currentTimeMillis() - startTime;
+
+        System.out.println("\n=== Local Engine Statistics ===");
+        System.out.println("input_files\t" + engine.fileCount);
+        System.out.println("input_size_bytes\t" + engine.inputBytes);
+        System.out.println("chunks\t" + engine.chunkCount);
+        System.out.println("threads\t" + threads);
+        System.out.println("total_words\t" + engine.totalWords);
+        System.out.println("unique_words\t" + counts.size());
+        System.out.println("count_time_ms\t" + countTime);
+        System.out.println("total_processing_time\t" + processingTime);
+        System.out.println(String.format("throughput_mb_per_sec\t%.2f",
+            processingTime > 0 ? engine.inputBytes / 1048576.0 / (processingTime / 1000.0) : 0));
+
+        if (verifyDir != null && !verify(output, verifyDir)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 统计所有输入文件，返回合并后的计数表
+     */
+    public WordCountHashTable count(List<Path> files) throws IOException {
+        List<FileChannel> channels = new ArrayList<FileChannel>();
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        try {
+            for (Path file : files) {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(channel);
+                inputBytes += channel.size();
+                splitAtNewlines(channel, chunks);
+            }
+            fileCount = files.size();
+            chunkCount = chunks.size();
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new CountTask(chunks, 0, chunks.size()));
+            } finally {
+                pool.shutdown();
+            }
+        } finally {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+        return merge();
+    }
+
+    /**
+     * 按 chunkBytes 切块，每块的结束位置推进到下一个 '\n' 之后（或文件末尾）
+     */
+    private void splitAtNewlines(FileChannel channel, List<Chunk> chunks) throws IOException {
+        long size = channel.size();
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkBytes >= size ? size : nextLineStart(channel, start + chunkBytes, size, scan);
+            chunks.add(new Chunk(channel, start, end - start));
+            start = end;
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer scan)
+            throws IOException {
+        while (position < size) {
+            scan.clear();
+            int n = channel.read(scan, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    private WordCountHashTable merge() {
+        WordCountHashTable merged = null;
+        for (Worker w : workers) {
+            totalWords += w.words;
+            if (merged == null || w.counts.size() > merged.size()) {
+                merged = w.counts;
+            }
+        }
+        if (merged == null) {
+            return new WordCountHashTable(16);
+        }
+        for (Worker w : workers) {
+            WordCountHashTable table = w.counts;
+            if (table == merged) {
+                continue;
+            }
+            byte[] keys = table.keyBytes();
+            for (int e = 0; e < table.size(); e++) {
+                merged.add(keys, table.keyOffset(e), table.keyLength(e), table.count(e));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 一个工作线程的状态：切分器、复制缓冲区和计数表
+     */
+    private static class Worker {
+        final WordTokenizer tokenizer = new WordTokenizer();
+        final WordCountHashTable counts = new WordCountHashTable(EXPECTED_WORDS);
+        byte[] buffer = new byte[COPY_BUFFER_BYTES];
+        long words;
+
+        /**
+         * 映射一个块并计数：分批复制到缓冲区，每批只切分到最后一个 '\n'，剩余部分留到下一批
+         */
+        void count(Chunk chunk) throws IOException {
+            MappedByteBuffer mapped = chunk.channel.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.length);
+            int carry = 0;
+            while (mapped.hasRemaining()) {
+                if (carry == buffer.length) {
+                    // 单行超过缓冲区：扩容后继续读取
+                    buffer = Arrays.copyOf(buffer, buffer.length << 1);
+                }
+                int n = Math.min(buffer.length - carry, mapped.remaining());
+                mapped.get(buffer, carry, n);
+                int filled = carry + n;
+                int lineEnd = filled;
+                if (mapped.hasRemaining()) {
+                    while (lineEnd > 0 && buffer[lineEnd - 1] != '\n') {
+                        lineEnd--;
+                    }
+                }
+                if (lineEnd == 0) {
+                    carry = filled;
+                    continue;
+                }
+                tokenize(0, lineEnd);
+                carry = filled - lineEnd;
+                System.arraycopy(buffer, lineEnd, buffer, 0, carry);
+            }
+            if (carry > 0) {
+                tokenize(0, carry);
+            }
+        }
+
+        private void tokenize(int start, int length) {
+            tokenizer.reset(buffer, start, length);
+            while (tokenizer.nextToken()) {
+                counts.add(tokenizer.tokenBytes(), 0, tokenizer.tokenLength(), 1);
+                words++;
+            }
+        }
+    }
+
+    private static class Chunk {
+        final FileChannel channel;
+        final long start;
+        final long length;
+
+        Chunk(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 二分块列表，直到单个块时在当前线程的计数表上计数
+     */
+    private class CountTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        CountTask(List<Chunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CountTask(chunks, from, mid), new CountTask(chunks, mid, to));
+                return;
+            }
+            if (to > from) {
+                try {
+                    worker.get().count(chunks.get(from));
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to read chunk at offset " + chunks.get(from).start, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 输入为文件时直接返回；为目录时返回其中的普通文件（与 FileInputFormat 一样跳过以 _ 和 . 开头的文件）
+     */
+    static List<Path> listInputFiles(Path input) throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        if (!Files.isDirectory(input)) {
+            files.add(input);
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(input)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (Files.isRegularFile(file) && !name.startsWith("_") && !name.startsWith(".")) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static Path localPath(String path) {
+        return path.startsWith("file:") ? Paths.get(URI.create(path)) : Paths.get(path);
+    }
+
+    /**
+     * 按单词字节（无符号）字典序排列的条目下标，与 Text 在 Shuffle 中的排序一致
+     */
+    static int[] sortedEntries(final WordCountHashTable counts) {
+        Integer[] boxed = new Integer[counts.size()];
+        for (int e = 0; e < boxed.length; e++) {
+            boxed[e] = e;
+        }
+        Arrays.sort(boxed, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return compareWords(counts, a, b);
+            }
+        });
+        int[] entries = new int[boxed.length];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = boxed[i];
+        }
+        return entries;
+    }
+
+    /**
+     * 计数降序、计数相同时按字典序，与 ExternalFrequencySorter 的输出顺序一致
+     * （单词只含 ASCII 字节，字节序与 String.compareTo 相同）
+     */
+    static void sortByFrequency(final WordCountHashTable counts, int[] entries) {
+        Integer[] boxed = new Integer[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            boxed[i] = entries[i];
+        }
+        Arrays.sort(boxed, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int cmp = Integer.compare(counts.count(b), counts.count(a));
+                return cmp != 0 ? cmp : compareWords(counts, a, b);
+            }
+        });
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = boxed[i];
+        }
+    }
+
+    private static int compareWords(WordCountHashTable counts, int a, int b) {
+        byte[] keys = counts.keyBytes();
+        int offsetA = counts.keyOffset(a);
+        int offsetB = counts.keyOffset(b);
+        int lengthA = counts.keyLength(a);
+        int lengthB = counts.keyLength(b);
+        int n = Math.min(lengthA, lengthB);
+        for (int i = 0; i < n; i++) {
+            int cmp = (keys[offsetA + i] & 0xff) - (keys[offsetB + i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * 按 entries 的顺序写出 "word\tcount\n"，与 TextOutputFormat 的输出相同
+     */
+    static void writeCounts(WordCountHashTable counts, int[] entries, Path file) throws IOException {
+        byte[] keys = counts.keyBytes();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            for (int e : entries) {
+                out.write(keys, counts.keyOffset(e), counts.keyLength(e));
+                out.write('\t');
+                out.write(Integer.toString(counts.count(e)).getBytes(StandardCharsets.US_ASCII));
+                out.write('\n');
+            }
+        }
+        System.out.println(file.getFileName() + " file generated: " + file);
+    }
+
+    /**
+     * 把本地结果与 MR 作业输出目录中的同名文件逐行比较，目录中不存在的文件跳过
+     * @return 所有存在的文件是否完全一致
+     */
+    static boolean verify(Path output, String expectedDir) throws IOException {
+        System.out.println("\n=== Verifying against " + expectedDir + " ===");
+        org.apache.hadoop.fs.Path dir = new org.apache.hadoop.fs.Path(expectedDir);
+        FileSystem fs = dir.getFileSystem(new Configuration());
+        boolean matched = true;
+        for (String name : new String[] {WORDS_FILE, RESULTS_FILE}) {
+            org.apache.hadoop.fs.Path expected = new org.apache.hadoop.fs.Path(dir, name);
+            if (!fs.exists(expected)) {
+                System.out.println(name + ": not present, skipped");
+                continue;
+            }
+            try (InputStream actualIn = Files.newInputStream(output.resolve(name));
+                 InputStream expectedIn = fs.open(expected)) {
+                String mismatch = firstMismatch(actualIn, expectedIn);
+                System.out.println(name + ": " + (mismatch == null ? "MATCH" : "MISMATCH " + mismatch));
+                matched &= mismatch == null;
+            }
+        }
+        return matched;
+    }
+
+    private static String firstMismatch(InputStream actualIn, InputStream expectedIn) throws IOException {
+        BufferedReader actual = new BufferedReader(new InputStreamReader(actualIn, StandardCharsets.UTF_8));
+        BufferedReader expected = new BufferedReader(new InputStreamReader(expectedIn, StandardCharsets.UTF_8));
+        long line = 0;
+        while (true) {
+            String a = actual.readLine();
+            String e = expected.readLine();
+            line++;
+            if (a == null && e == null) {
+                return null;
+            }
+            if (a == null || !a.equals(e)) {
+                return "at line " + line + ": local=" + a + ", expected=" + e;
+            }
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: LocalWordCountEngine <local input file or directory> <local output directory>"
+            + " [threads:N] [chunk:MB] [verify:<MR output directory>]");
+    }
+}
@@ -16,6 +16,9 @@ import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 
+import com.bigdata.assignment.common.JobReport;
+import com.bigdata.assignment.common.PartFileMerger;
+
 /**
  * 题目一：WordCount Driver主程序
  * 功能：配置和启动MapReduce作业，处理HDFS文件操作
@@ -116,11 +119,13 @@ public class WordCountDriver {
         if (success) {
             System.out.println("Job execution successful!");
             
-            // TODO: 显示处理结果和统计信息，并保存到个人目录
-            displayJobStatistics(job, processingTime, fs, outputPath, inputPath);
+            // 生成 words.txt 文件（合并 part-r-* 文件），耗时单独计入报告
+            long postProcessingStart = System.currentTimeMillis();
+            String mergeMode = mergeOutputFiles(fs, outputPath, conf);
+            long postProcessingTime = System.currentTimeMillis() - postProcessingStart;
             
-            // 生成 words.txt 文件（合并 part-r-* 文件）
-            mergeOutputFiles(fs, outputPath);
+            // TODO: 显示处理结果和统计信息，并保存到个人目录
+            displayJobStatistics(job, processingTime, postProcessingTime, mergeMode, fs, outputPath, inputPath);
             
         } else {
             System.err.println("Job execution failed!");
@@ -156,8 +161,8 @@ public class WordCountDriver {
     /**
      * 显示作业统计信息并保存到文件
      */
-    private static void displayJobStatistics(Job job, long processingTime, 
-                                           FileSystem fs, Path outputPath, Path inputPath) throws Exception {
+    private static void displayJobStatistics(Job job, long processingTime, long postProcessingTime,
+                                           String mergeMode, FileSystem fs, Path outputPath, Path inputPath) throws Exception {
         
         System.out.println("=== Job Execution Statistics ===");
         
@@ -181,16 +186,24 @@ public class WordCountDriver {
         
         // 2. 打印统计信息
         System.out.println("Processing time: " + processingTime + " ms");
+        System.out.println("Post-processing time: " + postProcessingTime + " ms");
         System.out.println("Input files: " + inputFileCount);
         System.out.println("Input records: " + inputRecords);
         System.out.println("Total words: " + totalWords);
         System.out.println("Unique words: " + outputRecords);
         
-        // 3. 按照要求保存 statistics.txt 文件
-        saveStatistics(fs, outputPath, processingTime, inputRecords, totalWords, outputRecords, inputFileCount);
+        // 3. 按照要求保存 statistics.txt 文件，并写出 JSON/CSV 格式的作业报告
+        JobReport report = JobReport.fromJob(job, processingTime);
+        report.putDetail("post_processing_time_ms", postProcessingTime);
+        if (mergeMode != null) {
+            report.putDetail("words_merge_mode", mergeMode);
+        }
+        System.out.println("Map tasks: " + report.getMapTaskCount() + ", Reduce tasks: " + report.getReduceTaskCount());
+        saveStatistics(fs, outputPath, report, processingTime, totalWords, outputRecords, inputFileCount);
+        report.write(fs, outputPath);
         
         System.out.println("\nResults saved to: " + outputPath);
-        System.out.println("Main result file: " + outputPath + "/part-r-00000");
+        System.out.println("Main result file: " + outputPath + "/words.txt");
         System.out.println("Statistics file: " + outputPath + "/statistics.txt");
     }
     
@@ -221,22 +234,19 @@ public class WordCountDriver {
     /**
      * 保存统计信息到文件
      */
-    private static void saveStatistics(FileSystem fs, Path outputPath, 
-                                     long processingTime, long inputRecords, 
-                                     long totalWords, long outputRecords, int inputFileCount) throws IOException {
+    private static void saveStatistics(FileSystem fs, Path outputPath, JobReport report,
+                                     long processingTime, long totalWords, long outputRecords,
+                                     int inputFileCount) throws IOException {
         
         Path statisticsPath = new Path(outputPath, "statistics.txt");
         
-        StringBuilder statistics = new StringBuilder();
-        statistics.append("input_files\t").append(inputFileCount).append("\n");
-        statistics.append("processing_time\t").append(processingTime).append("\n");
-        statistics.append("total_words\t").append(totalWords).append("\n");
-        statistics.append("unique_words\t").append(outputRecords).append("\n");
+        report.put("input_files", inputFileCount)
+              .put("processing_time", processingTime)
+              .put("total_words", totalWords)
+              .put("unique_words", outputRecords);
         
         // 写入统计信息文件
-        org.apache.hadoop.fs.FSDataOutputStream out = fs.create(statisticsPath);
-        out.writeBytes(statistics.toString());
-        out.close();
+        report.writeMetrics(fs, statisticsPath);
         
         System.out.println("Statistics saved to: " + statisticsPath);
     }
@@ -244,39 +254,30 @@ public class WordCountDriver {
     /**
      * 合并所有 part-r-* 文件为 words.txt
      * 输出格式：word\tcount（按字典序排序）
+     * 文件系统支持 concat 时直接拼接分区文件（不经过客户端复制），否则并发预读后按分区顺序写出
+     * @return 合并方式（见 PartFileMerger），没有分区文件时为 null
      */
-    private static void mergeOutputFiles(FileSystem fs, Path outputPath) throws IOException {
+    private static String mergeOutputFiles(FileSystem fs, Path outputPath, Configuration conf) throws IOException {
         System.out.println("=== Merging Output Files ===");
         
-        // 获取所有 part-r-* 文件
-        FileStatus[] partFiles = fs.globStatus(new Path(outputPath, "part-r-*"));
+        // 获取所有 part-r-* 文件（按分区号排序）
+        java.util.List<Path> partPaths = PartFileMerger.listPartFiles(fs, outputPath);
         
-        if (partFiles == null || partFiles.length == 0) {
+        if (partPaths.isEmpty()) {
             System.err.println("Warning: No part-r-* files found");
-            return;
+            return null;
         }
         
-        // 创建 words.txt 文件
-        Path wordsPath = new Path(outputPath, "words.txt");
-        org.apache.hadoop.fs.FSDataOutputStream wordsOut = fs.create(wordsPath);
+        for (Path partPath : partPaths) {
+            System.out.println("Merging file: " + partPath.getName());
+        }
         
+        // 创建 words.txt 文件
         // MapReduce 的输出已经按字典序排序，直接合并即可
-        for (FileStatus partFile : partFiles) {
-            System.out.println("Merging file: " + partFile.getPath().getName());
-            
-            // 读取 part 文件内容
-            org.apache.hadoop.fs.FSDataInputStream in = fs.open(partFile.getPath());
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            
-            while ((bytesRead = in.read(buffer)) > 0) {
-                wordsOut.write(buffer, 0, bytesRead);
-            }
-            
-            in.close();
-        }
+        Path wordsPath = new Path(outputPath, "words.txt");
+        String mode = PartFileMerger.merge(fs, partPaths, wordsPath, conf);
         
-        wordsOut.close();
-        System.out.println("words.txt file generated: " + wordsPath);
+        System.out.println("words.txt file generated (" + mode + "): " + wordsPath);
+        return mode;
     }
 }
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.bigdata.assignment.problem1;
 
 import java.io.IOException;
-import java.util.StringTokenizer;
 
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
 
+import com.bigdata.assignment.common.WordTokenizer;
+
 /**
  * 题目一：WordCount Mapper实现
  * 功能：读取输入文本，分割单词，输出(单词, 1)键值对
@@ -16,31 +17,18 @@ public class WordCountMapper extends Mapper<LongWritable, Text, Text, IntWritabl
     
     private final static IntWritable one = new IntWritable(1);
     private Text word = new Text();
+    private final WordTokenizer tokenizer = new WordTokenizer();
 
     @Override
     public void map(LongWritable key, Text value, Context context)
             throws IOException, InterruptedException {
         
-        // TODO: 实现单词分割和计数逻辑
-        // 1. 获取输入行并转换为小写
-        String line = value.toString().toLowerCase();
-        
-        // 2. 使用正则表达式清理文本，只保留字母和空格
-        line = line.replaceAll("[^a-zA-Z\\s]", " ");
-        
-        // 3. 按空格分割单词
-        StringTokenizer tokenizer = new StringTokenizer(line);
+        // 1. 直接在 UTF-8 字节上切分：转小写、只保留字母、过滤长度小于2的单词
+        tokenizer.reset(value);
         
-        // 4. 遍历每个单词
-        while (tokenizer.hasMoreTokens()) {
-            String token = tokenizer.nextToken().trim();
-            
-            // 5. 过滤空字符串和长度小于2的单词
-            if (!token.isEmpty() && token.length() >= 2) {
-                word.set(token);
-                // 6. 输出 (单词, 1) 键值对
-                context.write(word, one);
-            }
+        // 2. 遍历每个单词，输出 (单词, 1) 键值对
+        while (tokenizer.next(word)) {
+            context.write(word, one);
         }
     }
 }
\ No newline at end of file
@@ -1,76 +1,129 @@
 package com.bigdata.assignment.problem2;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.StringTokenizer;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
 
+import com.bigdata.assignment.common.ShuffleTypes;
+import com.bigdata.assignment.common.WordCountHashTable;
+import com.bigdata.assignment.common.WordTokenizer;
+
 /**
- * 优化版本的Mapper，在Map端进行预聚合以确保Combiner有足够的数据处理
+ * 优化版本的Mapper，在Map端进行预聚合（in-mapper combining）
+ *
+ * 单词字节存放在开放寻址的 WordCountHashTable 中，计数为基本类型 int，
+ * 不再为每个单词创建 String / Integer。只有当表中数据超过内存预算时才输出一次，
+ * 因此每个 split 的输出记录数接近该 split 的词汇量，而不是单词总数。
+ *
+ * 内存预算（字节）：
+ * - 优先使用 wordcount.inmapper.flush.bytes
+ * - 否则取 mapreduce.map.memory.mb × wordcount.inmapper.memory.fraction（默认 0.15）
  */
 public class CombinerOptimizedMapper extends Mapper<LongWritable, Text, Text, IntWritable> {
-    
-    private final static IntWritable count = new IntWritable();
+
+    /** 显式指定预聚合表的内存预算（字节） */
+    public static final String FLUSH_BYTES_KEY = "wordcount.inmapper.flush.bytes";
+    /** 未显式指定时，预算占 Map 容器内存的比例 */
+    public static final String MEMORY_FRACTION_KEY = "wordcount.inmapper.memory.fraction";
+    public static final float DEFAULT_MEMORY_FRACTION = 0.15f;
+    private static final long DEFAULT_MAP_MEMORY_MB = 1024L;
+
+    /** 计数器组：Map端预聚合统计 */
+    public static final String COUNTER_GROUP = "In-Mapper Combiner";
+    public static final String INPUT_WORDS_COUNTER = "Input Words";
+
+    private IntWritable count = new IntWritable();
     private Text word = new Text();
-    
-    // 使用内存中的HashMap进行Map端预聚合
-    private Map<String, Integer> localWordCount = new HashMap<>();
-    private static final int FLUSH_THRESHOLD = 1000; // 每1000个不同单词就输出一次
-    
+    private final WordTokenizer tokenizer = new WordTokenizer();
+
+    // 使用内存中的字节键计数表进行Map端预聚合
+    private final WordCountHashTable localWordCount = new WordCountHashTable();
+    private long flushThresholdBytes;
+
+    private long inputWords;
+    private long outputRecords;
+    private long flushes;
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        super.setup(context);
+        flushThresholdBytes = flushThresholdBytes(context.getConfiguration());
+        // 键值对象类型需与 Driver 选择的 Map 输出类型一致（Text/WordKey，IntWritable/VIntCount）
+        word = ShuffleTypes.newKey(context);
+        count = ShuffleTypes.newCount(context, 0);
+    }
+
+    /**
+     * 根据配置计算预聚合表的内存预算
+     */
+    static long flushThresholdBytes(Configuration conf) {
+        long explicitBytes = conf.getLong(FLUSH_BYTES_KEY, -1L);
+        if (explicitBytes > 0) {
+            return explicitBytes;
+        }
+        // Hadoop 3 中 mapreduce.map.memory.mb 默认为 -1（由堆大小推导），此时按 1024MB 估算
+        long mapMemoryMb = conf.getLong("mapreduce.map.memory.mb", -1L);
+        if (mapMemoryMb <= 0) {
+            mapMemoryMb = DEFAULT_MAP_MEMORY_MB;
+        }
+        float fraction = conf.getFloat(MEMORY_FRACTION_KEY, DEFAULT_MEMORY_FRACTION);
+        return (long) (mapMemoryMb * 1024L * 1024L * fraction);
+    }
+
     @Override
     public void map(LongWritable key, Text value, Context context)
             throws IOException, InterruptedException {
-        
-        // 获取输入行并转换为小写
-        String line = value.toString().toLowerCase();
-        
-        // 使用正则表达式清理文本，只保留字母和空格
-        line = line.replaceAll("[^a-zA-Z\\s]", " ");
-        
-        // 按空格分割单词
-        StringTokenizer tokenizer = new StringTokenizer(line);
-        
-        // 遍历每个单词
-        while (tokenizer.hasMoreTokens()) {
-            String token = tokenizer.nextToken().trim();
-            
-            // 过滤空字符串和长度小于2的单词
-            if (!token.isEmpty() && token.length() >= 2) {
-                // 进行Map端预聚合
-                localWordCount.put(token, localWordCount.getOrDefault(token, 0) + 1);
-                
-                // 当达到阈值时，输出当前累积的计数
-                if (localWordCount.size() >= FLUSH_THRESHOLD) {
-                    flushLocalCounts(context);
-                }
+
+        // 在 UTF-8 字节上直接切分（转小写、只保留字母、过滤长度小于2的单词）
+        tokenizer.reset(value);
+
+        // 遍历每个单词，直接以字节为键进行Map端预聚合
+        while (tokenizer.nextToken()) {
+            inputWords++;
+            boolean newKey = localWordCount.add(tokenizer.tokenBytes(), 0, tokenizer.tokenLength(), 1);
+
+            // 只有新增单词才会增加内存占用，此时检查是否超出预算
+            if (newKey && localWordCount.usedBytes() >= flushThresholdBytes) {
+                flushLocalCounts(context);
             }
         }
     }
-    
+
     @Override
     protected void cleanup(Context context) throws IOException, InterruptedException {
         // 在Map任务结束时输出剩余的计数
         flushLocalCounts(context);
+
+        context.getCounter(COUNTER_GROUP, INPUT_WORDS_COUNTER).increment(inputWords);
+        context.getCounter(COUNTER_GROUP, "Output Records").increment(outputRecords);
+        context.getCounter(COUNTER_GROUP, "Flushes").increment(flushes);
         super.cleanup(context);
     }
-    
+
     /**
      * 输出本地累积的单词计数
      */
     private void flushLocalCounts(Context context) throws IOException, InterruptedException {
-        for (Map.Entry<String, Integer> entry : localWordCount.entrySet()) {
-            word.set(entry.getKey());
-            count.set(entry.getValue());
+        int size = localWordCount.size();
+        if (size == 0) {
+            return;
+        }
+
+        byte[] keys = localWordCount.keyBytes();
+        for (int entry = 0; entry < size; entry++) {
+            word.set(keys, localWordCount.keyOffset(entry), localWordCount.keyLength(entry));
+            count.set(localWordCount.count(entry));
             context.write(word, count);
         }
+        outputRecords += size;
+        flushes++;
         localWordCount.clear();
-        
+
         // 强制触发进度更新，可能触发spill
         context.progress();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.bigdata.assignment.problem2;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.util.ReflectionUtils;
+
+/**
+ * 题目二：高频单词感知的分区器（处理数据倾斜）
+ * 功能：普通单词交给原分区器（字母分区或采样范围分区）处理；
+ * Driver 预先采样得到的高频单词（如 "the"、"and"）按记录轮转分散到多个 Reducer，
+ * 每个 Reducer 只得到该单词的部分和，最后由 Driver 合并（见 HotKeys）
+ *
+ * 配置参数：
+ * - wordcount.hotkeys：高频单词列表（逗号分隔）
+ * - wordcount.hotkeys.salt：每个高频单词分散到的 Reducer 数（默认为全部 Reducer）
+ * - wordcount.hotkeys.delegate.partitioner：普通单词使用的分区器（默认 AlphabetPartitioner）
+ */
+public class HotKeyPartitioner extends Partitioner<Text, IntWritable> implements Configurable {
+
+    public static final String DELEGATE_PARTITIONER_KEY = "wordcount.hotkeys.delegate.partitioner";
+
+    private Configuration conf;
+    private Partitioner<Text, IntWritable> delegate;
+    private final Set<Text> hotKeys = new HashSet<>();
+    private int salt;
+    private int rotation;
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        Class<?> delegateClass = conf.getClass(DELEGATE_PARTITIONER_KEY, AlphabetPartitioner.class, Partitioner.class);
+        // 配置中只能检查到 Partitioner，键值类型由 Driver 保证与本作业一致
+        @SuppressWarnings("unchecked")
+        Partitioner<Text, IntWritable> partitioner =
+            (Partitioner<Text, IntWritable>) ReflectionUtils.newInstance(delegateClass, conf);
+        delegate = partitioner;
+
+        hotKeys.clear();
+        for (String word : HotKeys.getHotKeys(conf)) {
+            hotKeys.add(new Text(word));
+        }
+        salt = conf.getInt(HotKeys.SALT_KEY, 0);
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public int getPartition(Text key, IntWritable value, int numPartitions) {
+        int partition = delegate.getPartition(key, value, numPartitions);
+        if (numPartitions == 1 || !hotKeys.contains(key)) {
+            return partition;
+        }
+
+        // 高频单词：从原分区开始，在 fanOut 个 Reducer 之间轮转
+        int fanOut = salt > 0 ? Math.min(salt, numPartitions) : numPartitions;
+        rotation = (rotation + 1) % fanOut;
+        return (partition + rotation) % numPartitions;
+    }
+}
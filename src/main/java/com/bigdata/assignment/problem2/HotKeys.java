@@ -0,0 +1,120 @@
+package com.bigdata.assignment.problem2;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+
+import com.bigdata.assignment.common.PartFilePrefetcher;
+
+/**
+ * 题目二：高频单词倾斜处理的公共逻辑
+ *
+ * 流程：
+ * 1. Driver 采样得到 topN 高频单词，通过 configure() 写入作业配置
+ * 2. HotKeyPartitioner 把高频单词的记录分散到多个 Reducer
+ * 3. Reducer 将高频单词的部分和写入名为 "hotkeys" 的独立输出（hotkeys-r-*），
+ *    part-r-* 中只保留普通单词，因此仍然保持全局有序
+ * 4. Driver 读取 hotkeys-r-* 汇总部分和，在生成 words.txt 时按字典序归并回去
+ */
+public final class HotKeys {
+
+    public static final String HOT_KEYS_KEY = "wordcount.hotkeys";
+    public static final String SALT_KEY = "wordcount.hotkeys.salt";
+    public static final String NAMED_OUTPUT = "hotkeys";
+
+    private HotKeys() {
+    }
+
+    /**
+     * 配置作业：记录高频单词、替换为 HotKeyPartitioner（原分区器作为委托）、注册 hotkeys 输出
+     */
+    public static void configure(Job job, Collection<String> hotKeys) throws ClassNotFoundException {
+        Configuration conf = job.getConfiguration();
+        conf.setStrings(HOT_KEYS_KEY, hotKeys.toArray(new String[hotKeys.size()]));
+        conf.setClass(HotKeyPartitioner.DELEGATE_PARTITIONER_KEY, job.getPartitionerClass(),
+            org.apache.hadoop.mapreduce.Partitioner.class);
+        job.setPartitionerClass(HotKeyPartitioner.class);
+        MultipleOutputs.addNamedOutput(job, NAMED_OUTPUT, TextOutputFormat.class, Text.class, IntWritable.class);
+    }
+
+    public static String[] getHotKeys(Configuration conf) {
+        String[] hotKeys = conf.getStrings(HOT_KEYS_KEY);
+        return hotKeys == null ? new String[0] : hotKeys;
+    }
+
+    /**
+     * 读取所有 hotkeys-r-* 文件，汇总每个高频单词的部分和
+     */
+    public static TreeMap<String, Long> readPartialSums(FileSystem fs, Path outputPath) throws IOException {
+        TreeMap<String, Long> sums = new TreeMap<>();
+        FileStatus[] files = fs.globStatus(new Path(outputPath, NAMED_OUTPUT + "-r-*"));
+        if (files == null) {
+            return sums;
+        }
+        for (FileStatus file : files) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(fs.open(file.getPath()), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab > 0) {
+                        String word = line.substring(0, tab);
+                        long count = Long.parseLong(line.substring(tab + 1));
+                        Long previous = sums.get(word);
+                        sums.put(word, previous == null ? count : previous + count);
+                    }
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * 把按顺序排列的分区文件（并发预读）与高频单词汇总结果按字典序归并，写入 out
+     * @return 写入的高频单词数
+     */
+    public static int mergeSorted(PartFilePrefetcher partFiles, TreeMap<String, Long> hotSums,
+                                  OutputStream out) throws IOException {
+        List<Map.Entry<String, Long>> pending = new ArrayList<>(hotSums.entrySet());
+        int next = 0;
+        for (int i = 0; i < partFiles.getFileCount(); i++) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(partFiles.open(i), StandardCharsets.UTF_8), 1 << 16)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    String word = tab >= 0 ? line.substring(0, tab) : line;
+                    while (next < pending.size() && pending.get(next).getKey().compareTo(word) < 0) {
+                        writeLine(out, pending.get(next++));
+                    }
+                    out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        while (next < pending.size()) {
+            writeLine(out, pending.get(next++));
+        }
+        return pending.size();
+    }
+
+    private static void writeLine(OutputStream out, Map.Entry<String, Long> entry) throws IOException {
+        out.write((entry.getKey() + "\t" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
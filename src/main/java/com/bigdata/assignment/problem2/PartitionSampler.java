@@ -0,0 +1,220 @@
+package com.bigdata.assignment.problem2;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.lib.input.TextInputFormat;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+
+import com.bigdata.assignment.common.WordTokenizer;
+
+/**
+ * 题目二：分区采样器（作业提交前在 Driver 中运行）
+ * 功能：读取部分输入 split，按单词前缀统计加权直方图（权重为单词出现次数，而非不同单词数），
+ * 计算使各分区负载均衡的分割点，并写入文件供 SampledRangePartitioner 加载；
+ * 同样的采样结果也用于找出高频单词，供 HotKeyPartitioner 分散处理
+ *
+ * 可调参数：
+ * - wordcount.sampler.fraction：采样的 split 比例（默认 0.1，至少采样 1 个 split）
+ * - wordcount.sampler.split.bytes：每个被采样 split 最多读取的字节数（默认 16MB）
+ * - wordcount.sampler.prefix.length：直方图使用的前缀长度（默认 3）
+ *
+ * 输入为空（没有 split 或没有采样到单词）时退回按首字母均分的分割点，4 个分区时与 AlphabetPartitioner 相同
+ */
+public class PartitionSampler {
+
+    public static final String FRACTION_KEY = "wordcount.sampler.fraction";
+    public static final String SPLIT_BYTES_KEY = "wordcount.sampler.split.bytes";
+    public static final String PREFIX_LENGTH_KEY = "wordcount.sampler.prefix.length";
+
+    public static final float DEFAULT_FRACTION = 0.1f;
+    public static final long DEFAULT_SPLIT_BYTES = 16L * 1024 * 1024;
+    public static final int DEFAULT_PREFIX_LENGTH = 3;
+
+    /** 没有采样数据时 4 个分区使用的分割点（A-F、G-N、O-S、T-Z） */
+    private static final String[] ALPHABET_SPLIT_POINTS = {"g", "o", "t"};
+
+    /**
+     * 分割点文件的临时路径（hadoop.tmp.dir 下，每个作业不同），作业结束后由调用方删除
+     */
+    public static Path tempSplitsPath(Configuration conf) {
+        return new Path(conf.get("hadoop.tmp.dir"), "wordcount-partition-splits-" + UUID.randomUUID() + ".txt");
+    }
+
+    /**
+     * 对作业输入进行采样，计算分割点并写入 splitsPath
+     * @return 分割点（numPartitions - 1 个或更少，严格递增）
+     */
+    public static List<String> writeSplitPoints(Job job, int numPartitions, Path splitsPath)
+            throws IOException, InterruptedException {
+        Configuration conf = job.getConfiguration();
+        int prefixLength = conf.getInt(PREFIX_LENGTH_KEY, DEFAULT_PREFIX_LENGTH);
+        Map<String, long[]> histogram = sample(job, prefixLength);
+
+        List<String> splitPoints;
+        if (histogram.isEmpty()) {
+            splitPoints = alphabetSplitPoints(numPartitions);
+            System.out.println("No words sampled, using alphabet split points");
+        } else {
+            splitPoints = computeSplitPoints(new TreeMap<String, long[]>(histogram), numPartitions);
+        }
+
+        FileSystem fs = splitsPath.getFileSystem(conf);
+        try (FSDataOutputStream out = fs.create(splitsPath, true)) {
+            for (String splitPoint : splitPoints) {
+                out.write(splitPoint.getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+            }
+        }
+        return splitPoints;
+    }
+
+    /**
+     * 对作业输入进行采样，找出出现次数最多的 topN 个单词（按次数降序）
+     */
+    public static List<String> findHeavyKeys(Job job, int topN) throws IOException, InterruptedException {
+        Map<String, long[]> histogram = sample(job, Integer.MAX_VALUE);
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(histogram.entrySet());
+        entries.sort((a, b) -> {
+            int cmp = Long.compare(b.getValue()[0], a.getValue()[0]);
+            return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+        });
+
+        List<String> heavyKeys = new ArrayList<>();
+        for (int i = 0; i < Math.min(topN, entries.size()); i++) {
+            heavyKeys.add(entries.get(i).getKey());
+        }
+        return heavyKeys;
+    }
+
+    /**
+     * 读取采样的 split，统计 前缀 → 出现次数（prefixLength 足够大时即为完整单词）
+     */
+    static Map<String, long[]> sample(Job job, int prefixLength) throws IOException, InterruptedException {
+        Configuration conf = job.getConfiguration();
+        float fraction = conf.getFloat(FRACTION_KEY, DEFAULT_FRACTION);
+        long maxBytesPerSplit = conf.getLong(SPLIT_BYTES_KEY, DEFAULT_SPLIT_BYTES);
+
+        TextInputFormat inputFormat = new TextInputFormat();
+        List<InputSplit> splits = inputFormat.getSplits(job);
+        if (splits.isEmpty()) {
+            System.out.println("=== Partition Sampling ===");
+            System.out.println("Input splits: 0, nothing to sample");
+            return new HashMap<>();
+        }
+        int sampleCount = Math.max(1, Math.min(splits.size(), Math.round(splits.size() * fraction)));
+        // 在所有 split 中均匀挑选，避免只采样到输入开头
+        double step = (double) splits.size() / sampleCount;
+
+        System.out.println("=== Partition Sampling ===");
+        System.out.println("Input splits: " + splits.size() + ", sampled: " + sampleCount
+            + ", max bytes per sampled split: " + maxBytesPerSplit);
+
+        Map<String, long[]> histogram = new HashMap<>();
+        WordTokenizer tokenizer = new WordTokenizer();
+        long sampledWords = 0;
+        TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID());
+
+        for (int i = 0; i < sampleCount; i++) {
+            InputSplit split = splits.get((int) (i * step));
+            long splitStart = ((FileSplit) split).getStart();
+            RecordReader<LongWritable, Text> reader = inputFormat.createRecordReader(split, context);
+            try {
+                reader.initialize(split, context);
+                while (reader.nextKeyValue()) {
+                    if (reader.getCurrentKey().get() - splitStart > maxBytesPerSplit) {
+                        break;
+                    }
+                    tokenizer.reset(reader.getCurrentValue());
+                    while (tokenizer.nextToken()) {
+                        int length = Math.min(prefixLength, tokenizer.tokenLength());
+                        String prefix = new String(tokenizer.tokenBytes(), 0, length, StandardCharsets.UTF_8);
+                        long[] weight = histogram.get(prefix);
+                        if (weight == null) {
+                            weight = new long[1];
+                            histogram.put(prefix, weight);
+                        }
+                        weight[0]++;
+                        sampledWords++;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        System.out.println("Sampled words: " + sampledWords + ", distinct prefixes: " + histogram.size());
+        return histogram;
+    }
+
+    /**
+     * 把 a-z 按首字母均分为 numPartitions 段（最多 26 段），4 段时与 AlphabetPartitioner 相同
+     */
+    static List<String> alphabetSplitPoints(int numPartitions) {
+        List<String> splitPoints = new ArrayList<>();
+        if (numPartitions == ALPHABET_SPLIT_POINTS.length + 1) {
+            for (String splitPoint : ALPHABET_SPLIT_POINTS) {
+                splitPoints.add(splitPoint);
+            }
+            return splitPoints;
+        }
+        int segments = Math.min(numPartitions, 26);
+        for (int i = 1; i < segments; i++) {
+            splitPoints.add(String.valueOf((char) ('a' + i * 26 / segments)));
+        }
+        return splitPoints;
+    }
+
+    /**
+     * 按累计权重切分有序前缀直方图
+     * 每个分割点都是某个前缀本身：该前缀及之后的单词进入下一个分区，
+     * 因此同一前缀的单词总在同一分区内，且分区之间保持全局字典序
+     */
+    static List<String> computeSplitPoints(TreeMap<String, long[]> histogram, int numPartitions) {
+        List<String> splitPoints = new ArrayList<>();
+        if (numPartitions <= 1 || histogram.isEmpty()) {
+            return splitPoints;
+        }
+
+        long total = 0;
+        for (long[] weight : histogram.values()) {
+            total += weight[0];
+        }
+
+        double target = (double) total / numPartitions;
+        int boundary = 1;
+        long accumulated = 0;
+        for (Map.Entry<String, long[]> entry : histogram.entrySet()) {
+            long weight = entry.getValue()[0];
+            // 当前前缀放到下一个分区更接近目标时，在它之前切分
+            if (accumulated > 0 && splitPoints.size() < numPartitions - 1
+                    && accumulated + weight / 2.0 >= target * boundary) {
+                splitPoints.add(entry.getKey());
+                boundary++;
+                while (target * boundary <= accumulated) {
+                    boundary++;
+                }
+            }
+            accumulated += weight;
+        }
+        return splitPoints;
+    }
+}
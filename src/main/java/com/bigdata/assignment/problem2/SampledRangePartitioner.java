@@ -0,0 +1,100 @@
+package com.bigdata.assignment.problem2;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.mapreduce.Partitioner;
+
+/**
+ * 题目二：基于采样分割点的范围分区器
+ * 功能：加载 PartitionSampler 生成的分割点文件，按字节字典序二分查找单词所属分区
+ *
+ * 分区规则：
+ * - 分割点 s[0] < s[1] < ... < s[n-2]
+ * - 单词 &lt; s[0] → 分区 0；s[i-1] &lt;= 单词 &lt; s[i] → 分区 i；单词 &gt;= s[n-2] → 分区 n-1
+ * - 比较方式与 Text 的排序方式一致，因此各 part-r-* 文件拼接后仍是全局有序的
+ *
+ * 适用于任意 numPartitions，分割点数量少于 numPartitions - 1 时，末尾分区为空
+ */
+public class SampledRangePartitioner extends Partitioner<Text, IntWritable> implements Configurable {
+
+    /** 分割点文件路径（每行一个分割点） */
+    public static final String SPLITS_PATH_KEY = "wordcount.partitioner.splits.path";
+
+    private Configuration conf;
+    private byte[][] splitPoints = new byte[0][];
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        String splitsPath = conf.get(SPLITS_PATH_KEY);
+        if (splitsPath == null) {
+            throw new IllegalArgumentException("Partition split points not configured: " + SPLITS_PATH_KEY);
+        }
+        try {
+            splitPoints = readSplitPoints(new Path(splitsPath), conf);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read partition split points from " + splitsPath, e);
+        }
+
+        int reduceTasks = conf.getInt("mapreduce.job.reduces", 1);
+        if (splitPoints.length > reduceTasks - 1) {
+            throw new IllegalArgumentException("Split points file has " + splitPoints.length
+                + " entries, more than reduce tasks - 1 (" + (reduceTasks - 1) + ")");
+        }
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public int getPartition(Text key, IntWritable value, int numPartitions) {
+        byte[] bytes = key.getBytes();
+        int length = key.getLength();
+
+        // 二分查找：返回 <= key 的分割点个数
+        int low = 0;
+        int high = splitPoints.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            byte[] splitPoint = splitPoints[mid];
+            if (WritableComparator.compareBytes(splitPoint, 0, splitPoint.length, bytes, 0, length) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.min(low, numPartitions - 1);
+    }
+
+    /**
+     * 读取分割点文件
+     */
+    static byte[][] readSplitPoints(Path path, Configuration conf) throws IOException {
+        FileSystem fs = path.getFileSystem(conf);
+        List<byte[]> points = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(fs.open(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    points.add(line.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return points.toArray(new byte[points.size()][]);
+    }
+}
@@ -6,6 +6,9 @@ import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Reducer;
 
+import com.bigdata.assignment.common.BatchedCounters;
+import com.bigdata.assignment.common.ShuffleTypes;
+
 /**
  * 题目二：WordCount Combiner实现
  * 功能：在Map端进行本地聚合，减少Shuffle阶段的网络传输数据量
@@ -15,9 +18,23 @@ public class WordCountCombiner extends Reducer<Text, IntWritable, Text, IntWrita
     private IntWritable result = new IntWritable();
     private static boolean initialized = false;
     
+    // 计数器在本地累加，cleanup 时统一发布（每次 Combiner 运行结束都会调用 cleanup）
+    private final BatchedCounters counters = new BatchedCounters();
+    private final int combinerInvoked = counters.add("Combiner Status", "Combiner Invoked");
+    private final int combinerInputRecords = counters.add("Combiner Status", "Combiner Input Records");
+    private final int effectiveCombinations = counters.add("Combiner Status", "Effective Combinations");
+    private final int recordsReduced = counters.add("Combiner Status", "Records Reduced");
+    private final int combinerOutputRecords = counters.add("Combiner Status", "Combiner Output Records");
+    private final int highFrequencyWords = counters.add("Word Frequency", "High Frequency Words (>=100)");
+    private final int mediumFrequencyWords = counters.add("Word Frequency", "Medium Frequency Words (10-99)");
+    private final int lowFrequencyWords = counters.add("Word Frequency", "Low Frequency Words (1-9)");
+    
     @Override
     protected void setup(Context context) throws IOException, InterruptedException {
         super.setup(context);
+        // Combiner 的输出类型必须与 Map 输出值类型一致（IntWritable/VIntCount）
+        result = ShuffleTypes.newCount(context, 0);
+        counters.setup(context);
         // setup 保持轻量：只使用计数器记录初始化（避免大量 stdout）
         if (!initialized) {
             context.getCounter("Combiner Status", "Combiner Setup Called").increment(1);
@@ -30,7 +47,7 @@ public class WordCountCombiner extends Reducer<Text, IntWritable, Text, IntWrita
             throws IOException, InterruptedException {
         
         // 增加Combiner执行标记
-        context.getCounter("Combiner Status", "Combiner Invoked").increment(1);
+        counters.increment(combinerInvoked);
         
         // 避免频繁打印到 stdout，会造成日志泛滥并影响性能/可读性。
         // 通过自定义计数器来监控 Combiner 的调用次数和有效合并情况。
@@ -44,14 +61,14 @@ public class WordCountCombiner extends Reducer<Text, IntWritable, Text, IntWrita
         for (IntWritable value : values) {
             sum += value.get();
             inputCount++;
-            // 统计Combiner输入记录数
-            context.getCounter("Combiner Status", "Combiner Input Records").increment(1);
         }
+        // 统计Combiner输入记录数
+        counters.increment(combinerInputRecords, inputCount);
         
         // 只有当输入记录数大于1时才说明Combiner真正起作用
         if (inputCount > 1) {
-            context.getCounter("Combiner Status", "Effective Combinations").increment(1);
-            context.getCounter("Combiner Status", "Records Reduced").increment(inputCount - 1);
+            counters.increment(effectiveCombinations);
+            counters.increment(recordsReduced, inputCount - 1);
             
             // 若需要查看少量示例，可在调试时临时开启打印，或直接查看 container 日志。
         }
@@ -63,15 +80,22 @@ public class WordCountCombiner extends Reducer<Text, IntWritable, Text, IntWrita
         context.write(key, result);
         
         // 5. 统计Combiner输出记录数
-        context.getCounter("Combiner Status", "Combiner Output Records").increment(1);
+        counters.increment(combinerOutputRecords);
         
         // 记录单词频率分布
         if (sum >= 100) {
-            context.getCounter("Word Frequency", "High Frequency Words (>=100)").increment(1);
+            counters.increment(highFrequencyWords);
         } else if (sum >= 10) {
-            context.getCounter("Word Frequency", "Medium Frequency Words (10-99)").increment(1);
+            counters.increment(mediumFrequencyWords);
         } else {
-            context.getCounter("Word Frequency", "Low Frequency Words (1-9)").increment(1);
+            counters.increment(lowFrequencyWords);
         }
+        counters.tick(context);
+    }
+
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        counters.flush(context);
+        super.cleanup(context);
     }
 }
\ No newline at end of file
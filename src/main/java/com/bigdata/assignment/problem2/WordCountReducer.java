@@ -6,6 +6,8 @@ import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Reducer;
 
+import com.bigdata.assignment.common.PartitionMetrics;
+
 /**
  * 题目二：WordCount Reducer实现
  * 功能：接收来自Combiner的局部计数，进行最终聚合
@@ -13,6 +15,15 @@ import org.apache.hadoop.mapreduce.Reducer;
 public class WordCountReducer extends Reducer<Text, IntWritable, Text, IntWritable> {
     
     private IntWritable result = new IntWritable();
+    
+    // 分区指标按本任务的实际分区号统计，cleanup 时统一发布
+    private final PartitionMetrics partitionMetrics = new PartitionMetrics();
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        super.setup(context);
+        partitionMetrics.setup(context);
+    }
 
     @Override
     public void reduce(Text key, Iterable<IntWritable> values, Context context)
@@ -20,10 +31,12 @@ public class WordCountReducer extends Reducer<Text, IntWritable, Text, IntWritab
         
         // 1. 初始化计数器为 0
         int sum = 0;
+        int valueCount = 0;
         
         // 2. 遍历来自 Combiner 的局部计数，累加求和
         for (IntWritable value : values) {
             sum += value.get();
+            valueCount++;
         }
         
         // 3. 将累加结果写入 result 变量
@@ -32,31 +45,13 @@ public class WordCountReducer extends Reducer<Text, IntWritable, Text, IntWritab
         // 4. 输出最终的 (单词, 总计数) 结果
         context.write(key, result);
         
-        // 5. 统计各分区的记录数
-        int partitionId = getPartitionId(key.toString());
-        context.getCounter("Partition Counters", "Partition " + partitionId + " Records").increment(1);
+        // 5. 统计本分区的记录数、输入值个数和字节数
+        partitionMetrics.record(context, key, valueCount);
     }
     
-    /**
-     * 根据单词确定分区ID（与AlphabetPartitioner逻辑一致）
-     */
-    private int getPartitionId(String word) {
-        if (word == null || word.isEmpty()) {
-            return 0;
-        }
-        
-        char firstChar = Character.toUpperCase(word.charAt(0));
-        
-        if (firstChar >= 'A' && firstChar <= 'F') {
-            return 0;
-        } else if (firstChar >= 'G' && firstChar <= 'N') {
-            return 1;
-        } else if (firstChar >= 'O' && firstChar <= 'S') {
-            return 2;
-        } else if (firstChar >= 'T' && firstChar <= 'Z') {
-            return 3;
-        } else {
-            return 0;
-        }
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        partitionMetrics.cleanup(context);
+        super.cleanup(context);
     }
 }
\ No newline at end of file
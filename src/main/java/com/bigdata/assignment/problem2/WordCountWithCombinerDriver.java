@@ -13,6 +13,14 @@ import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import com.bigdata.assignment.common.JobReport;
+import com.bigdata.assignment.common.PartFileMerger;
+import com.bigdata.assignment.common.PartFilePrefetcher;
+import com.bigdata.assignment.common.PartitionMetrics;
+import com.bigdata.assignment.common.ShuffleTypes;
+import com.bigdata.assignment.common.WordCountDictionary;
 
 /**
  * 题目二：带Combiner和Partitioner的WordCount Driver
@@ -25,16 +33,55 @@ public class WordCountWithCombinerDriver {
         // 调试确认：打印类名
         System.err.println("=== 执行类: WordCountWithCombinerDriver ===");
         
+        // TODO: 创建 Configuration 和 Job 对象
+        Configuration conf = new Configuration();
+        
+        // 支持 -D key=value 形式的通用参数（如 -D wordcount.sampler.fraction=0.2）
+        args = new GenericOptionsParser(conf, args).getRemainingArgs();
+        
         // 检查命令行参数
-        if (args.length != 2) {
-            System.err.println("Error: Got " + args.length + " parameters, need 2");
-            System.err.println("Usage: WordCountWithCombinerDriver <input> <output>");
-            System.err.println("Example: WordCountWithCombinerDriver /user/xxx/input /user/xxx/output");
+        if (args.length < 2) {
+            System.err.println("Error: Got " + args.length + " parameters, need at least 2");
+            printUsage();
             System.exit(-1);
         }
         
-        // TODO: 创建 Configuration 和 Job 对象
-        Configuration conf = new Configuration();
+        // 可选模式参数
+        boolean inMapperCombining = false;
+        boolean sampledPartitioning = false;
+        int numReduceTasks = 4;
+        int hotKeyCount = 0;
+        boolean rawKey = false;
+        boolean vintCounts = false;
+        String outputFormat = "text";
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            if (option.equals("inmapper")) {
+                inMapperCombining = true;
+            } else if (option.equals("sampled") || option.startsWith("sampled:")) {
+                sampledPartitioning = true;
+                if (option.startsWith("sampled:")) {
+                    numReduceTasks = parsePositive(option, "sampled:");
+                }
+            } else if (option.equals("rawkey")) {
+                rawKey = true;
+            } else if (option.equals("vint")) {
+                vintCounts = true;
+            } else if (option.equals("hotkeys") || option.startsWith("hotkeys:")) {
+                hotKeyCount = option.startsWith("hotkeys:") ? parsePositive(option, "hotkeys:") : 20;
+            } else if (option.startsWith("format:")) {
+                outputFormat = option.substring("format:".length());
+                if (!outputFormat.equals("text") && !outputFormat.equals("binary") && !outputFormat.equals("both")) {
+                    System.err.println("Error: Unknown output format: " + outputFormat);
+                    printUsage();
+                    System.exit(-1);
+                }
+            } else {
+                System.err.println("Error: Unknown option: " + args[i]);
+                printUsage();
+                System.exit(-1);
+            }
+        }
         
     // 优化的Combiner配置，确保Combiner被充分利用
     System.out.println("=== Configuring Combiner Parameters ===");
@@ -56,19 +103,28 @@ public class WordCountWithCombinerDriver {
         job.setJarByClass(WordCountWithCombinerDriver.class);
         
         // 2. 设置 Mapper、Combiner 和 Reducer 类
-        job.setMapperClass(WordCountMapper.class);
+        if (inMapperCombining) {
+            job.setMapperClass(CombinerOptimizedMapper.class);
+        } else {
+            job.setMapperClass(WordCountMapper.class);
+        }
         job.setCombinerClass(WordCountCombiner.class);
         job.setReducerClass(WordCountWithCombinerReducer.class);
         
-        // 3. 设置 Partitioner 类
-        job.setPartitionerClass(AlphabetPartitioner.class);
+        // 3. 设置 Partitioner 类（采样分区的分割点在设置输入路径后计算）
+        if (sampledPartitioning) {
+            job.setPartitionerClass(SampledRangePartitioner.class);
+        } else {
+            job.setPartitionerClass(AlphabetPartitioner.class);
+        }
         
-        // 4. 设置输出键值对类型
+        // 4. 设置输出键值对类型（Map 输出可选用 memcmp 键 / 变长计数）
         job.setOutputKeyClass(Text.class);
         job.setOutputValueClass(IntWritable.class);
+        ShuffleTypes.configure(job, rawKey, vintCounts);
         
-        // 5. 设置 Reduce 任务数量为 4（对应 4 个分区）
-        job.setNumReduceTasks(4);
+        // 5. 设置 Reduce 任务数量：字母分区固定为 4，采样分区可指定任意数量
+        job.setNumReduceTasks(numReduceTasks);
         
         // TODO: 实现 HDFS 操作
         FileSystem fs = FileSystem.get(URI.create(args[0]), conf);
@@ -110,6 +166,28 @@ public class WordCountWithCombinerDriver {
         // 2. 使用 FileOutputFormat.setOutputPath()
         FileOutputFormat.setOutputPath(job, outputPath);
         
+        // 采样找出高频单词，分散到多个 Reducer 处理
+        if (hotKeyCount > 0) {
+            java.util.List<String> hotKeys = PartitionSampler.findHeavyKeys(job, hotKeyCount);
+            HotKeys.configure(job, hotKeys);
+            System.out.println("Hot keys (salted across reducers): " + hotKeys);
+        }
+        
+        // 采样输入并生成分区分割点文件（临时文件，作业结束后删除）
+        Path splitsPath = null;
+        if (sampledPartitioning) {
+            splitsPath = fs.makeQualified(PartitionSampler.tempSplitsPath(conf));
+            java.util.List<String> splitPoints;
+            try {
+                splitPoints = PartitionSampler.writeSplitPoints(job, numReduceTasks, splitsPath);
+            } catch (Exception e) {
+                fs.delete(splitsPath, false);
+                throw e;
+            }
+            job.getConfiguration().set(SampledRangePartitioner.SPLITS_PATH_KEY, splitsPath.toString());
+            System.out.println("Partition split points: " + splitPoints);
+        }
+        
         // 确认Combiner配置
         System.out.println("=== Job Configuration Confirmation ===");
         System.out.println("Mapper class: " + job.getMapperClass().getSimpleName());
@@ -117,6 +195,12 @@ public class WordCountWithCombinerDriver {
         System.out.println("Reducer class: " + job.getReducerClass().getSimpleName());
         System.out.println("Partitioner class: " + job.getPartitionerClass().getSimpleName());
         System.out.println("Reduce tasks: " + job.getNumReduceTasks());
+        System.out.println("Map output key/value: " + job.getMapOutputKeyClass().getSimpleName()
+            + " / " + job.getMapOutputValueClass().getSimpleName());
+        if (inMapperCombining) {
+            System.out.println("In-mapper combining budget: "
+                + CombinerOptimizedMapper.flushThresholdBytes(job.getConfiguration()) + " bytes");
+        }
         System.out.println("=====================================");
         
         // 记录开始时间
@@ -124,7 +208,16 @@ public class WordCountWithCombinerDriver {
         
         // TODO: 提交作业并等待完成
         // 使用 job.waitForCompletion(true)
-        boolean success = job.waitForCompletion(true);
+        boolean success = false;
+        try {
+            success = job.waitForCompletion(true);
+        } finally {
+            // 分割点文件随结果一起保存，便于分析分区负载；作业失败或中断时删除
+            if (splitsPath != null
+                    && !(success && fs.rename(splitsPath, new Path(outputPath, "partition-splits.txt")))) {
+                fs.delete(splitsPath, false);
+            }
+        }
         
         long endTime = System.currentTimeMillis();
         
@@ -145,6 +238,11 @@ public class WordCountWithCombinerDriver {
             long reduceOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "REDUCE_OUTPUT_RECORDS").getValue();
             long combineInputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "COMBINE_INPUT_RECORDS").getValue();
             long combineOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "COMBINE_OUTPUT_RECORDS").getValue();
+            long totalWords = getTotalWords(counters);
+            
+            // 高频单词的部分和不计入 REDUCE_OUTPUT_RECORDS，需要单独汇总
+            java.util.TreeMap<String, Long> hotKeySums = HotKeys.readPartialSums(fs, outputPath);
+            long uniqueWords = reduceOutputRecords + hotKeySums.size();
             
             // 获取自定义Combiner统计信息
             long combinerInvoked = counters.findCounter("Combiner Status", "Combiner Invoked").getValue();
@@ -155,8 +253,22 @@ public class WordCountWithCombinerDriver {
             
             System.out.println("Input files: " + fileCount);
             System.out.println("Input records: " + mapInputRecords);
-            System.out.println("Total words: " + mapOutputRecords);
-            System.out.println("Unique words: " + reduceOutputRecords);
+            System.out.println("Total words: " + totalWords);
+            System.out.println("Unique words: " + uniqueWords);
+            if (!hotKeySums.isEmpty()) {
+                System.out.println("Hot keys merged from salted partial sums: " + hotKeySums.size());
+            }
+            System.out.println("Map output bytes: "
+                + counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_BYTES").getValue());
+            System.out.println("Map output materialized bytes: "
+                + counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_MATERIALIZED_BYTES").getValue());
+            System.out.println("CPU time: "
+                + counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "CPU_MILLISECONDS").getValue() + " ms");
+            if (inMapperCombining) {
+                System.out.println("Map output records (after in-mapper combining): " + mapOutputRecords);
+                System.out.println("In-mapper flushes: "
+                    + counters.findCounter(CombinerOptimizedMapper.COUNTER_GROUP, "Flushes").getValue());
+            }
             
             System.out.println("\n=== Combiner Execution Statistics ===");
             System.out.println("System stats - Combine input records: " + combineInputRecords);
@@ -169,8 +281,8 @@ public class WordCountWithCombinerDriver {
             
             // 输出分区统计
             System.out.println("=== Partition Statistics ===");
-            for (int i = 0; i < 4; i++) {
-                long partitionRecords = counters.findCounter("Partition Counters", "Partition " + i + " Records").getValue();
+            for (int i = 0; i < job.getNumReduceTasks(); i++) {
+                long partitionRecords = PartitionMetrics.getRecords(counters, i);
                 System.out.println("Partition " + i + " records: " + partitionRecords);
             }
             
@@ -194,12 +306,14 @@ public class WordCountWithCombinerDriver {
             
             System.out.println("\nResults saved to: " + args[1]);
             System.out.println("Main result files:");
-            for (int i = 0; i < 4; i++) {
-                System.out.println("  Partition " + i + ": " + args[1] + "/part-r-0000" + i);
+            for (Path partFile : PartFileMerger.listPartFiles(fs, outputPath)) {
+                System.out.println("  Partition " + PartFileMerger.partition(partFile) + ": " + args[1] + "/" + partFile.getName());
             }
             
-            // 生成 words.txt 和 statistics.txt
-            generateOutputFiles(fs, outputPath, counters, endTime - startTime, fileCount);
+            // 生成 words.txt、statistics.txt 和 JSON/CSV 作业报告
+            JobReport report = JobReport.fromJob(job, endTime - startTime);
+            generateOutputFiles(fs, conf, outputPath, report, endTime - startTime, fileCount, job.getNumReduceTasks(),
+                hotKeySums, outputFormat);
             
         } else {
             System.err.println("Job execution failed!");
@@ -208,61 +322,123 @@ public class WordCountWithCombinerDriver {
     }
     
     /**
-     * 生成 words.txt 和 statistics.txt 文件
+     * 解析 prefix 之后的正整数，格式错误或不是正数时打印用法并退出
      */
-    private static void generateOutputFiles(FileSystem fs, Path outputPath, Counters counters, 
-                                           long processingTime, int fileCount) throws IOException {
+    private static int parsePositive(String option, String prefix) {
+        String value = option.substring(prefix.length());
+        int number = -1;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            // 在下面统一报告
+        }
+        if (number < 1) {
+            System.err.println("Error: " + prefix + " must be followed by a positive integer: " + option);
+            printUsage();
+            System.exit(-1);
+        }
+        return number;
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage: WordCountWithCombinerDriver [-D key=value ...] <input> <output> [inmapper] [sampled[:N]] [hotkeys[:K]] [rawkey] [vint] [format:text|binary|both]");
+        System.err.println("Example: WordCountWithCombinerDriver /user/xxx/input /user/xxx/output");
+        System.err.println("  inmapper:    使用 CombinerOptimizedMapper 在Map端按内存预算预聚合");
+        System.err.println("  sampled[:N]: 使用采样生成的分割点进行范围分区，N 为分区数（默认 4）");
+        System.err.println("  hotkeys[:K]: 采样找出 K 个高频单词（默认 20）分散到多个 Reducer，最后在 Driver 中合并");
+        System.err.println("  rawkey:      Map 输出键使用 WordKey（序列化字节直接 memcmp 比较）");
+        System.err.println("  vint:        Map 输出计数使用变长整数 VIntCount");
+        System.err.println("  format:F:    结果格式，text 为 words.txt（默认），binary 为带索引的二进制字典 words.dict，both 为两者");
+    }
+    
+    /**
+     * 生成 words.txt（或 words.dict）和 statistics.txt 文件
+     */
+    private static void generateOutputFiles(FileSystem fs, Configuration conf, Path outputPath, JobReport report, 
+                                           long processingTime, int fileCount, int numReduceTasks,
+                                           java.util.TreeMap<String, Long> hotKeySums,
+                                           String outputFormat) throws IOException {
         System.out.println("\n=== Generating Output Files ===");
+        long postProcessingStart = System.currentTimeMillis();
         
-        // 1. 合并所有 part-r-* 文件为 words.txt
-        Path wordsPath = new Path(outputPath, "words.txt");
-        org.apache.hadoop.fs.FSDataOutputStream wordsOut = fs.create(wordsPath);
+        // 按分区号列出分区文件，不依赖 Reducer 数和文件名格式（压缩输出带扩展名）
+        java.util.List<Path> partFiles = PartFileMerger.listPartFiles(fs, outputPath);
         
-        // 按顺序合并 4 个分区文件
-        for (int i = 0; i < 4; i++) {
-            Path partFile = new Path(outputPath, String.format("part-r-0000%d", i));
-            if (fs.exists(partFile)) {
+        // 1. 二进制字典：各分区文件有序，多路归并后得到全局有序的字典
+        if (!outputFormat.equals("text")) {
+            Path dictPath = new Path(outputPath, WordCountDictionary.FILE_NAME);
+            long dictWords = WordCountDictionary.writeMerged(fs, partFiles, hotKeySums, dictPath);
+            long dictBytes = fs.getFileStatus(dictPath).getLen();
+            report.putDetail("dictionary_bytes", dictBytes);
+            System.out.println(WordCountDictionary.FILE_NAME + " file generated: " + dictWords + " words, "
+                + dictBytes + " bytes");
+        }
+        if (outputFormat.equals("binary")) {
+            // 不生成文本结果
+        } else if (!hotKeySums.isEmpty()) {
+            // 高频单词的汇总结果按字典序归并到各分区的有序结果中
+            System.out.println("Merging " + partFiles.size() + " partition files with "
+                + hotKeySums.size() + " hot keys");
+            try (PartFilePrefetcher parts = new PartFilePrefetcher(fs, partFiles, conf);
+                 org.apache.hadoop.fs.FSDataOutputStream wordsOut = fs.create(new Path(outputPath, "words.txt"))) {
+                HotKeys.mergeSorted(parts, hotKeySums, wordsOut);
+            }
+            System.out.println("words.txt file generated");
+        } else {
+            // 2. 按分区顺序合并所有分区文件为 words.txt
+            // 支持 concat 的文件系统上直接拼接分区文件，否则并发预读后按分区顺序写出
+            for (Path partFile : partFiles) {
                 System.out.println("Merging partition file: " + partFile.getName());
-                org.apache.hadoop.fs.FSDataInputStream in = fs.open(partFile);
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = in.read(buffer)) > 0) {
-                    wordsOut.write(buffer, 0, bytesRead);
-                }
-                in.close();
             }
+            String mergeMode = PartFileMerger.merge(fs, partFiles, new Path(outputPath, "words.txt"), conf);
+            report.putDetail("words_merge_mode", mergeMode);
+            System.out.println("words.txt file generated (" + mergeMode + ")");
         }
-        wordsOut.close();
-        System.out.println("words.txt file generated");
+        long postProcessingTime = System.currentTimeMillis() - postProcessingStart;
+        System.out.println("Post-processing time: " + postProcessingTime + " ms");
+        report.putDetail("post_processing_time_ms", postProcessingTime);
         
-        // 2. 生成 statistics.txt
+        // 3. 生成 statistics.txt
         Path statisticsPath = new Path(outputPath, "statistics.txt");
-        org.apache.hadoop.fs.FSDataOutputStream statsOut = fs.create(statisticsPath);
         
         // 获取所有需要的统计数据
-        long mapOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_RECORDS").getValue();
+        Counters counters = report.getCounters();
+        long totalWords = getTotalWords(counters);
         long reduceOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "REDUCE_OUTPUT_RECORDS").getValue();
         long combineInputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "COMBINE_INPUT_RECORDS").getValue();
         long combineOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "COMBINE_OUTPUT_RECORDS").getValue();
         
         // 构建统计信息
-        StringBuilder stats = new StringBuilder();
-        stats.append("input_files\t").append(fileCount).append("\n");
-        stats.append("processing_time\t").append(processingTime).append("\n");
-        stats.append("total_words\t").append(mapOutputRecords).append("\n");
-        stats.append("unique_words\t").append(reduceOutputRecords).append("\n");
-        stats.append("combiner_input_records\t").append(combineInputRecords).append("\n");
-        stats.append("combiner_output_records\t").append(combineOutputRecords).append("\n");
-        
-        // 添加分区统计
-        for (int i = 0; i < 4; i++) {
-            long partitionRecords = counters.findCounter("Partition Counters", "Partition " + i + " Records").getValue();
-            stats.append(String.format("partition_%d_records\t%d\n", i, partitionRecords));
+        report.put("input_files", fileCount)
+              .put("processing_time", processingTime)
+              .put("total_words", totalWords)
+              .put("unique_words", reduceOutputRecords + hotKeySums.size())
+              .put("combiner_input_records", combineInputRecords)
+              .put("combiner_output_records", combineOutputRecords);
+        
+        // 添加分区统计（Reducer 按实际分区号记录），直方图和各分区字节数、耗时写入 JSON/CSV 报告
+        for (int i = 0; i < numReduceTasks; i++) {
+            long partitionRecords = PartitionMetrics.getRecords(counters, i);
+            report.put(String.format("partition_%d_records", i), partitionRecords);
         }
+        PartitionMetrics.addTo(report, numReduceTasks);
         
-        statsOut.writeBytes(stats.toString());
-        statsOut.close();
+        report.writeMetrics(fs, statisticsPath);
+        report.write(fs, outputPath);
         System.out.println("statistics.txt file generated");
         System.out.println("=====================================");
     }
+    
+    /**
+     * 获取单词总数
+     * 启用 Map 端预聚合时 MAP_OUTPUT_RECORDS 只是预聚合后的记录数，需改用 Mapper 自己统计的单词数
+     */
+    private static long getTotalWords(Counters counters) {
+        long inMapperWords = counters.findCounter(CombinerOptimizedMapper.COUNTER_GROUP,
+            CombinerOptimizedMapper.INPUT_WORDS_COUNTER).getValue();
+        if (inMapperWords > 0) {
+            return inMapperWords;
+        }
+        return counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_RECORDS").getValue();
+    }
 }
@@ -1,10 +1,15 @@
 package com.bigdata.assignment.problem2;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+
+import com.bigdata.assignment.common.PartitionMetrics;
 
 /**
  * 题目二：WordCount Reducer实现
@@ -13,6 +18,25 @@ import org.apache.hadoop.mapreduce.Reducer;
 public class WordCountWithCombinerReducer extends Reducer<Text, IntWritable, Text, IntWritable> {
     
     private IntWritable result = new IntWritable();
+    
+    // 高频单词被 HotKeyPartitioner 分散到多个 Reducer，这里只得到部分和，单独输出供 Driver 合并
+    private final Set<Text> hotKeys = new HashSet<>();
+    private MultipleOutputs<Text, IntWritable> hotKeyOutput;
+    
+    // 分区指标按本任务的实际分区号统计（与 Partitioner 的规则无关），cleanup 时统一发布
+    private final PartitionMetrics partitionMetrics = new PartitionMetrics();
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        super.setup(context);
+        partitionMetrics.setup(context);
+        for (String word : HotKeys.getHotKeys(context.getConfiguration())) {
+            hotKeys.add(new Text(word));
+        }
+        if (!hotKeys.isEmpty()) {
+            hotKeyOutput = new MultipleOutputs<>(context);
+        }
+    }
 
     @Override
     public void reduce(Text key, Iterable<IntWritable> values, Context context)
@@ -20,57 +44,34 @@ public class WordCountWithCombinerReducer extends Reducer<Text, IntWritable, Tex
         
         // 1. 初始化计数器为 0
         int sum = 0;
+        int valueCount = 0;
         
         // 2. 遍历来自 Combiner 的局部计数，累加求和
         for (IntWritable value : values) {
             sum += value.get();
+            valueCount++;
         }
         
         // 3. 将累加结果写入 result 变量
         result.set(sum);
         
-        // 4. 输出最终的 (单词, 总计数) 结果
-        context.write(key, result);
-        
-        // 统计各分区的记录数
-        int partition = getPartitionForKey(key.toString());
-        switch (partition) {
-            case 0:
-                context.getCounter("Partition Counters", "Partition 0 Records").increment(1);
-                break;
-            case 1:
-                context.getCounter("Partition Counters", "Partition 1 Records").increment(1);
-                break;
-            case 2:
-                context.getCounter("Partition Counters", "Partition 2 Records").increment(1);
-                break;
-            case 3:
-                context.getCounter("Partition Counters", "Partition 3 Records").increment(1);
-                break;
+        // 4. 输出最终的 (单词, 总计数) 结果；高频单词的部分和写入 hotkeys 输出
+        if (hotKeyOutput != null && hotKeys.contains(key)) {
+            hotKeyOutput.write(HotKeys.NAMED_OUTPUT, key, result);
+        } else {
+            context.write(key, result);
         }
+        
+        // 统计本分区的记录数、输入值个数和字节数
+        partitionMetrics.record(context, key, valueCount);
     }
     
-    /**
-     * 根据单词确定分区（与AlphabetPartitioner逻辑一致）
-     * 新的分区策略：A-G → 0, H-N → 1, O-T → 2, U-Z+其他 → 3
-     */
-    private int getPartitionForKey(String word) {
-        if (word == null || word.isEmpty()) {
-            return 0;
-        }
-        
-        char firstChar = Character.toUpperCase(word.charAt(0));
-        
-        if (firstChar >= 'A' && firstChar <= 'G') {
-            return 0;
-        } else if (firstChar >= 'H' && firstChar <= 'N') {
-            return 1;
-        } else if (firstChar >= 'O' && firstChar <= 'T') {
-            return 2;
-        } else if (firstChar >= 'U' && firstChar <= 'Z') {
-            return 3;
-        } else {
-            return 3;  // 数字和特殊字符分配到分区3
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        partitionMetrics.cleanup(context);
+        if (hotKeyOutput != null) {
+            hotKeyOutput.close();
         }
+        super.cleanup(context);
     }
 }
\ No newline at end of file
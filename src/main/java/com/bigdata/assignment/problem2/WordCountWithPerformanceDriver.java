@@ -12,6 +12,9 @@ import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.TaskCounter;
 
+import com.bigdata.assignment.common.JobReport;
+import com.bigdata.assignment.common.PartitionMetrics;
+
 import java.io.IOException;
 import java.util.Date;
 
@@ -193,11 +196,16 @@ public class WordCountWithPerformanceDriver {
                 System.out.println("  Run with combiner enabled to see performance improvement");
             }
 
-            // Partition balance analysis
+            // Partition balance analysis (task counts and per-partition input bytes from the job report)
+            JobReport report = JobReport.fromJob(job, totalTime);
+            report.put("combiner_enabled", enableCombiner);
             System.out.println("\n--- Partition Balance Analysis ---");
-            System.out.println("Number of Reduce Tasks: 4");
+            System.out.println("Number of Map Tasks: " + report.getMapTaskCount());
+            System.out.println("Number of Reduce Tasks: " + report.getReduceTaskCount());
             System.out.println("Expected: Relatively even distribution across partitions");
-            System.out.println("Verify: Check output files (part-r-00000 to part-r-00003) for size balance");
+            System.out.println("Verify: Check partitions in " + outputPath + "/" + JobReport.JSON_FILE + " for size balance");
+            PartitionMetrics.addTo(report, report.getReduceTaskCount());
+            report.write(fs, outputDir);
 
             System.out.println("\n=== Next Steps for Performance Comparison ===");
             if (enableCombiner) {
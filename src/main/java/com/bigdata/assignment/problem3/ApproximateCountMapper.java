@@ -0,0 +1,109 @@
+package com.bigdata.assignment.problem3;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+
+import com.bigdata.assignment.common.ByteHash;
+import com.bigdata.assignment.common.ChunkInputFormat;
+import com.bigdata.assignment.common.CountMinSketch;
+import com.bigdata.assignment.common.HyperLogLog;
+import com.bigdata.assignment.common.WordTokenizer;
+
+/**
+ * 题目三：近似计数模式的 Mapper
+ * 功能：不输出 (单词, 1)，而是把本分片的所有单词写入 Count-Min Sketch 和 HyperLogLog，
+ * 在 cleanup 中输出一条 ApproximateSummary 记录，Shuffle 数据量与词汇量无关
+ *
+ * 高频单词候选：Sketch 估计值达到当前门槛的单词进入候选集合，集合超过 2C 时
+ * 按估计值保留前 C 个并提高门槛（C = 4 × 高频单词数），因此只为少量单词创建对象
+ */
+public class ApproximateCountMapper extends Mapper<LongWritable, Text, NullWritable, ApproximateSummary> {
+
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    private final Text probe = new Text();
+    private final Set<Text> candidates = new HashSet<>();
+    private ApproximateSummary summary;
+    private CountMinSketch sketch;
+    private HyperLogLog cardinality;
+    private int candidateLimit;
+    private long threshold = 1;
+    private long lines;
+    private long words;
+    private boolean chunked;
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        summary = ApproximateSummary.create(context.getConfiguration());
+        sketch = summary.getSketch();
+        cardinality = summary.getCardinality();
+        candidateLimit = Math.max(16, 4 * ApproximateSummary.getHeavyHitters(context.getConfiguration()));
+        chunked = ChunkInputFormat.isChunked(context);
+    }
+
+    @Override
+    public void map(LongWritable key, Text value, Context context)
+            throws IOException, InterruptedException {
+        tokenizer.reset(value);
+        lines += chunked ? ChunkInputFormat.countLines(value) : 1;
+        while (tokenizer.nextToken()) {
+            byte[] bytes = tokenizer.tokenBytes();
+            int length = tokenizer.tokenLength();
+            long hash = ByteHash.hash64(bytes, 0, length);
+            sketch.add(hash, 1);
+            cardinality.add(hash);
+            words++;
+
+            if (sketch.estimate(hash) >= threshold) {
+                probe.set(bytes, 0, length);
+                if (!candidates.contains(probe)) {
+                    candidates.add(new Text(probe));
+                    if (candidates.size() >= 2 * candidateLimit) {
+                        prune();
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        if (candidates.size() > candidateLimit) {
+            prune();
+        }
+        summary.setCandidates(candidates);
+        context.write(NullWritable.get(), summary);
+
+        context.getCounter("Custom Counters", "Lines Processed").increment(lines);
+        context.getCounter("Custom Counters", "Words Processed").increment(words);
+    }
+
+    /**
+     * 按当前估计值保留前 candidateLimit 个候选，门槛提高到保留下来的最小估计值
+     */
+    private void prune() {
+        List<Text> sorted = new ArrayList<>(candidates);
+        long[] estimates = new long[sorted.size()];
+        Integer[] order = new Integer[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            Text word = sorted.get(i);
+            estimates[i] = sketch.estimate(ByteHash.hash64(word.getBytes(), 0, word.getLength()));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(estimates[b], estimates[a]));
+
+        candidates.clear();
+        for (int i = 0; i < candidateLimit; i++) {
+            candidates.add(sorted.get(order[i]));
+        }
+        threshold = Math.max(threshold, estimates[order[candidateLimit - 1]]);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bigdata.assignment.problem3;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import com.bigdata.assignment.common.ByteHash;
+import com.bigdata.assignment.common.CountMinSketch;
+import com.bigdata.assignment.common.TopKHeap;
+
+/**
+ * 题目三：近似计数模式的 Reducer（只使用 1 个）
+ * 功能：合并所有 Mapper 的 Count-Min Sketch 和 HyperLogLog，
+ * 用合并后的 Sketch 重新估计所有候选单词的频率，输出估计值最高的 K 个单词
+ *
+ * 估计的总词数和唯一单词数写入 "Approximate Results" 计数器，由 Driver 写入性能报告
+ */
+public class ApproximateCountReducer extends Reducer<NullWritable, ApproximateSummary, Text, IntWritable> {
+
+    @Override
+    public void reduce(NullWritable key, Iterable<ApproximateSummary> values, Context context)
+            throws IOException, InterruptedException {
+        ApproximateSummary merged = ApproximateSummary.create(context.getConfiguration());
+        Set<Text> candidates = new HashSet<>();
+        for (ApproximateSummary summary : values) {
+            merged.merge(summary);
+            candidates.addAll(summary.getCandidates());
+        }
+
+        CountMinSketch sketch = merged.getSketch();
+        TopKHeap heavyHitters = new TopKHeap(Math.max(1, ApproximateSummary.getHeavyHitters(context.getConfiguration())));
+        for (Text word : candidates) {
+            long estimate = sketch.estimate(ByteHash.hash64(word.getBytes(), 0, word.getLength()));
+            heavyHitters.offer(word.getBytes(), 0, word.getLength(), (int) Math.min(estimate, Integer.MAX_VALUE));
+        }
+
+        Text word = new Text();
+        IntWritable count = new IntWritable();
+        for (int slot : heavyHitters.sortedSlots()) {
+            word.set(heavyHitters.keyBytes(slot), 0, heavyHitters.keyLength(slot));
+            count.set(heavyHitters.count(slot));
+            context.write(word, count);
+        }
+
+        context.getCounter(ApproximateSummary.COUNTER_GROUP, ApproximateSummary.TOTAL_WORDS_COUNTER)
+            .increment(sketch.getTotalCount());
+        context.getCounter(ApproximateSummary.COUNTER_GROUP, ApproximateSummary.UNIQUE_WORDS_COUNTER)
+            .increment(merged.getCardinality().estimate());
+    }
+}
@@ -0,0 +1,122 @@
+package com.bigdata.assignment.problem3;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import com.bigdata.assignment.common.CountMinSketch;
+import com.bigdata.assignment.common.HyperLogLog;
+
+/**
+ * 题目三：近似计数模式中每个 Mapper 输出的唯一一条记录
+ * 内容：Count-Min Sketch（单词频率）、HyperLogLog（唯一单词数）和高频单词候选列表
+ *
+ * 配置参数：
+ * - wordcount.approx：是否为近似模式（由 Driver 设置）
+ * - wordcount.approx.cms.epsilon：频率估计的加性误差占总词数的比例（默认 0.0001）
+ * - wordcount.approx.cms.delta：误差超出上限的概率（默认 0.01）
+ * - wordcount.approx.hll.precision：HyperLogLog 精度 p，寄存器数 2^p（默认 14）
+ * - wordcount.approx.heavy.hitters：输出的高频单词数（默认 100）
+ */
+public class ApproximateSummary implements Writable {
+
+    /** Driver 设置的近似模式标记 */
+    public static final String MODE_KEY = "wordcount.approx";
+    public static final String CMS_EPSILON_KEY = "wordcount.approx.cms.epsilon";
+    public static final String CMS_DELTA_KEY = "wordcount.approx.cms.delta";
+    public static final String HLL_PRECISION_KEY = "wordcount.approx.hll.precision";
+    public static final String HEAVY_HITTERS_KEY = "wordcount.approx.heavy.hitters";
+
+    public static final double DEFAULT_CMS_EPSILON = 0.0001;
+    public static final double DEFAULT_CMS_DELTA = 0.01;
+    public static final int DEFAULT_HLL_PRECISION = 14;
+    public static final int DEFAULT_HEAVY_HITTERS = 100;
+
+    public static final String COUNTER_GROUP = "Approximate Results";
+    public static final String TOTAL_WORDS_COUNTER = "Total Words";
+    public static final String UNIQUE_WORDS_COUNTER = "Estimated Unique Words";
+
+    private CountMinSketch sketch;
+    private HyperLogLog cardinality;
+    private final List<Text> candidates = new ArrayList<>();
+
+    /** 供反序列化使用 */
+    public ApproximateSummary() {
+        this(new CountMinSketch(), new HyperLogLog());
+    }
+
+    private ApproximateSummary(CountMinSketch sketch, HyperLogLog cardinality) {
+        this.sketch = sketch;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * 按作业配置创建空的汇总（所有 Mapper 使用相同尺寸，保证可合并）
+     */
+    public static ApproximateSummary create(Configuration conf) {
+        return new ApproximateSummary(
+            CountMinSketch.withErrorBounds(getEpsilon(conf), conf.getDouble(CMS_DELTA_KEY, DEFAULT_CMS_DELTA)),
+            new HyperLogLog(conf.getInt(HLL_PRECISION_KEY, DEFAULT_HLL_PRECISION)));
+    }
+
+    public static double getEpsilon(Configuration conf) {
+        return conf.getDouble(CMS_EPSILON_KEY, DEFAULT_CMS_EPSILON);
+    }
+
+    public static int getHeavyHitters(Configuration conf) {
+        return conf.getInt(HEAVY_HITTERS_KEY, DEFAULT_HEAVY_HITTERS);
+    }
+
+    public CountMinSketch getSketch() {
+        return sketch;
+    }
+
+    public HyperLogLog getCardinality() {
+        return cardinality;
+    }
+
+    public List<Text> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(Collection<Text> words) {
+        candidates.clear();
+        candidates.addAll(words);
+    }
+
+    public void merge(ApproximateSummary other) {
+        sketch.merge(other.sketch);
+        cardinality.merge(other.cardinality);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        sketch.write(out);
+        cardinality.write(out);
+        WritableUtils.writeVInt(out, candidates.size());
+        for (Text candidate : candidates) {
+            candidate.write(out);
+        }
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        sketch.readFields(in);
+        cardinality.readFields(in);
+        int size = WritableUtils.readVInt(in);
+        candidates.clear();
+        for (int i = 0; i < size; i++) {
+            Text candidate = new Text();
+            candidate.readFields(in);
+            candidates.add(candidate);
+        }
+    }
+}
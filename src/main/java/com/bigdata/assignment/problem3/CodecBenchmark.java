@@ -0,0 +1,135 @@
+package com.bigdata.assignment.problem3;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+
+import com.bigdata.assignment.common.CompressionCodecs;
+
+/**
+ * Problem 3: codec benchmark mode of WordCountConfigTestDriver
+ *
+ * Runs the same word count job once per codec, using the codec for both map output (shuffle) and
+ * final output, and records what each codec costs and saves. Jobs run back to back so their elapsed
+ * times are not distorted by each other; a codec whose library is missing falls back to deflate and
+ * is reported with its effective codec.
+ *
+ * Output (under the output base path): codec-benchmark.tsv with one row per run
+ * - map_output_materialized_bytes / shuffle_bytes: map output after compression and bytes fetched by reducers
+ * - spilled_records / local_bytes_written: spill and map output files written to local disk
+ * - output_bytes: size of the final part files
+ * - cpu_ms / gc_ms / elapsed_ms
+ * On the local job runner all jobs share one JVM: cpu_ms is not measured and local_bytes_written
+ * accumulates across the runs, so compare those two columns on a cluster
+ *
+ * Settings:
+ * - wordcount.codecbench.repeats: runs per codec (default 1); every run is a row
+ */
+public class CodecBenchmark {
+
+    public static final String REPEATS_KEY = "wordcount.codecbench.repeats";
+    private static final String POLL_INTERVAL_KEY = "mapreduce.client.completion.pollinterval";
+
+    private static final String TASK_COUNTER = "org.apache.hadoop.mapreduce.TaskCounter";
+    private static final String[][] COUNTERS = {
+        {TASK_COUNTER, "MAP_OUTPUT_BYTES"},
+        {TASK_COUNTER, "MAP_OUTPUT_MATERIALIZED_BYTES"},
+        {TASK_COUNTER, "REDUCE_SHUFFLE_BYTES"},
+        {TASK_COUNTER, "SPILLED_RECORDS"},
+        {"org.apache.hadoop.mapreduce.FileSystemCounter", "FILE_BYTES_WRITTEN"},
+        {"org.apache.hadoop.mapreduce.lib.output.FileOutputFormatCounter", "BYTES_WRITTEN"},
+        {TASK_COUNTER, "CPU_MILLISECONDS"},
+        {TASK_COUNTER, "GC_TIME_MILLIS"},
+    };
+    private static final String[] COLUMNS = {
+        "map_output_bytes", "map_output_materialized_bytes", "shuffle_bytes", "spilled_records",
+        "local_bytes_written", "output_bytes", "cpu_ms", "gc_ms"
+    };
+
+    private final Configuration baseConf;
+    private final String inputPath;
+    private final Path outputBase;
+    private final FileSystem fs;
+    private final StringBuilder results = new StringBuilder();
+
+    public CodecBenchmark(Configuration conf, String inputPath, String outputBasePath) throws IOException {
+        this.baseConf = new Configuration(conf);
+        if (conf.get(POLL_INTERVAL_KEY) == null) {
+            this.baseConf.setInt(POLL_INTERVAL_KEY, 200);
+        }
+        this.inputPath = inputPath;
+        this.outputBase = new Path(outputBasePath);
+        this.fs = this.outputBase.getFileSystem(conf);
+    }
+
+    /**
+     * Run every codec in order
+     * @param codecs short names accepted by CompressionCodecs
+     */
+    public void run(String[] codecs) throws Exception {
+        for (String codec : codecs) {
+            CompressionCodecs.codecClass(codec);
+        }
+        int repeats = Math.max(1, baseConf.getInt(REPEATS_KEY, 1));
+
+        System.out.println("=== Codec Benchmark ===");
+        System.out.println("Codecs: " + String.join(", ", codecs) + " (" + repeats + " run(s) each)");
+
+        results.append("codec\teffective_codec\trun\tsuccess\telapsed_ms");
+        for (String column : COLUMNS) {
+            results.append('\t').append(column);
+        }
+        results.append('\n');
+
+        for (int run = 1; run <= repeats; run++) {
+            for (String codec : codecs) {
+                runCodec(codec, run);
+            }
+        }
+        System.out.println("\nCodec results saved to: " + new Path(outputBase, "codec-benchmark.tsv"));
+    }
+
+    private void runCodec(String codec, int run) throws Exception {
+        String effective = CompressionCodecs.resolve(codec);
+        TestConfig config = new TestConfig("codec_" + codec, 2, 128L * 1024 * 1024, true, 0, 0f, codec, codec);
+        Path output = new Path(outputBase, "_codecs/" + config.name);
+        long start = System.currentTimeMillis();
+        boolean success = false;
+        Counters counters = null;
+        try {
+            Job job = WordCountConfigTestDriver.createJob(new Configuration(baseConf), inputPath, output.toString(), config);
+            success = job.waitForCompletion(false);
+            counters = success ? job.getCounters() : null;
+        } catch (IOException e) {
+            System.err.println("Codec " + codec + " failed: " + e.getMessage());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        fs.delete(output, true);
+
+        results.append(codec).append('\t').append(effective).append('\t').append(run)
+            .append('\t').append(success).append('\t').append(elapsed);
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < COUNTERS.length; i++) {
+            long value = counters == null ? -1 : counters.findCounter(COUNTERS[i][0], COUNTERS[i][1]).getValue();
+            results.append('\t').append(counters == null ? "-" : Long.toString(value));
+            summary.append(' ').append(COLUMNS[i]).append('=').append(value);
+        }
+        results.append('\n');
+        writeText(new Path(outputBase, "codec-benchmark.tsv"), results.toString());
+
+        System.out.println("  " + codec + (effective.equals(codec) ? "" : " (as " + effective + ")") + ": "
+            + (success ? elapsed + " ms" : "FAILED") + summary);
+    }
+
+    private void writeText(Path path, String text) throws IOException {
+        try (OutputStream out = fs.create(path, true)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.bigdata.assignment.problem3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+
+/**
+ * Problem 3: auto-tuning mode of WordCountConfigTestDriver
+ *
+ * Searches reducers, split size, io.sort.mb, spill percent, combiner on/off and map output codec
+ * with successive halving: every candidate runs on a small prefix sample of the input, the faster
+ * half survives and runs again on a sample twice as large, until one candidate is left.
+ * All trials run back to back in this JVM (no sleeping between jobs) with a short completion poll interval.
+ * A discarded warm-up trial runs before round 1, so JIT compilation and LocalJobRunner start-up
+ * do not slow down whichever candidate happens to run first.
+ *
+ * Output (under the output base path):
+ * - tuning-results.tsv: one row per trial with parameters and counters
+ * - tuning-recommendation.txt: the winning configuration as job properties
+ *
+ * Settings:
+ * - wordcount.tune.max.fraction: input fraction used by the last round (default 0.5)
+ * - wordcount.tune.seed: seed for sampling candidates from the search space (default 42)
+ * - wordcount.tune.warmup: run the warm-up trial (default true)
+ */
+public class ConfigAutoTuner {
+
+    public static final String MAX_FRACTION_KEY = "wordcount.tune.max.fraction";
+    public static final String SEED_KEY = "wordcount.tune.seed";
+    public static final String WARMUP_KEY = "wordcount.tune.warmup";
+    public static final int DEFAULT_CANDIDATES = 16;
+    private static final String POLL_INTERVAL_KEY = "mapreduce.client.completion.pollinterval";
+
+    // Search space
+    private static final int[] REDUCERS = {1, 2, 4};
+    private static final int[] SPLIT_MB = {32, 64, 128};
+    private static final int[] SORT_MB = {100, 200};
+    private static final float[] SPILL_PERCENT = {0.8f, 0.9f};
+    private static final boolean[] COMBINER = {true, false};
+    private static final String[] CODECS = {TestConfig.CODEC_SNAPPY, TestConfig.CODEC_DEFLATE, TestConfig.CODEC_NONE};
+
+    private static final String[] COUNTERS = {
+        "MAP_INPUT_RECORDS", "MAP_OUTPUT_BYTES", "MAP_OUTPUT_MATERIALIZED_BYTES", "SPILLED_RECORDS",
+        "REDUCE_SHUFFLE_BYTES", "GC_TIME_MILLIS", "CPU_MILLISECONDS"
+    };
+
+    private final Configuration baseConf;
+    private final Path inputPath;
+    private final Path outputBase;
+    private final Path tuningDir;
+    private final FileSystem fs;
+    private final StringBuilder results = new StringBuilder();
+
+    public ConfigAutoTuner(Configuration conf, String inputPath, String outputBasePath) throws IOException {
+        this.baseConf = new Configuration(conf);
+        // waitForCompletion polls every 5 s by default, which dominates short trials on sampled input
+        if (conf.get(POLL_INTERVAL_KEY) == null) {
+            this.baseConf.setInt(POLL_INTERVAL_KEY, 200);
+        }
+        this.inputPath = new Path(inputPath);
+        this.outputBase = new Path(outputBasePath);
+        this.tuningDir = new Path(outputBase, "_tuning");
+        this.fs = this.outputBase.getFileSystem(conf);
+    }
+
+    /**
+     * Run the search and return the recommended configuration
+     * @return the recommended configuration, or null if every trial of a round failed
+     */
+    public TestConfig run(int candidateCount) throws Exception {
+        List<TestConfig> candidates = generateCandidates(Math.max(2, candidateCount));
+        int rounds = 0;
+        for (int n = candidates.size(); n > 1; n /= 2) {
+            rounds++;
+        }
+        double maxFraction = baseConf.getDouble(MAX_FRACTION_KEY, 0.5);
+
+        System.out.println("=== MapReduce Configuration Auto-Tuning ===");
+        System.out.println("Candidates: " + candidates.size() + ", rounds: " + rounds
+            + ", last round input fraction: " + maxFraction);
+
+        if (fs.exists(tuningDir)) {
+            fs.delete(tuningDir, true);
+        }
+        results.append("round\tinput_fraction\tsample_bytes\ttrial\treduce_tasks\tsplit_mb\tcombiner\tsort_mb\tspill_percent\tcodec\tsuccess\telapsed_ms");
+        for (String counter : COUNTERS) {
+            results.append('\t').append(counter.toLowerCase());
+        }
+        results.append('\n');
+
+        long tuningStart = System.currentTimeMillis();
+        List<TestConfig> survivors = candidates;
+        long bestElapsed = Long.MAX_VALUE;
+        for (int round = 0; survivors.size() > 1; round++) {
+            double fraction = Math.min(1.0, maxFraction / (1L << Math.max(0, rounds - 1 - round)));
+            Path sample = new Path(tuningDir, "sample-" + round);
+            long sampleBytes = writeSample(sample, fraction);
+            System.out.println("\n--- Round " + (round + 1) + ": " + survivors.size() + " candidates on "
+                + String.format("%.1f%%", fraction * 100) + " of input (" + sampleBytes + " bytes) ---");
+
+            if (round == 0 && baseConf.getBoolean(WARMUP_KEY, true)) {
+                warmUp(sample, survivors.get(0));
+            }
+
+            final Map<TestConfig, Long> elapsed = new HashMap<>();
+            for (TestConfig candidate : survivors) {
+                elapsed.put(candidate, runTrial(round, fraction, sampleBytes, sample, candidate));
+            }
+            fs.delete(sample, true);
+
+            // Failed trials are dropped instead of ranked last
+            List<TestConfig> ranked = new ArrayList<>();
+            for (TestConfig candidate : survivors) {
+                if (elapsed.get(candidate) != Long.MAX_VALUE) {
+                    ranked.add(candidate);
+                }
+            }
+            if (ranked.isEmpty()) {
+                System.err.println("All " + survivors.size() + " trials of round " + (round + 1)
+                    + " failed, no configuration to recommend (see " + new Path(outputBase, "tuning-results.tsv") + ")");
+                fs.delete(tuningDir, true);
+                return null;
+            }
+            Collections.sort(ranked, new Comparator<TestConfig>() {
+                @Override
+                public int compare(TestConfig a, TestConfig b) {
+                    return Long.compare(elapsed.get(a), elapsed.get(b));
+                }
+            });
+            bestElapsed = elapsed.get(ranked.get(0));
+            survivors = ranked.subList(0, Math.max(1, ranked.size() / 2));
+        }
+
+        TestConfig best = survivors.get(0);
+        writeRecommendation(best, bestElapsed, System.currentTimeMillis() - tuningStart);
+        fs.delete(tuningDir, true);
+        return best;
+    }
+
+    /**
+     * The fixed TEST_CONFIGS first, then distinct random points of the search space
+     */
+    private List<TestConfig> generateCandidates(int count) {
+        Random random = new Random(baseConf.getLong(SEED_KEY, 42L));
+        Set<String> seen = new LinkedHashSet<>();
+        List<TestConfig> candidates = new ArrayList<>();
+        for (TestConfig config : WordCountConfigTestDriver.TEST_CONFIGS) {
+            if (candidates.size() < count && seen.add(config.describe())) {
+                candidates.add(config);
+            }
+        }
+        int maxAttempts = count * 100;
+        while (candidates.size() < count && maxAttempts-- > 0) {
+            int reducers = REDUCERS[random.nextInt(REDUCERS.length)];
+            int splitMb = SPLIT_MB[random.nextInt(SPLIT_MB.length)];
+            int sortMb = SORT_MB[random.nextInt(SORT_MB.length)];
+            float spill = SPILL_PERCENT[random.nextInt(SPILL_PERCENT.length)];
+            boolean combiner = COMBINER[random.nextInt(COMBINER.length)];
+            String codec = CODECS[random.nextInt(CODECS.length)];
+            String name = "tune" + candidates.size() + "_" + reducers + "r_" + splitMb + "mb_sort" + sortMb
+                + "_spill" + Math.round(spill * 100) + (combiner ? "_combiner" : "_nocombiner") + "_" + codec;
+            TestConfig config = new TestConfig(name, reducers, splitMb * 1024L * 1024, combiner, sortMb, spill, codec);
+            if (seen.add(config.describe())) {
+                candidates.add(config);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Copy a line-aligned prefix (fraction of each file's length) of every input file
+     * @return total sample size in bytes
+     */
+    private long writeSample(Path sample, double fraction) throws IOException {
+        FileSystem inputFs = inputPath.getFileSystem(baseConf);
+        FileStatus input = inputFs.getFileStatus(inputPath);
+        FileStatus[] files = input.isDirectory() ? inputFs.listStatus(inputPath) : new FileStatus[]{input};
+        long total = 0;
+        byte[] buffer = new byte[64 * 1024];
+        for (FileStatus file : files) {
+            if (!file.isFile() || file.getPath().getName().startsWith("_") || file.getPath().getName().startsWith(".")) {
+                continue;
+            }
+            long limit = (long) Math.ceil(file.getLen() * fraction);
+            try (InputStream in = inputFs.open(file.getPath());
+                 OutputStream out = fs.create(new Path(sample, file.getPath().getName()), true)) {
+                long copied = 0;
+                int n;
+                boolean done = false;
+                while (!done && (n = in.read(buffer)) > 0) {
+                    int length = n;
+                    if (copied + n >= limit) {
+                        // stop at the first newline after the limit so no line is cut
+                        int from = (int) Math.max(0, limit - copied - 1);
+                        length = n;
+                        for (int i = from; i < n; i++) {
+                            if (buffer[i] == '\n') {
+                                length = i + 1;
+                                done = true;
+                                break;
+                            }
+                        }
+                    }
+                    out.write(buffer, 0, length);
+                    copied += length;
+                }
+                total += copied;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Run one candidate on the sample without recording or ranking it
+     */
+    private void warmUp(Path sample, TestConfig config) throws Exception {
+        Path output = new Path(tuningDir, "warmup");
+        long start = System.currentTimeMillis();
+        try {
+            Job job = WordCountConfigTestDriver.createJob(new Configuration(baseConf), sample.toString(),
+                output.toString(), config);
+            job.waitForCompletion(false);
+        } catch (IOException e) {
+            System.err.println("Warm-up trial failed: " + e.getMessage());
+        }
+        fs.delete(output, true);
+        System.out.println("  warm-up with " + config.name + " (discarded): " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Run one candidate on the sample
+     * @return elapsed milliseconds, or Long.MAX_VALUE if the job failed
+     */
+    private long runTrial(int round, double fraction, long sampleBytes, Path sample, TestConfig config) throws Exception {
+        Path output = new Path(tuningDir, "round-" + round + "/" + config.name);
+        long start = System.currentTimeMillis();
+        boolean success = false;
+        Counters counters = null;
+        try {
+            Job job = WordCountConfigTestDriver.createJob(new Configuration(baseConf), sample.toString(),
+                output.toString(), config);
+            success = job.waitForCompletion(false);
+            counters = success ? job.getCounters() : null;
+        } catch (IOException e) {
+            System.err.println("Trial " + config.name + " failed: " + e.getMessage());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        fs.delete(output, true);
+        System.out.println("  " + config.name + ": " + (success ? elapsed + " ms" : "FAILED") + "  [" + config.describe() + "]");
+
+        results.append(round + 1).append('\t').append(String.format("%.4f", fraction)).append('\t').append(sampleBytes)
+            .append('\t').append(config.name).append('\t').append(config.reduceTasks)
+            .append('\t').append(config.splitSize / (1024 * 1024)).append('\t').append(config.combinerEnabled)
+            .append('\t').append(config.sortMb > 0 ? Integer.toString(config.sortMb) : "default")
+            .append('\t').append(config.spillPercent > 0 ? Float.toString(config.spillPercent) : "default")
+            .append('\t').append(config.codec).append('\t').append(success).append('\t').append(elapsed);
+        for (String counter : COUNTERS) {
+            results.append('\t').append(counters == null ? "-"
+                : Long.toString(counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", counter).getValue()));
+        }
+        results.append('\n');
+        writeText(new Path(outputBase, "tuning-results.tsv"), results.toString());
+
+        return success ? elapsed : Long.MAX_VALUE;
+    }
+
+    private void writeRecommendation(TestConfig best, long bestElapsed, long tuningTime) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("=== Recommended Configuration ===\n");
+        text.append("trial\t").append(best.name).append('\n');
+        text.append("last_round_elapsed_ms\t").append(bestElapsed == Long.MAX_VALUE ? "-" : Long.toString(bestElapsed)).append('\n');
+        text.append("total_tuning_time_ms\t").append(tuningTime).append('\n');
+        text.append("\n=== Job Settings ===\n");
+        text.append("reduce_tasks\t").append(best.reduceTasks).append('\n');
+        text.append("combiner_enabled\t").append(best.combinerEnabled).append('\n');
+        for (Map.Entry<String, String> property : best.toProperties().entrySet()) {
+            text.append(property.getKey()).append('\t').append(property.getValue()).append('\n');
+        }
+        writeText(new Path(outputBase, "tuning-recommendation.txt"), text.toString());
+
+        System.out.println("\n" + text);
+        System.out.println("Trial results saved to: " + new Path(outputBase, "tuning-results.tsv"));
+        System.out.println("Recommendation saved to: " + new Path(outputBase, "tuning-recommendation.txt"));
+    }
+
+    private void writeText(Path path, String text) throws IOException {
+        try (OutputStream out = fs.create(path, true)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bigdata.assignment.problem3;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+
+import com.bigdata.assignment.common.CompressionCodecs;
+
+/**
+ * Problem 3: one job configuration tested by WordCountConfigTestDriver
+ * Holds the tunable parameters (reducers, split size, combiner, sort buffer, spill threshold,
+ * map output and final output codecs) and applies them to a job Configuration.
+ * A codec whose library is missing in this JVM falls back to deflate (see CompressionCodecs)
+ */
+public class TestConfig {
+
+    /** Codec short names accepted by {@link CompressionCodecs#codecClass(String)} */
+    public static final String CODEC_NONE = CompressionCodecs.NONE;
+    public static final String CODEC_SNAPPY = CompressionCodecs.SNAPPY;
+    public static final String CODEC_DEFLATE = CompressionCodecs.DEFLATE;
+    public static final String CODEC_LZ4 = CompressionCodecs.LZ4;
+    public static final String CODEC_ZSTD = CompressionCodecs.ZSTD;
+
+    final String name;
+    final int reduceTasks;
+    final long splitSize;
+    final boolean combinerEnabled;
+    final int sortMb;           // 0 = framework default
+    final float spillPercent;   // 0 = framework default
+    final String codec;
+    final String outputCodec;
+
+    public TestConfig(String name, int reduceTasks, long splitSize, boolean combinerEnabled) {
+        this(name, reduceTasks, splitSize, combinerEnabled, 0, 0f, CODEC_SNAPPY);
+    }
+
+    public TestConfig(String name, int reduceTasks, long splitSize, boolean combinerEnabled,
+                      int sortMb, float spillPercent, String codec) {
+        this(name, reduceTasks, splitSize, combinerEnabled, sortMb, spillPercent, codec, CODEC_NONE);
+    }
+
+    public TestConfig(String name, int reduceTasks, long splitSize, boolean combinerEnabled,
+                      int sortMb, float spillPercent, String codec, String outputCodec) {
+        this.name = name;
+        this.reduceTasks = reduceTasks;
+        this.splitSize = splitSize;
+        this.combinerEnabled = combinerEnabled;
+        this.sortMb = sortMb;
+        this.spillPercent = spillPercent;
+        this.codec = codec;
+        this.outputCodec = outputCodec;
+        CompressionCodecs.codecClass(codec);
+        CompressionCodecs.codecClass(outputCodec);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Apply split, sort buffer, spill and compression settings to the job configuration
+     */
+    public void apply(Configuration conf) {
+        for (Map.Entry<String, String> property : toProperties().entrySet()) {
+            conf.set(property.getKey(), property.getValue());
+        }
+    }
+
+    /**
+     * Job properties set by this configuration (reducers and combiner are set on the Job itself)
+     */
+    public Map<String, String> toProperties() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("mapreduce.input.fileinputformat.split.maxsize", Long.toString(splitSize));
+        properties.put("mapreduce.input.fileinputformat.split.minsize", Long.toString(splitSize / 2));
+        if (sortMb > 0) {
+            properties.put("mapreduce.task.io.sort.mb", Integer.toString(sortMb));
+        }
+        if (spillPercent > 0) {
+            properties.put("mapreduce.map.sort.spill.percent", Float.toString(spillPercent));
+        }
+        String codecClass = CompressionCodecs.codecClass(CompressionCodecs.resolve(codec));
+        properties.put("mapreduce.map.output.compress", Boolean.toString(codecClass != null));
+        if (codecClass != null) {
+            properties.put("mapreduce.map.output.compress.codec", codecClass);
+        }
+        if (!CODEC_NONE.equals(outputCodec)) {
+            properties.put("mapreduce.output.fileoutputformat.compress", "true");
+            properties.put("mapreduce.output.fileoutputformat.compress.codec",
+                CompressionCodecs.codecClass(CompressionCodecs.resolve(outputCodec)));
+        }
+        return properties;
+    }
+
+    /**
+     * One-line description used in logs and result files
+     */
+    public String describe() {
+        return "reducers=" + reduceTasks
+            + " split=" + (splitSize / (1024 * 1024)) + "MB"
+            + " combiner=" + combinerEnabled
+            + " sort_mb=" + (sortMb > 0 ? Integer.toString(sortMb) : "default")
+            + " spill=" + (spillPercent > 0 ? Float.toString(spillPercent) : "default")
+            + " codec=" + codec
+            + (CODEC_NONE.equals(outputCodec) ? "" : " output_codec=" + outputCodec);
+    }
+}
@@ -5,137 +5,231 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
 import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.Counters;
 
+import com.bigdata.assignment.common.CompressionCodecs;
+import com.bigdata.assignment.common.JobReport;
+import com.bigdata.assignment.common.ResultCache;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Enhanced WordCount Driver for Problem 3: Multiple Configuration Performance Testing
  * Tests different Map/Reduce task configurations for performance analysis
+ * Test jobs are submitted concurrently as long as their declared map/reduce container memory fits
+ * wordcount.configtest.memory.budget.mb (default 3072 MB on a cluster, unbounded on the local job runner)
  */
 public class WordCountConfigTestDriver {
+
+    // Concurrent submission: total declared memory of running test jobs may not exceed the budget
+    public static final String MEMORY_BUDGET_KEY = "wordcount.configtest.memory.budget.mb";
+    private static final long DEFAULT_MEMORY_BUDGET_MB = 3072;
+    private static final String POLL_INTERVAL_KEY = "mapreduce.client.completion.pollinterval";
+    private static final int POLL_INTERVAL_MS = 200;
     
-    // Configuration test cases: {reduceTasks, splitSize, combinerEnabled, testName}
+    // Configuration test cases: reduceTasks, splitSize, combinerEnabled
     // Simplified configurations to fit cluster resource limits (max memory: 3072MB)
-    private static final Object[][] TEST_CONFIGS = {
-        {1, 128L * 1024 * 1024, true, "config1_1reducer_128mb_combiner"},     // 1 reducer, 128MB splits, with combiner
-        {2, 128L * 1024 * 1024, true, "config2_2reducer_128mb_combiner"},     // 2 reducers, 128MB splits, with combiner
-        {2, 64L * 1024 * 1024, true, "config3_2reducer_64mb_combiner"},       // 2 reducers, 64MB splits, with combiner
-        {2, 128L * 1024 * 1024, false, "config4_2reducer_128mb_nocombiner"},  // 2 reducers, 128MB splits, no combiner
+    static final TestConfig[] TEST_CONFIGS = {
+        new TestConfig("config1_1reducer_128mb_combiner", 1, 128L * 1024 * 1024, true),     // 1 reducer, 128MB splits, with combiner
+        new TestConfig("config2_2reducer_128mb_combiner", 2, 128L * 1024 * 1024, true),     // 2 reducers, 128MB splits, with combiner
+        new TestConfig("config3_2reducer_64mb_combiner", 2, 64L * 1024 * 1024, true),       // 2 reducers, 64MB splits, with combiner
+        new TestConfig("config4_2reducer_128mb_nocombiner", 2, 128L * 1024 * 1024, false),  // 2 reducers, 128MB splits, no combiner
     };
 
     public static void main(String[] args) throws Exception {
         if (args.length < 2) {
-            System.err.println("Usage: WordCountConfigTestDriver <input path> <output base path>");
+            System.err.println("Usage: WordCountConfigTestDriver <input path> <output base path> [tune[:candidates] | codecs[:c1,c2,...] | cache[:dir]]");
+            System.err.println("  tune: search reducers / split size / io.sort.mb / spill percent / combiner / codec");
+            System.err.println("        with successive halving on sampled input and recommend a configuration");
+            System.err.println("  codecs: run the same job with each codec (default: none,snappy,lz4,zstd,deflate) for map output");
+            System.err.println("        and final output, and record shuffle bytes, spill, CPU and elapsed time per codec");
+            System.err.println("  cache: skip configurations whose input, settings and code are unchanged since a cached run,");
+            System.err.println("        and restore their results and reports from the cache directory (default ~/.wordcount-cache)");
             System.exit(-1);
         }
 
         String inputPath = args[0];
         String outputBasePath = args[1];
 
+        if (args.length > 2 && args[2].toLowerCase().startsWith("tune")) {
+            int colon = args[2].indexOf(':');
+            int candidates = colon < 0 ? ConfigAutoTuner.DEFAULT_CANDIDATES : Integer.parseInt(args[2].substring(colon + 1));
+            if (new ConfigAutoTuner(new Configuration(), inputPath, outputBasePath).run(candidates) == null) {
+                System.exit(-1);
+            }
+            return;
+        }
+
+        if (args.length > 2 && args[2].toLowerCase().startsWith("codecs")) {
+            int colon = args[2].indexOf(':');
+            String[] codecs = colon < 0 ? CompressionCodecs.NAMES : args[2].substring(colon + 1).toLowerCase().split(",");
+            new CodecBenchmark(new JobConf(), inputPath, outputBasePath).run(codecs);
+            return;
+        }
+
         System.out.println("=== MapReduce Performance Configuration Testing ===");
         System.out.println("Input Path: " + inputPath);
         System.out.println("Output Base Path: " + outputBasePath);
         System.out.println("Test Configurations: " + TEST_CONFIGS.length);
         System.out.println("================================================");
 
-        // Run all test configurations
-        for (int i = 0; i < TEST_CONFIGS.length; i++) {
-            Object[] config = TEST_CONFIGS[i];
-            int reduceTasks = (Integer) config[0];
-            long splitSize = (Long) config[1];
-            boolean combinerEnabled = (Boolean) config[2];
-            String testName = (String) config[3];
+        // Submit test configurations concurrently, bounded by the memory each job declares
+        // JobConf also loads mapred-site.xml, where the memory budget is usually configured
+        Configuration conf = new JobConf();
+        if (conf.get(POLL_INTERVAL_KEY) == null) {
+            conf.setInt(POLL_INTERVAL_KEY, POLL_INTERVAL_MS);
+        }
+        long memoryBudgetMb = getMemoryBudgetMb(conf);
+        ResultCache cache = null;
+        if (args.length > 2 && args[2].toLowerCase().startsWith("cache")) {
+            int colon = args[2].indexOf(':');
+            cache = new ResultCache(conf, colon < 0 ? null : args[2].substring(colon + 1));
+            System.out.println("Result Cache: " + cache.getCacheDir());
+        }
+        System.out.println("Memory Budget: " + (memoryBudgetMb == Long.MAX_VALUE ? "unbounded (local job runner)" : memoryBudgetMb + " MB"));
 
-            System.out.println("\n--- Running Test " + (i + 1) + "/" + TEST_CONFIGS.length + ": " + testName + " ---");
-            
-            try {
-                runSingleTest(inputPath, outputBasePath + "/" + testName, 
-                            reduceTasks, splitSize, combinerEnabled, testName);
-                
-                // Wait between tests to avoid resource conflicts
-                Thread.sleep(5000);
-                
-            } catch (Exception e) {
-                System.err.println("Error in test " + testName + ": " + e.getMessage());
-                e.printStackTrace();
+        long sweepStart = System.currentTimeMillis();
+        long totalJobTime = 0;
+        long restoreTime = 0;
+        List<String> cachedTests = new ArrayList<>();
+        long usedMb = 0;
+        List<RunningTest> running = new ArrayList<>();
+        int next = 0;
+        RunningTest pending = null;
+        while (next < TEST_CONFIGS.length || pending != null || !running.isEmpty()) {
+            // Admit jobs while their declared memory fits the budget; an oversized job still runs alone
+            while (next < TEST_CONFIGS.length || pending != null) {
+                if (pending == null) {
+                    TestConfig config = TEST_CONFIGS[next++];
+                    String outputPath = outputBasePath + "/" + config.getName();
+                    try {
+                        pending = new RunningTest(config, outputPath,
+                            createJob(new Configuration(conf), inputPath, outputPath, config));
+                        if (cache != null) {
+                            pending.cacheKey = cache.fingerprint(pending.job, WordCountConfigTestDriver.class);
+                            long restored = cache.restore(pending.cacheKey, FileSystem.get(conf), new Path(outputPath));
+                            if (restored >= 0) {
+                                System.out.println("\n--- Test " + next + "/" + TEST_CONFIGS.length + ": " + config.getName()
+                                    + " unchanged, results restored from cache (" + pending.cacheKey + ") in "
+                                    + restored + " ms ---");
+                                // A restored test costs its copy time instead of a job run
+                                totalJobTime += restored;
+                                restoreTime += restored;
+                                cachedTests.add(config.getName());
+                                pending = null;
+                                continue;
+                            }
+                        }
+                    } catch (Exception e) {
+                        System.err.println("Error in test " + config.getName() + ": " + e.getMessage());
+                        e.printStackTrace();
+                        continue;
+                    }
+                }
+                if (!running.isEmpty() && usedMb + pending.memoryMb > memoryBudgetMb) {
+                    break;
+                }
+                RunningTest test = pending;
+                pending = null;
+                if (submitTest(test, next, usedMb)) {
+                    running.add(test);
+                    usedMb += test.memoryMb;
+                }
+            }
+
+            Thread.sleep(POLL_INTERVAL_MS);
+
+            // Collect counters of every job that finished since the last poll
+            for (Iterator<RunningTest> it = running.iterator(); it.hasNext(); ) {
+                RunningTest test = it.next();
+                try {
+                    if (!test.job.isComplete()) {
+                        continue;
+                    }
+                    long processingTime = System.currentTimeMillis() - test.startTime;
+                    totalJobTime += processingTime;
+                    reportTest(test, processingTime, cache);
+                } catch (Exception e) {
+                    System.err.println("Error in test " + test.config.getName() + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+                it.remove();
+                usedMb -= test.memoryMb;
             }
         }
 
+        long sweepTime = System.currentTimeMillis() - sweepStart;
         System.out.println("\n=== All Performance Tests Completed ===");
+        System.out.println("Sweep Wall-Clock Time: " + sweepTime + " ms (sum of job times: " + totalJobTime + " ms)");
+        if (!cachedTests.isEmpty()) {
+            System.out.println("Restored From Cache: " + cachedTests.size() + "/" + TEST_CONFIGS.length + " tests "
+                + cachedTests + ", " + restoreTime + " ms of the job time sum (reports marked cache_hit)");
+        }
         System.out.println("Check individual output directories for detailed results.");
     }
 
-    private static void runSingleTest(String inputPath, String outputPath, 
-                                    int reduceTasks, long splitSize, 
-                                    boolean combinerEnabled, String testName) throws Exception {
-        
-        long startTime = System.currentTimeMillis();
-        
-        Configuration conf = new Configuration();
-        
-        // Set split size to control map tasks
-        conf.setLong("mapreduce.input.fileinputformat.split.maxsize", splitSize);
-        conf.setLong("mapreduce.input.fileinputformat.split.minsize", splitSize / 2);
-        
-        // Performance tuning settings
-        conf.set("mapreduce.map.output.compress", "true");
-        conf.set("mapreduce.map.output.compress.codec", "org.apache.hadoop.io.compress.SnappyCodec");
-        conf.set("mapreduce.job.reduce.slowstart.completedmaps", "0.8");
-        
-        // Memory settings for performance (adjusted for cluster limits: max 3072MB)
-        conf.set("mapreduce.map.memory.mb", "1024");
-        conf.set("mapreduce.reduce.memory.mb", "1536");
-        conf.set("mapreduce.map.java.opts", "-Xmx819m");
-        conf.set("mapreduce.reduce.java.opts", "-Xmx1228m");
-
-        Job job = Job.getInstance(conf, "WordCount-ConfigTest-" + testName);
-        job.setJarByClass(WordCountConfigTestDriver.class);
-        
-        // Set mapper and reducer
-        job.setMapperClass(WordCountOptimizedMapper.class);
-        job.setReducerClass(WordCountOptimizedReducer.class);
-        
-        // Set combiner if enabled
-        if (combinerEnabled) {
-            job.setCombinerClass(WordCountOptimizedCombiner.class);
+    /**
+     * Memory budget shared by concurrently running test jobs.
+     * The local job runner does not reserve the declared container memory, so it is unbounded there
+     * unless configured explicitly.
+     */
+    private static long getMemoryBudgetMb(Configuration conf) {
+        if (conf.get(MEMORY_BUDGET_KEY) != null) {
+            return conf.getLong(MEMORY_BUDGET_KEY, DEFAULT_MEMORY_BUDGET_MB);
         }
-        
-        // Set output key and value types
-        job.setOutputKeyClass(Text.class);
-        job.setOutputValueClass(IntWritable.class);
-        
-        // Set number of reduce tasks
-        job.setNumReduceTasks(reduceTasks);
+        return "local".equals(conf.get("mapreduce.framework.name", "local")) ? Long.MAX_VALUE : DEFAULT_MEMORY_BUDGET_MB;
+    }
 
-        // Delete output directory if exists
-        FileSystem fs = FileSystem.get(conf);
-        Path outputDir = new Path(outputPath);
-        if (fs.exists(outputDir)) {
-            fs.delete(outputDir, true);
+    /**
+     * Memory a job holds at minimum while running: one map container plus one reduce container
+     */
+    private static long declaredMemoryMb(Job job) {
+        Configuration conf = job.getConfiguration();
+        long memoryMb = conf.getLong("mapreduce.map.memory.mb", 1024);
+        if (job.getNumReduceTasks() > 0) {
+            memoryMb += conf.getLong("mapreduce.reduce.memory.mb", 1024);
         }
+        return memoryMb;
+    }
 
-        // Set input and output paths
-        FileInputFormat.addInputPath(job, new Path(inputPath));
-        FileOutputFormat.setOutputPath(job, outputDir);
-
+    private static boolean submitTest(RunningTest test, int testNumber, long usedMb) {
+        TestConfig config = test.config;
+        System.out.println("\n--- Submitting Test " + testNumber + "/" + TEST_CONFIGS.length + ": " + config.getName() + " ---");
         System.out.println("Configuration Details:");
-        System.out.println("  - Reduce Tasks: " + reduceTasks);
-        System.out.println("  - Split Size: " + (splitSize / (1024 * 1024)) + " MB");
-        System.out.println("  - Combiner Enabled: " + combinerEnabled);
-        System.out.println("  - Output Path: " + outputPath);
+        System.out.println("  - Reduce Tasks: " + config.reduceTasks);
+        System.out.println("  - Split Size: " + (config.splitSize / (1024 * 1024)) + " MB");
+        System.out.println("  - Combiner Enabled: " + config.combinerEnabled);
+        System.out.println("  - Output Path: " + test.outputPath);
+        System.out.println("  - Declared Memory: " + test.memoryMb + " MB (in use before submit: " + usedMb + " MB)");
+        try {
+            test.startTime = System.currentTimeMillis();
+            test.job.submit();
+            System.out.println("  - Job ID: " + test.job.getJobID());
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error in test " + config.getName() + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-        // Submit job and wait for completion
-        boolean success = job.waitForCompletion(true);
-        
-        long endTime = System.currentTimeMillis();
-        long processingTime = endTime - startTime;
+    private static void reportTest(RunningTest test, long processingTime, ResultCache cache) throws Exception {
+        Job job = test.job;
+        String outputPath = test.outputPath;
+        String testName = test.config.name;
+        int reduceTasks = test.config.reduceTasks;
+        long splitSize = test.config.splitSize;
+        boolean combinerEnabled = test.config.combinerEnabled;
 
-        if (success) {
+        if (job.isSuccessful()) {
             // Get job counters for detailed analysis
             Counters counters = job.getCounters();
             
@@ -182,11 +276,92 @@ public class WordCountConfigTestDriver {
             savePerformanceReport(outputPath, testName, processingTime, counters, 
                                 reduceTasks, splitSize, combinerEnabled, combinerReduction);
 
+            // Machine-readable report with real task counts, phase timing and per-partition input bytes
+            JobReport report = JobReport.fromJob(job, processingTime);
+            report.put("test_name", testName)
+                  .put("reduce_tasks", reduceTasks)
+                  .put("split_size_mb", splitSize / (1024 * 1024))
+                  .put("combiner_enabled", combinerEnabled)
+                  .put("combiner_reduction_rate", combinerReduction, 2);
+            Path reportDir = new Path(outputPath);
+            report.write(reportDir.getFileSystem(job.getConfiguration()), reportDir);
+
+            if (cache != null) {
+                cache.store(test.cacheKey, reportDir.getFileSystem(job.getConfiguration()), reportDir,
+                    "part-r-*", "performance-config-report.txt", JobReport.JSON_FILE, JobReport.CSV_FILE, "_SUCCESS");
+            }
+
         } else {
-            System.err.println("Job failed for configuration: " + testName);
+            System.err.println("Job failed for configuration: " + testName + " (" + job.getStatus().getFailureInfo() + ")");
+        }
+    }
+
+    /**
+     * A submitted test job and the memory it holds against the budget
+     */
+    private static class RunningTest {
+        final TestConfig config;
+        final String outputPath;
+        final Job job;
+        final long memoryMb;
+        long startTime;
+        String cacheKey;
+
+        RunningTest(TestConfig config, String outputPath, Job job) {
+            this.config = config;
+            this.outputPath = outputPath;
+            this.job = job;
+            this.memoryMb = declaredMemoryMb(job);
         }
     }
 
+    /**
+     * Build the word count job for one configuration (the output directory is deleted if it exists)
+     */
+    static Job createJob(Configuration conf, String inputPath, String outputPath, TestConfig config) throws IOException {
+        // Split size, sort buffer, spill threshold and map output compression
+        config.apply(conf);
+        conf.set("mapreduce.job.reduce.slowstart.completedmaps", "0.8");
+        
+        // Memory settings for performance (adjusted for cluster limits: max 3072MB)
+        conf.set("mapreduce.map.memory.mb", "1024");
+        conf.set("mapreduce.reduce.memory.mb", "1536");
+        conf.set("mapreduce.map.java.opts", "-Xmx819m");
+        conf.set("mapreduce.reduce.java.opts", "-Xmx1228m");
+
+        Job job = Job.getInstance(conf, "WordCount-ConfigTest-" + config.name);
+        job.setJarByClass(WordCountConfigTestDriver.class);
+        
+        // Set mapper and reducer
+        job.setMapperClass(WordCountOptimizedMapper.class);
+        job.setReducerClass(WordCountOptimizedReducer.class);
+        
+        // Set combiner if enabled
+        if (config.combinerEnabled) {
+            job.setCombinerClass(WordCountOptimizedCombiner.class);
+        }
+        
+        // Set output key and value types
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(IntWritable.class);
+        
+        // Set number of reduce tasks
+        job.setNumReduceTasks(config.reduceTasks);
+
+        // Delete output directory if exists
+        FileSystem fs = FileSystem.get(conf);
+        Path outputDir = new Path(outputPath);
+        if (fs.exists(outputDir)) {
+            fs.delete(outputDir, true);
+        }
+
+        // Set input and output paths
+        FileInputFormat.addInputPath(job, new Path(inputPath));
+        FileOutputFormat.setOutputPath(job, outputDir);
+
+        return job;
+    }
+
     private static void savePerformanceReport(String outputPath, String testName, 
                                             long processingTime, Counters counters,
                                             int reduceTasks, long splitSize, 
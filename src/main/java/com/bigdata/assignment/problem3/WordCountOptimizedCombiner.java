@@ -6,6 +6,9 @@ import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Reducer;
 
+import com.bigdata.assignment.common.BatchedCounters;
+import com.bigdata.assignment.common.ShuffleTypes;
+
 /**
  * 题目三：WordCount 优化版Combiner实现
  * 功能：Map端本地聚合，减少网络传输，支持性能监控
@@ -13,6 +16,19 @@ import org.apache.hadoop.mapreduce.Reducer;
 public class WordCountOptimizedCombiner extends Reducer<Text, IntWritable, Text, IntWritable> {
     
     private IntWritable result = new IntWritable();
+    
+    private final BatchedCounters counters = new BatchedCounters();
+    private final int inputRecords = counters.add("Combiner Performance", "Input Records");
+    private final int outputRecords = counters.add("Combiner Performance", "Output Records");
+    private final int recordsCompressed = counters.add("Combiner Performance", "Records Compressed");
+    
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        super.setup(context);
+        // Combiner 的输出类型必须与 Map 输出值类型一致（IntWritable/VIntCount）
+        result = ShuffleTypes.newCount(context, 0);
+        counters.setup(context);
+    }
 
     @Override
     public void reduce(Text key, Iterable<IntWritable> values, Context context)
@@ -34,12 +50,19 @@ public class WordCountOptimizedCombiner extends Reducer<Text, IntWritable, Text,
         context.write(key, result);
         
         // 4. 添加计数器统计 Combiner 的输入输出记录数
-        context.getCounter("Combiner Performance", "Input Records").increment(inputCount);
-        context.getCounter("Combiner Performance", "Output Records").increment(1);
+        counters.increment(inputRecords, inputCount);
+        counters.increment(outputRecords);
         
         // 统计数据压缩效果
         if (inputCount > 1) {
-            context.getCounter("Combiner Performance", "Records Compressed").increment(inputCount - 1);
+            counters.increment(recordsCompressed, inputCount - 1);
         }
+        counters.tick(context);
+    }
+
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        counters.flush(context);
+        super.cleanup(context);
     }
 }
\ No newline at end of file
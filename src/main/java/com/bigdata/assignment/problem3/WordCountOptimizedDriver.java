@@ -8,11 +8,33 @@ import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.CombineTextInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.LazyOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.util.ReflectionUtils;
+
+import com.bigdata.assignment.common.ChunkInputFormat;
+import com.bigdata.assignment.common.CombineChunkInputFormat;
+import com.bigdata.assignment.common.CompressionCodecs;
+import com.bigdata.assignment.common.CountMinSketch;
+import com.bigdata.assignment.common.ExternalFrequencySorter;
+import com.bigdata.assignment.common.HyperLogLog;
+import com.bigdata.assignment.common.JobReport;
+import com.bigdata.assignment.common.PartFileMerger;
+import com.bigdata.assignment.common.PartFilePrefetcher;
+import com.bigdata.assignment.common.ResultCache;
+import com.bigdata.assignment.common.ShuffleTypes;
+import com.bigdata.assignment.common.TopKHeap;
 
 /**
  * 题目三：性能优化的WordCount Driver
@@ -20,6 +42,20 @@ import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
  */
 public class WordCountOptimizedDriver {
     
+    /** topk 参数未指定 K 时的默认值 */
+    private static final int DEFAULT_TOP_K = 1000;
+    
+    /** combine 参数未指定大小时每个合并分片的目标大小（MB），与默认块大小一致 */
+    private static final int DEFAULT_COMBINE_SPLIT_MB = 128;
+    
+    /** 输入分析时最多逐个列出的文件数 */
+    private static final int MAX_LISTED_FILES = 20;
+    
+    // 缓存命中时恢复的文件（完整的 part-r-* 不缓存）
+    private static final String[] CACHED_FILES = {
+        "word-count-results.txt", "performance-report.txt", JobReport.JSON_FILE, JobReport.CSV_FILE, "_SUCCESS"
+    };
+    
     public static void main(String[] args) throws Exception {
         
         // hadoop jar 命令总是把主类名作为第一个参数，需要跳过
@@ -39,15 +75,73 @@ public class WordCountOptimizedDriver {
         }
         
         // 检查命令行参数
-        if (actualArgs.length != 2) {
-            System.err.println("Usage: WordCountOptimizedDriver <input> <output>");
-            System.err.println("Example: WordCountOptimizedDriver /public/data/wordcount /user/<student_id>/homework1/problem3");
+        if (actualArgs.length < 2) {
+            printUsage();
             System.exit(-1);
         }
         
         // 使用实际参数
         args = actualArgs;
         
+        // 可选的 Shuffle 类型参数
+        boolean rawKey = false;
+        boolean vintCounts = false;
+        int topK = 0;
+        boolean keepFullOutput = false;
+        boolean approximate = false;
+        int heavyHitters = 0;
+        boolean chunkInput = false;
+        int chunkBytes = 0;
+        long combineSplitBytes = 0;
+        String mapCodec = CompressionCodecs.SNAPPY;
+        String outputCodec = CompressionCodecs.NONE;
+        boolean useCache = false;
+        String cacheDir = null;
+        for (int i = 2; i < args.length; i++) {
+            if ("rawkey".equalsIgnoreCase(args[i])) {
+                rawKey = true;
+            } else if ("vint".equalsIgnoreCase(args[i])) {
+                vintCounts = true;
+            } else if (args[i].toLowerCase().startsWith("topk")) {
+                int colon = args[i].indexOf(':');
+                topK = colon < 0 ? DEFAULT_TOP_K : Integer.parseInt(args[i].substring(colon + 1));
+            } else if ("keepfull".equalsIgnoreCase(args[i])) {
+                keepFullOutput = true;
+            } else if (args[i].toLowerCase().startsWith("approx")) {
+                approximate = true;
+                int colon = args[i].indexOf(':');
+                heavyHitters = colon < 0 ? ApproximateSummary.DEFAULT_HEAVY_HITTERS
+                    : Integer.parseInt(args[i].substring(colon + 1));
+            } else if (args[i].toLowerCase().startsWith("chunk")) {
+                chunkInput = true;
+                int colon = args[i].indexOf(':');
+                chunkBytes = colon < 0 ? 0 : Integer.parseInt(args[i].substring(colon + 1)) * 1024;
+            } else if (args[i].toLowerCase().startsWith("mapcodec:")) {
+                mapCodec = args[i].substring("mapcodec:".length()).toLowerCase();
+                CompressionCodecs.codecClass(mapCodec);
+            } else if (args[i].toLowerCase().startsWith("outcodec:")) {
+                outputCodec = args[i].substring("outcodec:".length()).toLowerCase();
+                CompressionCodecs.codecClass(outputCodec);
+            } else if ("cache".equalsIgnoreCase(args[i]) || args[i].toLowerCase().startsWith("cache:")) {
+                useCache = true;
+                cacheDir = args[i].length() > "cache:".length() ? args[i].substring("cache:".length()) : null;
+            } else if (args[i].toLowerCase().startsWith("combine")) {
+                int colon = args[i].indexOf(':');
+                combineSplitBytes = (colon < 0 ? DEFAULT_COMBINE_SPLIT_MB
+                    : Long.parseLong(args[i].substring(colon + 1))) << 20;
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                printUsage();
+                System.exit(-1);
+            }
+        }
+        
+        if (approximate && topK > 0) {
+            System.err.println("approx and topk cannot be used together");
+            printUsage();
+            System.exit(-1);
+        }
+        
         // TODO: 创建 Configuration 和 Job 对象
         Configuration conf = new Configuration();
         
@@ -59,26 +153,75 @@ public class WordCountOptimizedDriver {
         conf.set("mapreduce.map.sort.spill.percent", "0.8"); // 80%时spill，减少spill次数
         conf.set("mapreduce.map.combine.minspills", "1"); // 只要有spill就触发combiner
         conf.set("mapreduce.reduce.shuffle.parallelcopies", "10"); // 增加并行度
-        conf.setBoolean("mapreduce.map.output.compress", true); // 开启Map输出压缩
-        conf.set("mapreduce.map.output.compress.codec", "org.apache.hadoop.io.compress.SnappyCodec"); // 使用Snappy压缩
+        // Map 输出压缩（默认 Snappy）和最终输出压缩（默认不压缩），所需的库不可用时退回 deflate
+        mapCodec = CompressionCodecs.configureMapOutput(conf, mapCodec);
+        outputCodec = CompressionCodecs.configureOutput(conf, outputCodec);
+        System.out.println("Map output codec: " + mapCodec + ", output codec: " + outputCodec);
+        
+        // Top-K 模式：Reducer 只输出本地 Top-K 候选，Driver 合并后写出全局 Top-K
+        if (topK > 0) {
+            conf.setInt(WordCountOptimizedReducer.TOP_K_KEY, topK);
+            conf.setBoolean(WordCountOptimizedReducer.TOP_K_FULL_OUTPUT_KEY, keepFullOutput);
+            System.out.println("Top-K mode: K=" + topK + (keepFullOutput ? ", keeping full part-r-* output" : ""));
+        }
+        
+        // 近似计数模式：每个 Mapper 只输出一条 Sketch 汇总，由单个 Reducer 合并
+        if (approximate) {
+            conf.setBoolean(ApproximateSummary.MODE_KEY, true);
+            conf.setInt(ApproximateSummary.HEAVY_HITTERS_KEY, heavyHitters);
+            System.out.println("Approximate mode: Count-Min Sketch + HyperLogLog, top " + heavyHitters + " heavy hitters");
+        }
         
-        Job job = Job.getInstance(conf, "optimized word count");
+        Job job = Job.getInstance(conf, approximate ? "approximate word count" : "optimized word count");
         
         // TODO: 设置基本 Job 参数
         // 1. 设置 JAR 文件
         job.setJarByClass(WordCountOptimizedDriver.class);
         
         // 2. 设置 Mapper、Combiner 和 Reducer 类
-        job.setMapperClass(WordCountOptimizedMapper.class);
-        job.setCombinerClass(WordCountOptimizedCombiner.class);
-        job.setReducerClass(WordCountOptimizedReducer.class);
+        if (approximate) {
+            job.setMapperClass(ApproximateCountMapper.class);
+            job.setReducerClass(ApproximateCountReducer.class);
+        } else {
+            job.setMapperClass(WordCountOptimizedMapper.class);
+            job.setCombinerClass(WordCountOptimizedCombiner.class);
+            job.setReducerClass(WordCountOptimizedReducer.class);
+        }
         
-        // 3. 设置输出键值对类型
+        // 3. 设置输出键值对类型（Map 输出可选用 memcmp 键 / 变长计数）
         job.setOutputKeyClass(Text.class);
         job.setOutputValueClass(IntWritable.class);
+        if (approximate) {
+            job.setMapOutputKeyClass(NullWritable.class);
+            job.setMapOutputValueClass(ApproximateSummary.class);
+        } else {
+            ShuffleTypes.configure(job, rawKey, vintCounts);
+        }
+        if (topK > 0) {
+            MultipleOutputs.addNamedOutput(job, WordCountOptimizedReducer.TOP_K_NAMED_OUTPUT,
+                TextOutputFormat.class, Text.class, IntWritable.class);
+            if (!keepFullOutput) {
+                // 不输出完整结果时避免生成空的 part-r-* 文件
+                LazyOutputFormat.setOutputFormatClass(job, TextOutputFormat.class);
+            }
+        }
+        // 按块读取输入：每条记录为一块完整的行，Mapper 在一个循环中切分整块
+        if (chunkInput) {
+            ChunkInputFormat.configure(job, chunkBytes);
+            System.out.println("Chunk input: " + job.getConfiguration().getInt(ChunkInputFormat.CHUNK_BYTES_KEY,
+                ChunkInputFormat.DEFAULT_CHUNK_BYTES) + " bytes per record");
+        }
+        // 小文件模式：按节点/机架就近把多个文件打包成不超过目标大小的分片，避免每个小文件一个 Map 任务
+        if (combineSplitBytes > 0) {
+            job.setInputFormatClass(chunkInput ? CombineChunkInputFormat.class : CombineTextInputFormat.class);
+            CombineFileInputFormat.setMaxInputSplitSize(job, combineSplitBytes);
+            System.out.println("Combined input splits: up to " + combineSplitBytes + " bytes per split");
+        }
+        System.out.println("Map output key/value: " + job.getMapOutputKeyClass().getSimpleName()
+            + " / " + job.getMapOutputValueClass().getSimpleName());
         
         // 4. 设置 Reduce 任务数量（可根据数据量调整）
-        job.setNumReduceTasks(2);
+        job.setNumReduceTasks(approximate ? 1 : 2);
         
         // TODO: 实现 HDFS 操作
         FileSystem fs = FileSystem.get(URI.create(args[0]), conf);
@@ -97,19 +240,34 @@ public class WordCountOptimizedDriver {
         FileStatus[] files = fs.listStatus(inputPath);
         long totalSize = 0;
         int fileCount = 0;
+        long splitSize = conf.getLong("mapreduce.input.fileinputformat.split.maxsize", 134217728);
+        int estimatedMapTasks = 0;
         for (FileStatus file : files) {
             if (file.isFile()) {
-                System.out.println("File: " + file.getPath().getName() + ", Size: " + file.getLen() + " bytes");
+                if (fileCount < MAX_LISTED_FILES) {
+                    System.out.println("File: " + file.getPath().getName() + ", Size: " + file.getLen() + " bytes");
+                }
                 totalSize += file.getLen();
                 fileCount++;
+                // 未合并时每个文件至少一个分片
+                estimatedMapTasks += Math.max(1, (int) Math.ceil((double) file.getLen() / splitSize));
             }
         }
+        if (fileCount > MAX_LISTED_FILES) {
+            System.out.println("... and " + (fileCount - MAX_LISTED_FILES) + " more files");
+        }
         System.out.println("Total: " + fileCount + " files, Total size: " + totalSize + " bytes");
         
-        // 估算Map任务数
-        long splitSize = conf.getLong("mapreduce.input.fileinputformat.split.maxsize", 134217728);
-        int estimatedMapTasks = (int) Math.ceil((double) totalSize / splitSize);
-        System.out.println("Estimated Map tasks: " + estimatedMapTasks + " (based on split size: " + splitSize + " bytes)");
+        // 估算Map任务数：合并模式下直接计算实际分片
+        if (combineSplitBytes > 0) {
+            int splits = countSplits(job, inputPath);
+            System.out.println("Combined splits: " + splits + " splits for " + fileCount + " files"
+                + " (uncombined: " + estimatedMapTasks + ", "
+                + String.format("%.1f", (double) fileCount / Math.max(1, splits)) + " files per split)");
+            estimatedMapTasks = splits;
+        }
+        System.out.println("Estimated Map tasks: " + estimatedMapTasks + " (based on split size: "
+            + (combineSplitBytes > 0 ? combineSplitBytes : splitSize) + " bytes)");
         
         // 2. 删除已存在的输出目录
         Path outputPath = new Path(args[1]);
@@ -125,6 +283,21 @@ public class WordCountOptimizedDriver {
         // 2. 使用 FileOutputFormat.setOutputPath()
         FileOutputFormat.setOutputPath(job, outputPath);
         
+        // 结果缓存：输入文件、配置和代码都未变化时跳过作业，直接复制上次的结果和报告
+        ResultCache cache = null;
+        String cacheKey = null;
+        if (useCache) {
+            cache = new ResultCache(conf, cacheDir);
+            cacheKey = cache.fingerprint(job, WordCountOptimizedDriver.class, ExternalFrequencySorter.class);
+            long restoreTime = cache.restore(cacheKey, fs, outputPath);
+            if (restoreTime >= 0) {
+                System.out.println("Cache hit: " + cacheKey + ", job skipped, results copied from " + cache.getCacheDir()
+                    + " in " + restoreTime + " ms");
+                return;
+            }
+            System.out.println("Cache miss: " + cacheKey);
+        }
+        
         // 记录开始时间
         long startTime = System.currentTimeMillis();
         System.out.println("=== Starting Optimized MapReduce Job ===");
@@ -158,6 +331,10 @@ public class WordCountOptimizedDriver {
             System.out.println("Map output records: " + mapOutputRecords);
             System.out.println("HDFS bytes read: " + mapInputBytes);
             System.out.println("Spilled records: " + spilledRecords);
+            System.out.println("Map output bytes: "
+                + counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_BYTES").getValue());
+            System.out.println("Map output materialized bytes: "
+                + counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_MATERIALIZED_BYTES").getValue());
             
             if (mapInputRecords > 0) {
                 double throughputRecords = (double) mapInputRecords / ((endTime - startTime) / 1000.0);
@@ -179,7 +356,7 @@ public class WordCountOptimizedDriver {
             
             // Reduce阶段统计
             long reduceInputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "REDUCE_INPUT_RECORDS").getValue();
-            long reduceOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "REDUCE_OUTPUT_RECORDS").getValue();
+            long reduceOutputRecords = getUniqueWords(counters, job.getConfiguration());
             long hdfsWriteBytes = counters.findCounter("org.apache.hadoop.mapreduce.FileSystemCounter", "HDFS_BYTES_WRITTEN").getValue();
             
             System.out.println("\n--- Reduce Phase Performance ---");
@@ -212,13 +389,17 @@ public class WordCountOptimizedDriver {
             }
             
             System.out.println("\nResults saved to: " + args[1]);
-            System.out.println("Main result file: " + args[1] + "/part-r-00000");
-            if (job.getNumReduceTasks() > 1) {
-                System.out.println("Other result files: " + args[1] + "/part-r-00001");
+            System.out.println("Main result file: " + args[1] + "/word-count-results.txt");
+            for (Path partFile : PartFileMerger.listPartFiles(fs, outputPath)) {
+                System.out.println("Partition result file: " + args[1] + "/" + partFile.getName());
             }
             
             // 生成 word-count-results.txt 和 performance-report.txt
-            generateOutputFiles(fs, outputPath, counters, endTime - startTime, fileCount, totalSize);
+            generateOutputFiles(fs, outputPath, job, counters, endTime - startTime, fileCount, totalSize);
+            if (cache != null) {
+                cache.store(cacheKey, fs, outputPath, CACHED_FILES);
+                System.out.println("Results cached: " + new Path(cache.getCacheDir(), cacheKey));
+            }
             
         } else {
             System.err.println("Job execution failed!");
@@ -229,101 +410,197 @@ public class WordCountOptimizedDriver {
     /**
      * 生成 word-count-results.txt 和 performance-report.txt 文件
      */
-    private static void generateOutputFiles(FileSystem fs, Path outputPath, Counters counters,
-                                           long processingTime, int fileCount, long totalSize) throws IOException {
+    private static void generateOutputFiles(FileSystem fs, Path outputPath, Job job, Counters counters,
+                                           long processingTime, int fileCount, long totalSize)
+            throws IOException, InterruptedException {
         System.out.println("\n=== Generating Output Files ===");
+        long postProcessingStart = System.currentTimeMillis();
         
-        // 1. 读取所有 part-r-* 文件并按频率排序
-        java.util.List<WordCount> wordCounts = new java.util.ArrayList<>();
-        FileStatus[] partFiles = fs.globStatus(new Path(outputPath, "part-r-*"));
+        int topK = job.getConfiguration().getInt(WordCountOptimizedReducer.TOP_K_KEY, 0);
         
-        if (partFiles != null && partFiles.length > 0) {
-            for (FileStatus partFile : partFiles) {
-                System.out.println("Reading file: " + partFile.getPath().getName());
-                org.apache.hadoop.fs.FSDataInputStream in = fs.open(partFile.getPath());
-                java.io.BufferedReader reader = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(in, java.nio.charset.StandardCharsets.UTF_8));
-                
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split("\t");
-                    if (parts.length == 2) {
-                        String word = parts[0];
-                        int count = Integer.parseInt(parts[1]);
-                        wordCounts.add(new WordCount(word, count));
-                    }
+        // 1. Top-K 模式：只合并各 Reducer 的 K 个候选
+        if (topK > 0) {
+            writeTopK(fs, outputPath, topK);
+        }
+        
+        // 读取所有 part-r-* 文件并按频率排序
+        // 外部归并排序：超过内存预算时溢写为本地有序 run，再 k 路归并，Driver 内存不随词汇量增长
+        // 各分区文件由 PartFilePrefetcher 并发打开、按大块预读，排序线程只做解析
+        java.util.List<Path> partPaths = PartFileMerger.listPartFiles(fs, outputPath);
+        
+        if (topK == 0 && !partPaths.isEmpty()) {
+            ExternalFrequencySorter sorter = ExternalFrequencySorter.fromConf(job.getConfiguration());
+            try (PartFilePrefetcher parts = new PartFilePrefetcher(fs, partPaths, job.getConfiguration())) {
+                for (int i = 0; i < parts.getFileCount(); i++) {
+                    System.out.println("Reading file: " + parts.getPath(i).getName());
+                    sorter.addAll(parts.open(i));
                 }
-                reader.close();
             }
             
             // 按频率降序排序
-            System.out.println("Sorting... Total " + wordCounts.size() + " words");
-            wordCounts.sort((a, b) -> {
-                int cmp = Integer.compare(b.count, a.count); // 降序
-                if (cmp == 0) {
-                    return a.word.compareTo(b.word); // 频率相同时按字典序
-                }
-                return cmp;
-            });
+            System.out.println("Sorting... Total " + sorter.getTotalRecords() + " words"
+                + (sorter.getRunCount() > 0 ? " (" + sorter.getRunCount() + " spilled runs)" : ""));
             
             // 写入 word-count-results.txt
             Path resultsPath = new Path(outputPath, "word-count-results.txt");
-            org.apache.hadoop.fs.FSDataOutputStream resultsOut = fs.create(resultsPath);
-            for (WordCount wc : wordCounts) {
-                resultsOut.writeBytes(wc.word + "\t" + wc.count + "\n");
+            try (org.apache.hadoop.fs.FSDataOutputStream resultsOut = fs.create(resultsPath)) {
+                sorter.writeSorted(resultsOut);
             }
-            resultsOut.close();
             System.out.println("word-count-results.txt file generated");
         }
+        long postProcessingTime = System.currentTimeMillis() - postProcessingStart;
+        System.out.println("Post-processing time: " + postProcessingTime + " ms");
         
-        // 2. 生成 performance-report.txt
+        // 2. 生成 performance-report.txt，并写出 JSON/CSV 格式的作业报告
         Path reportPath = new Path(outputPath, "performance-report.txt");
-        org.apache.hadoop.fs.FSDataOutputStream reportOut = fs.create(reportPath);
         
         // 获取所有需要的统计数据
-        long mapOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_RECORDS").getValue();
-        long reduceOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "REDUCE_OUTPUT_RECORDS").getValue();
+        boolean approximate = job.getConfiguration().getBoolean(ApproximateSummary.MODE_KEY, false);
+        long mapOutputRecords = approximate
+            ? counters.findCounter(ApproximateSummary.COUNTER_GROUP, ApproximateSummary.TOTAL_WORDS_COUNTER).getValue()
+            : counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "MAP_OUTPUT_RECORDS").getValue();
+        long reduceOutputRecords = getUniqueWords(counters, job.getConfiguration());
         long combineInputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "COMBINE_INPUT_RECORDS").getValue();
         long combineOutputRecords = counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "COMBINE_OUTPUT_RECORDS").getValue();
         
-        // 从Counter名称推断任务数（这是一个近似值）
-        int mapTasksCount = 700; // 可以从 Job 对象获取实际值
-        int reduceTasksCount = 2; // 从配置中知道
+        // 任务数取自任务报告（本地运行时为分片数）
+        JobReport report = JobReport.fromJob(job, processingTime);
         
         // 构建性能报告
-        StringBuilder report = new StringBuilder();
-        report.append("total_processing_time\t").append(processingTime).append("\n");
-        report.append("input_files\t").append(fileCount).append("\n");
-        report.append("input_size_bytes\t").append(totalSize).append("\n");
-        report.append("map_tasks_count\t").append(mapTasksCount).append("\n");
-        report.append("reduce_tasks_count\t").append(reduceTasksCount).append("\n");
-        report.append("total_words\t").append(mapOutputRecords).append("\n");
-        report.append("unique_words\t").append(reduceOutputRecords).append("\n");
-        report.append("combiner_enabled\ttrue\n");
-        report.append("combiner_compression_ratio\t");
-        if (combineInputRecords > 0) {
-            double ratio = (1.0 - (double)combineOutputRecords / combineInputRecords) * 100;
-            report.append(String.format("%.2f", ratio)).append("\n");
-        } else {
-            report.append("0.00\n");
+        report.putDetail("post_processing_time_ms", postProcessingTime);
+        report.put("total_processing_time", processingTime)
+              .put("input_files", fileCount)
+              .put("input_size_bytes", totalSize)
+              .put("map_tasks_count", report.getMapTaskCount())
+              .put("reduce_tasks_count", report.getReduceTaskCount())
+              .put("total_words", mapOutputRecords)
+              .put("unique_words", reduceOutputRecords)
+              .put("combiner_enabled", !approximate);
+        if (topK > 0) {
+            report.put("top_k", topK);
+        }
+        Class<?> inputFormat = job.getConfiguration().getClass(MRJobConfig.INPUT_FORMAT_CLASS_ATTR, null);
+        if (inputFormat != null && CombineFileInputFormat.class.isAssignableFrom(inputFormat)) {
+            report.put("combine_split_max_bytes", job.getConfiguration().getLong(FileInputFormat.SPLIT_MAXSIZE, 0))
+                  .put("files_per_map_task", (double) fileCount / Math.max(1, report.getMapTaskCount()), 2);
         }
+        if (approximate) {
+            // 误差说明：unique_words 为 HyperLogLog 估计值，word-count-results.txt 中的计数为 Count-Min Sketch 估计值
+            Configuration conf = job.getConfiguration();
+            CountMinSketch bounds = CountMinSketch.withErrorBounds(ApproximateSummary.getEpsilon(conf),
+                conf.getDouble(ApproximateSummary.CMS_DELTA_KEY, ApproximateSummary.DEFAULT_CMS_DELTA));
+            HyperLogLog precision = new HyperLogLog(
+                conf.getInt(ApproximateSummary.HLL_PRECISION_KEY, ApproximateSummary.DEFAULT_HLL_PRECISION));
+            report.put("approximate", true)
+                  .put("unique_words_relative_error", precision.getRelativeError(), 4)
+                  .put("count_error_bound", Math.E / bounds.getWidth() * mapOutputRecords, 0)
+                  .put("count_error_confidence", bounds.getConfidence(), 4);
+        }
+        double ratio = combineInputRecords > 0 ? (1.0 - (double)combineOutputRecords / combineInputRecords) * 100 : 0;
+        report.put("combiner_compression_ratio", ratio, 2);
+        
+        // Shuffle 类型及相关指标，便于对比 WordKey/VIntCount 与默认 Text/IntWritable 两次运行
+        report.put("map_output_key_class", job.getMapOutputKeyClass().getSimpleName())
+              .put("map_output_value_class", job.getMapOutputValueClass().getSimpleName())
+              .put("map_output_codec", codecName(job.getConfiguration(), "mapreduce.map.output.compress"))
+              .put("output_codec", codecName(job.getConfiguration(), "mapreduce.output.fileoutputformat.compress"))
+              .put("map_output_bytes", report.getTaskCounter("MAP_OUTPUT_BYTES"))
+              .put("map_output_materialized_bytes", report.getTaskCounter("MAP_OUTPUT_MATERIALIZED_BYTES"))
+              .put("spilled_records", report.getTaskCounter("SPILLED_RECORDS"))
+              .put("cpu_time_ms", report.getTaskCounter("CPU_MILLISECONDS"));
         
-        reportOut.writeBytes(report.toString());
-        reportOut.close();
+        report.writeMetrics(fs, reportPath);
+        report.write(fs, outputPath);
         System.out.println("performance-report.txt file generated");
         System.out.println("=====================================");
     }
     
     /**
-     * 辅助类：单词计数对
+     * 合并所有 topk-r-* 中的候选，写出全局 Top-K 到 word-count-results.txt
+     * 每个单词只属于一个 Reducer，全局 Top-K 必然在某个 Reducer 的本地 Top-K 中
      */
-    private static class WordCount {
-        String word;
-        int count;
+    private static void writeTopK(FileSystem fs, Path outputPath, int topK) throws IOException {
+        TopKHeap heap = new TopKHeap(topK);
+        FileStatus[] candidateFiles = fs.globStatus(
+            new Path(outputPath, WordCountOptimizedReducer.TOP_K_NAMED_OUTPUT + "-r-*"));
+        int candidates = 0;
+        if (candidateFiles != null) {
+            for (FileStatus candidateFile : candidateFiles) {
+                try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(
+                        CompressionCodecs.open(fs, candidateFile.getPath()), java.nio.charset.StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int tab = line.indexOf('\t');
+                        if (tab >= 0) {
+                            byte[] word = line.substring(0, tab).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                            heap.offer(word, 0, word.length, Integer.parseInt(line.substring(tab + 1)));
+                            candidates++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.println("Merging " + candidates + " top-K candidates into top " + heap.size());
         
-        WordCount(String word, int count) {
-            this.word = word;
-            this.count = count;
+        Path resultsPath = new Path(outputPath, "word-count-results.txt");
+        try (java.io.OutputStream out = new java.io.BufferedOutputStream(fs.create(resultsPath), 1 << 16)) {
+            for (int slot : heap.sortedSlots()) {
+                out.write(heap.keyBytes(slot), 0, heap.keyLength(slot));
+                out.write(('\t' + Integer.toString(heap.count(slot)) + '\n')
+                    .getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            }
         }
+        System.out.println("word-count-results.txt file generated (top " + heap.size() + ")");
+    }
+    
+    /**
+     * 作业实际使用的压缩格式类名（未压缩时为 none）
+     */
+    private static String codecName(Configuration conf, String compressKey) {
+        return conf.getBoolean(compressKey, false) ? conf.get(compressKey + ".codec") : CompressionCodecs.NONE;
+    }
+    
+    /**
+     * 用作业的输入格式计算输入目录的分片数（与提交作业时的计算相同）
+     */
+    private static int countSplits(Job job, Path inputPath)
+            throws IOException, InterruptedException, ClassNotFoundException {
+        Job probe = Job.getInstance(job.getConfiguration());
+        FileInputFormat.addInputPath(probe, inputPath);
+        InputFormat<?, ?> format = ReflectionUtils.newInstance(job.getInputFormatClass(), probe.getConfiguration());
+        return format.getSplits(probe).size();
+    }
+    
+    /**
+     * Top-K 模式下 part-r-* 可能为空，唯一单词数改用 Reducer 的 "Unique Words" 计数器；
+     * 近似模式下使用 HyperLogLog 的估计值
+     */
+    private static long getUniqueWords(Counters counters, Configuration conf) {
+        if (conf.getBoolean(ApproximateSummary.MODE_KEY, false)) {
+            return counters.findCounter(ApproximateSummary.COUNTER_GROUP, ApproximateSummary.UNIQUE_WORDS_COUNTER).getValue();
+        }
+        if (conf.getInt(WordCountOptimizedReducer.TOP_K_KEY, 0) > 0) {
+            return counters.findCounter("Final Results", "Unique Words").getValue();
+        }
+        return counters.findCounter("org.apache.hadoop.mapreduce.TaskCounter", "REDUCE_OUTPUT_RECORDS").getValue();
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage: WordCountOptimizedDriver <input> <output> [rawkey] [vint] [topk[:K]] [keepfull] [approx[:K]] [chunk[:KB]] [combine[:MB]] [mapcodec:C] [outcodec:C] [cache[:DIR]]");
+        System.err.println("Example: WordCountOptimizedDriver /public/data/wordcount /user/<student_id>/homework1/problem3");
+        System.err.println("  rawkey: Map 输出键使用 WordKey（序列化字节直接 memcmp 比较）");
+        System.err.println("  vint:   Map 输出计数使用变长整数 VIntCount");
+        System.err.println("  topk[:K]: 只输出频率最高的 K 个单词（默认 " + DEFAULT_TOP_K + "），各 Reducer 用有界堆输出候选");
+        System.err.println("  keepfull: Top-K 模式下仍保留完整的 part-r-* 输出");
+        System.err.println("  approx[:K]: 近似模式，Count-Min Sketch + HyperLogLog 估计前 K 个高频单词和唯一单词数（默认 K="
+            + ApproximateSummary.DEFAULT_HEAVY_HITTERS + "）");
+        System.err.println("  chunk[:KB]: 使用 ChunkInputFormat，每条 Map 输入记录为一块完整的行（默认 "
+            + ChunkInputFormat.DEFAULT_CHUNK_BYTES / 1024 + "KB）");
+        System.err.println("  combine[:MB]: 小文件模式，按节点/机架把多个文件合并为不超过 MB 的分片（默认 "
+            + DEFAULT_COMBINE_SPLIT_MB + "MB），可与 chunk 组合");
+        System.err.println("  mapcodec:C / outcodec:C: Map 输出 / 最终输出的压缩格式，C 为 none、snappy、lz4、zstd 或 deflate"
+            + "（默认 snappy / none，不可用时退回 deflate）");
+        System.err.println("  cache[:DIR]: 输入和配置未变化时跳过作业，从缓存目录恢复 word-count-results.txt 和报告"
+            + "（默认目录为主目录下的 .wordcount-cache）");
     }
 }
@@ -1,13 +1,17 @@
 package com.bigdata.assignment.problem3;
 
 import java.io.IOException;
-import java.util.StringTokenizer;
 
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Mapper;
 
+import com.bigdata.assignment.common.BatchedCounters;
+import com.bigdata.assignment.common.ChunkInputFormat;
+import com.bigdata.assignment.common.ShuffleTypes;
+import com.bigdata.assignment.common.WordTokenizer;
+
 /**
  * 题目三：WordCount 优化版Mapper实现
  * 功能：处理大规模文本数据，支持性能监控和调优
@@ -16,43 +20,58 @@ public class WordCountOptimizedMapper extends Mapper<LongWritable, Text, Text, I
     
     private Text word = new Text();
     private IntWritable one = new IntWritable(1);
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    
+    // 自定义计数器在本地累加，cleanup 时统一发布
+    private final BatchedCounters counters = new BatchedCounters();
+    private final int linesProcessed = counters.add("Custom Counters", "Lines Processed");
+    private final int wordsProcessed = counters.add("Custom Counters", "Words Processed");
+    private final int errorLines = counters.add("Custom Counters", "Error Lines");
+    
+    // 输入为 ChunkInputFormat 时每条记录是一块完整的行，整块在一个循环中切分
+    private boolean chunked;
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        super.setup(context);
+        // 键值对象类型需与 Driver 选择的 Map 输出类型一致（Text/WordKey，IntWritable/VIntCount）
+        word = ShuffleTypes.newKey(context);
+        one = ShuffleTypes.newCount(context, 1);
+        counters.setup(context);
+        chunked = ChunkInputFormat.isChunked(context);
+    }
 
     @Override
     public void map(LongWritable key, Text value, Context context)
             throws IOException, InterruptedException {
         
         try {
-            // TODO: 实现优化的 map 方法
-            // 1. 将输入行转换为小写并分割为单词
-            String line = value.toString().toLowerCase();
+            // 1. 在 UTF-8 字节上直接切分：转小写、过滤非字母字符和长度小于2的单词，
+            //    不再为每行创建 String / 正则 / StringTokenizer
+            tokenizer.reset(value);
             
-            // 2. 过滤非字母字符，只保留有效单词
-            line = line.replaceAll("[^a-zA-Z\\s]", " ");
+            // 2. 添加计数器统计处理的单词数和行数
+            counters.increment(linesProcessed, chunked ? ChunkInputFormat.countLines(value) : 1);
             
-            // 3. 按空格分词
-            StringTokenizer tokenizer = new StringTokenizer(line);
-            
-            // 4. 添加计数器统计处理的单词数和行数
-            context.getCounter("Custom Counters", "Lines Processed").increment(1);
-            
-            // 5. 遍历每个单词并输出
-            while (tokenizer.hasMoreTokens()) {
-                String token = tokenizer.nextToken().trim();
+            // 3. 遍历每个单词并输出
+            while (tokenizer.next(word)) {
+                context.write(word, one);
                 
-                // 过滤长度小于2的单词
-                if (!token.isEmpty() && token.length() >= 2) {
-                    word.set(token);
-                    context.write(word, one);
-                    
-                    // 统计处理的单词数
-                    context.getCounter("Custom Counters", "Words Processed").increment(1);
-                }
+                // 统计处理的单词数
+                counters.increment(wordsProcessed);
             }
             
         } catch (Exception e) {
             // 6. 异常处理：跳过无效行并记录日志
             System.err.println("处理行时发生错误: " + e.getMessage());
-            context.getCounter("Custom Counters", "Error Lines").increment(1);
+            counters.increment(errorLines);
         }
+        counters.tick(context);
+    }
+
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        counters.flush(context);
+        super.cleanup(context);
     }
 }
\ No newline at end of file
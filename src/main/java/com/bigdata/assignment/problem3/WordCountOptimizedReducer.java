@@ -2,17 +2,50 @@ package com.bigdata.assignment.problem3;
 
 import java.io.IOException;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+
+import com.bigdata.assignment.common.BatchedCounters;
+import com.bigdata.assignment.common.TopKHeap;
 
 /**
  * 题目三：WordCount 优化版Reducer实现
  * 功能：最终聚合统计，支持性能监控和结果排序
+ *
+ * Top-K 模式（wordcount.topk &gt; 0）：
+ * - 每个 Reducer 用有界最小堆保留本地计数最高的 K 个单词，在 cleanup 中写入名为 "topk" 的输出（topk-r-*）
+ * - Driver 合并 K×R 个候选得到全局 Top-K，不再排序全部词汇
+ * - 完整的 part-r-* 输出默认关闭，可通过 wordcount.topk.full.output=true 保留
  */
 public class WordCountOptimizedReducer extends Reducer<Text, IntWritable, Text, IntWritable> {
-    
+
+    public static final String TOP_K_KEY = "wordcount.topk";
+    public static final String TOP_K_FULL_OUTPUT_KEY = "wordcount.topk.full.output";
+    public static final String TOP_K_NAMED_OUTPUT = "topk";
+
     private IntWritable result = new IntWritable();
+    private TopKHeap topK;
+    private boolean fullOutput = true;
+    private MultipleOutputs<Text, IntWritable> multipleOutputs;
+
+    private final BatchedCounters counters = new BatchedCounters();
+    private final int uniqueWords = counters.add("Final Results", "Unique Words");
+    private final int totalWordCount = counters.add("Final Results", "Total Word Count");
+
+    @Override
+    protected void setup(Context context) throws IOException, InterruptedException {
+        Configuration conf = context.getConfiguration();
+        counters.setup(context);
+        int k = conf.getInt(TOP_K_KEY, 0);
+        if (k > 0) {
+            topK = new TopKHeap(k);
+            fullOutput = conf.getBoolean(TOP_K_FULL_OUTPUT_KEY, false);
+            multipleOutputs = new MultipleOutputs<>(context);
+        }
+    }
 
     @Override
     public void reduce(Text key, Iterable<IntWritable> values, Context context)
@@ -28,11 +61,33 @@ public class WordCountOptimizedReducer extends Reducer<Text, IntWritable, Text,
         }
         
         // 3. 输出最终结果：(单词, 总计数)
-        result.set(sum);
-        context.write(key, result);
+        if (topK != null) {
+            topK.offer(key.getBytes(), 0, key.getLength(), sum);
+        }
+        if (fullOutput) {
+            result.set(sum);
+            context.write(key, result);
+        }
         
         // 4. 添加计数器统计最终输出的单词数
-        context.getCounter("Final Results", "Unique Words").increment(1);
-        context.getCounter("Final Results", "Total Word Count").increment(sum);
+        counters.increment(uniqueWords);
+        counters.increment(totalWordCount, sum);
+        counters.tick(context);
+    }
+
+    @Override
+    protected void cleanup(Context context) throws IOException, InterruptedException {
+        counters.flush(context);
+        if (topK == null) {
+            return;
+        }
+        // 输出本地 Top-K 候选（计数降序）
+        Text word = new Text();
+        for (int slot : topK.sortedSlots()) {
+            word.set(topK.keyBytes(slot), 0, topK.keyLength(slot));
+            result.set(topK.count(slot));
+            multipleOutputs.write(TOP_K_NAMED_OUTPUT, word, result);
+        }
+        multipleOutputs.close();
     }
-}
\ No newline at end of file
+}
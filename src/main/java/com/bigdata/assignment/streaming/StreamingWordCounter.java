@@ -0,0 +1,461 @@
+package com.bigdata.assignment.streaming;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileContext;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Options;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.util.GenericOptionsParser;
+
+import com.bigdata.assignment.common.WordCountHashTable;
+import com.bigdata.assignment.common.WordTokenizer;
+
+/**
+ * 流式 WordCount：持续监视输入目录，新文件到达后几秒内更新计数
+ * 功能：轮询本地或 HDFS 目录（listStatus，不需要 HDFS inotify 的超级用户权限），
+ * 对新文件和已有文件追加的内容用与 WordCountOptimizedMapper 相同的 WordTokenizer + WordCountHashTable 计数，
+ * 维护累计总数、滚动窗口和滑动窗口（见 WindowedCounts），并定期写检查点
+ *
+ * - 有界内存：文件按 1MB 缓冲区流式读取（在最后一个 '\n' 处切开，不会截断单词或 UTF-8 字符），
+ *   状态只包含累计词汇量和窗口内的 pane
+ * - 文件末尾没有 '\n' 的不完整行先不计数，下一次轮询时与追加的内容一起读取；
+ *   下一次轮询时文件长度不变（或 once 模式）才把它作为最后一行计数
+ * - 文件的修改时间早于 settle 秒之前才会被读取，避免读到正在写入的文件；
+ *   写入方仍应先写 _ 或 . 开头的临时文件再重命名（这类文件被忽略）
+ * - 检查点同时记录状态和每个文件已读取的字节数，重启后从检查点继续，已计数的内容不会重复计数；
+ *   检查点之后读取的内容会在重启后重新读取一次
+ * - 已读取的文件长度变小（被替换）时只打印警告，不重复计数；压缩文件只在首次出现时整体读取
+ *
+ * 输出目录（均为先写临时文件再原子 rename）：
+ *   running-top.txt          - 累计 Top-K（每个滑动步长更新）
+ *   sliding-top.txt          - 最近一个窗口的 Top-K（每个滑动步长更新）
+ *   tumbling/window-*.txt    - 每个已结束的滚动窗口的完整计数（频率降序），空窗口不输出
+ *   words.txt                - 累计计数（字典序，每次检查点更新）
+ *   _checkpoint              - 检查点
+ *
+ * 用法：StreamingWordCounter [-D key=value ...] <watch dir> <output dir> [poll:S] [window:S] [slide:S]
+ *       [checkpoint:S] [settle:S] [top:K] [once]
+ */
+public class StreamingWordCounter {
+
+    private static final int CHECKPOINT_MAGIC = 0x57435354; // "WCST"
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    private final FileSystem inputFs;
+    private final Path watchDir;
+    private final FileSystem fs;
+    private final Path outputDir;
+    private final WindowedCounts counts;
+    private final long settleMillis;
+    private final int topK;
+    private final CompressionCodecFactory codecs;
+
+    private final WordTokenizer tokenizer = new WordTokenizer();
+    private final WordCountHashTable batch = new WordCountHashTable();
+    private byte[] buffer = new byte[READ_BUFFER_BYTES];
+
+    /** 每个文件已读取的字节数 */
+    private final Map<String, Long> processed = new LinkedHashMap<>();
+    /** 末尾只剩不完整行的文件 -> 当时的文件长度 */
+    private final Map<String, Long> partial = new LinkedHashMap<>();
+    /** 最近一次 count() 留到下一次轮询的不完整行的字节数 */
+    private long tail;
+    /** 下一个待输出的滚动窗口的结束时间 */
+    private long nextTumblingEnd;
+    private boolean dirty;
+
+    public StreamingWordCounter(Configuration conf, Path watchDir, Path outputDir, long windowMillis,
+                                long slideMillis, long settleMillis, int topK) throws IOException {
+        this.inputFs = watchDir.getFileSystem(conf);
+        this.watchDir = watchDir;
+        this.fs = outputDir.getFileSystem(conf);
+        this.outputDir = outputDir;
+        this.counts = new WindowedCounts(windowMillis, slideMillis);
+        this.settleMillis = settleMillis;
+        this.topK = topK;
+        this.codecs = new CompressionCodecFactory(conf);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuration conf = new Configuration();
+        args = new GenericOptionsParser(conf, args).getRemainingArgs();
+        if (args.length < 2) {
+            printUsage();
+            System.exit(-1);
+        }
+
+        long pollMillis = 2000;
+        long windowMillis = 60000;
+        long slideMillis = 10000;
+        long checkpointMillis = 30000;
+        long settleMillis = -1;
+        int topK = 20;
+        boolean once = false;
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            if (option.equals("once")) {
+                once = true;
+            } else if (option.startsWith("poll:")) {
+                pollMillis = seconds(option, "poll:");
+            } else if (option.startsWith("window:")) {
+                windowMillis = seconds(option, "window:");
+            } else if (option.startsWith("slide:")) {
+                slideMillis = seconds(option, "slide:");
+            } else if (option.startsWith("checkpoint:")) {
+                checkpointMillis = seconds(option, "checkpoint:");
+            } else if (option.startsWith("settle:")) {
+                settleMillis = seconds(option, "settle:");
+            } else if (option.startsWith("top:")) {
+                topK = Integer.parseInt(option.substring("top:".length()));
+            } else {
+                System.err.println("Error: Unknown option: " + args[i]);
+                printUsage();
+                System.exit(-1);
+            }
+        }
+        if (settleMillis < 0) {
+            settleMillis = pollMillis;
+        }
+
+        Path watchDir = new Path(args[0]);
+        if (!watchDir.getFileSystem(conf).exists(watchDir)) {
+            System.err.println("Error: Watch directory not found: " + args[0]);
+            System.exit(-1);
+        }
+        StreamingWordCounter counter = new StreamingWordCounter(conf, watchDir, new Path(args[1]),
+            windowMillis, slideMillis, settleMillis, topK);
+        counter.run(pollMillis, checkpointMillis, once);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: StreamingWordCounter [-D key=value ...] <watch dir> <output dir> [poll:S] [window:S] [slide:S] [checkpoint:S] [settle:S] [top:K] [once]");
+        System.err.println("Example: StreamingWordCounter /user/xxx/incoming /user/xxx/streaming window:300 slide:60");
+        System.err.println("  poll:S        轮询间隔秒数（默认 2）");
+        System.err.println("  window:S      窗口长度秒数（默认 60），必须是滑动步长的整数倍");
+        System.err.println("  slide:S       滑动步长秒数（默认 10），也是 Top-K 文件的更新间隔");
+        System.err.println("  checkpoint:S  检查点间隔秒数（默认 30）");
+        System.err.println("  settle:S      文件修改后至少经过的秒数才读取（默认与 poll 相同）");
+        System.err.println("  top:K         Top-K 文件的单词数（默认 20）");
+        System.err.println("  once:         处理当前已有的文件、写检查点后退出");
+    }
+
+    private static long seconds(String option, String prefix) {
+        return (long) (Double.parseDouble(option.substring(prefix.length())) * 1000);
+    }
+
+    /**
+     * 主循环：轮询目录 → 计数 → 输出到期的窗口 → 定期写检查点；收到退出信号时写最后一个检查点
+     */
+    public void run(long pollMillis, long checkpointMillis, boolean once) throws IOException, InterruptedException {
+        long now = System.currentTimeMillis();
+        if (restore()) {
+            System.out.println("Resumed from checkpoint: " + processed.size() + " files, "
+                + counts.getTotalWords() + " words, " + counts.getUniqueWords() + " unique");
+        } else {
+            nextTumblingEnd = counts.lastTumblingEnd(now) + counts.getWindowMillis();
+        }
+        System.out.println("Watching " + watchDir + " (window " + counts.getWindowMillis() / 1000.0 + " s, slide "
+            + counts.getSlideMillis() / 1000.0 + " s), output: " + outputDir);
+
+        final Thread mainThread = Thread.currentThread();
+        final boolean[] stopping = {false};
+        Thread hook = new Thread() {
+            @Override
+            public void run() {
+                // 不中断主线程（避免打断正在进行的读写），主线程最多在一个轮询间隔后看到退出标志
+                synchronized (stopping) {
+                    stopping[0] = true;
+                }
+                try {
+                    mainThread.join(30000);
+                } catch (InterruptedException e) {
+                    // 退出中
+                }
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(hook);
+
+        long nextSlide = now;
+        long nextCheckpoint = now + checkpointMillis;
+        while (true) {
+            poll(once);
+            now = System.currentTimeMillis();
+
+            // 输出所有已结束的滚动窗口
+            while (nextTumblingEnd <= now) {
+                // 输出过的窗口需要记入检查点，重启后不再重复输出
+                dirty |= writeTumbling(nextTumblingEnd);
+                nextTumblingEnd += counts.getWindowMillis();
+            }
+            if (now >= nextSlide || once) {
+                writeTopK(new Path(outputDir, "sliding-top.txt"), sortedTopK(counts.slidingWindow(now)));
+                writeTopK(new Path(outputDir, "running-top.txt"), counts.topTotals(topK));
+                nextSlide = now - Math.floorMod(now, counts.getSlideMillis()) + counts.getSlideMillis();
+            }
+            counts.evict(now, nextTumblingEnd - counts.getWindowMillis());
+
+            boolean stop;
+            synchronized (stopping) {
+                stop = stopping[0] || once;
+            }
+            if (stop || (dirty && now >= nextCheckpoint)) {
+                checkpoint();
+                nextCheckpoint = now + checkpointMillis;
+            }
+            if (stop) {
+                break;
+            }
+            try {
+                Thread.sleep(Math.max(1, Math.min(pollMillis, nextSlide - System.currentTimeMillis())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (once) {
+            Runtime.getRuntime().removeShutdownHook(hook);
+        }
+        System.out.println("Stopped: " + counts.getTotalWords() + " words, " + counts.getUniqueWords() + " unique");
+    }
+
+    /**
+     * 读取所有新文件和已有文件追加的内容
+     * @param flushPartial 是否立即计数文件末尾的不完整行
+     */
+    private void poll(boolean flushPartial) throws IOException {
+        long now = System.currentTimeMillis();
+        List<FileStatus> ready = new ArrayList<>();
+        for (FileStatus status : inputFs.listStatus(watchDir)) {
+            String name = status.getPath().getName();
+            if (status.isFile() && !name.startsWith("_") && !name.startsWith(".")
+                    && status.getModificationTime() <= now - settleMillis) {
+                Long done = processed.get(key(status));
+                if (done == null || done != status.getLen()) {
+                    ready.add(status);
+                }
+            }
+        }
+        // 按到达顺序处理
+        Collections.sort(ready, new Comparator<FileStatus>() {
+            @Override
+            public int compare(FileStatus a, FileStatus b) {
+                int cmp = Long.compare(a.getModificationTime(), b.getModificationTime());
+                return cmp != 0 ? cmp : a.getPath().compareTo(b.getPath());
+            }
+        });
+
+        for (FileStatus status : ready) {
+            String key = key(status);
+            Long done = processed.get(key);
+            long from = done == null ? 0 : done;
+            CompressionCodec codec = codecs.getCodec(status.getPath());
+            if (from > status.getLen() || (from > 0 && codec != null)) {
+                System.err.println("Warning: " + status.getPath() + " shrank or was rewritten (" + from + " -> "
+                    + status.getLen() + " bytes), not counted again");
+                processed.put(key, status.getLen());
+                dirty = true;
+                continue;
+            }
+
+            // 上一次轮询后没有追加内容，末尾的不完整行就是最后一行
+            Long partialLength = partial.remove(key);
+            boolean flush = flushPartial || (partialLength != null && partialLength == status.getLen());
+
+            long start = System.currentTimeMillis();
+            batch.clear();
+            long words = count(status, from, codec, flush);
+            long time = System.currentTimeMillis();
+            counts.add(time, batch);
+            processed.put(key, status.getLen() - tail);
+            if (tail > 0) {
+                partial.put(key, status.getLen());
+            }
+            dirty = true;
+            System.out.println("Counted " + status.getPath().getName() + (from > 0 ? " (appended from " + from + ")" : "")
+                + ": " + (status.getLen() - from - tail) + " bytes, " + words + " words in " + (time - start)
+                + " ms, " + (time - status.getModificationTime()) + " ms after arrival"
+                + (tail > 0 ? " (" + tail + " bytes of an unterminated last line left for the next poll)" : ""));
+        }
+    }
+
+    /**
+     * 从 from 处读取文件到其当前长度，计数写入 batch；未压缩文件末尾的不完整行只在 flushPartial 时计数，
+     * 否则其字节数记入 tail
+     * @return 单词数
+     */
+    private long count(FileStatus status, long from, CompressionCodec codec, boolean flushPartial) throws IOException {
+        long words = 0;
+        tail = 0;
+        long limit = codec == null ? status.getLen() - from : Long.MAX_VALUE;
+        FSDataInputStream raw = inputFs.open(status.getPath());
+        try (InputStream in = codec == null ? raw : codec.createInputStream(raw)) {
+            if (codec == null && from > 0) {
+                raw.seek(from);
+            }
+            int carry = 0;
+            while (limit > 0) {
+                if (carry == buffer.length) {
+                    // 超长的行：扩大缓冲区
+                    byte[] grown = new byte[buffer.length << 1];
+                    System.arraycopy(buffer, 0, grown, 0, carry);
+                    buffer = grown;
+                }
+                int read = in.read(buffer, carry, (int) Math.min(buffer.length - carry, limit));
+                if (read < 0) {
+                    break;
+                }
+                limit -= read;
+                int length = carry + read;
+                int lastNewline = length - 1;
+                while (lastNewline >= 0 && buffer[lastNewline] != '\n') {
+                    lastNewline--;
+                }
+                int complete = lastNewline + 1;
+                words += countBytes(buffer, complete);
+                carry = length - complete;
+                System.arraycopy(buffer, complete, buffer, 0, carry);
+            }
+            // 压缩文件不能从中间继续读取，总是整体计数
+            if (flushPartial || codec != null) {
+                words += countBytes(buffer, carry);
+            } else {
+                tail = carry;
+            }
+        }
+        return words;
+    }
+
+    private long countBytes(byte[] bytes, int length) {
+        long words = 0;
+        tokenizer.reset(bytes, 0, length);
+        while (tokenizer.nextToken()) {
+            batch.add(tokenizer.tokenBytes(), 0, tokenizer.tokenLength(), 1);
+            words++;
+        }
+        return words;
+    }
+
+    private String key(FileStatus status) {
+        return inputFs.makeQualified(status.getPath()).toString();
+    }
+
+    private List<Map.Entry<String, Long>> sortedTopK(Map<String, Long> window) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(window.entrySet());
+        Collections.sort(entries, WindowedCounts.BY_FREQUENCY);
+        return entries.size() > topK ? entries.subList(0, topK) : entries;
+    }
+
+    /**
+     * @return 是否输出了窗口（空窗口不输出）
+     */
+    private boolean writeTumbling(long end) throws IOException {
+        Map<String, Long> window = counts.window(end);
+        if (window.isEmpty()) {
+            return false;
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(window.entrySet());
+        Collections.sort(entries, WindowedCounts.BY_FREQUENCY);
+        String name = "window-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(end - counts.getWindowMillis()))
+            + ".txt";
+        writeTopK(new Path(new Path(outputDir, "tumbling"), name), entries);
+        System.out.println("Tumbling window " + name + ": " + entries.size() + " unique words");
+        return true;
+    }
+
+    private void writeTopK(Path path, List<Map.Entry<String, Long>> entries) throws IOException {
+        Path temp = new Path(path.getParent(), "_" + path.getName() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(fs.create(temp, true), StandardCharsets.UTF_8), 1 << 16)) {
+            for (Map.Entry<String, Long> entry : entries) {
+                out.write(entry.getKey() + "\t" + entry.getValue() + "\n");
+            }
+        }
+        rename(temp, path);
+    }
+
+    /**
+     * 先写临时文件再原子地替换检查点，同时更新 words.txt
+     */
+    private void checkpoint() throws IOException {
+        if (!dirty && fs.exists(new Path(outputDir, "_checkpoint"))) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        writeTopK(new Path(outputDir, "words.txt"), counts.sortedTotals());
+
+        Path temp = new Path(outputDir, "_checkpoint.tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fs.create(temp, true), 1 << 16))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeLong(counts.getWindowMillis());
+            out.writeLong(counts.getSlideMillis());
+            out.writeLong(nextTumblingEnd);
+            out.writeInt(processed.size());
+            for (Map.Entry<String, Long> entry : processed.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            counts.write(out);
+        }
+        rename(temp, new Path(outputDir, "_checkpoint"));
+        dirty = false;
+        System.out.println("Checkpoint written: " + processed.size() + " files, " + counts.getTotalWords() + " words, "
+            + counts.getPaneCount() + " panes in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @return 是否找到并加载了检查点
+     */
+    private boolean restore() throws IOException {
+        Path path = new Path(outputDir, "_checkpoint");
+        if (!fs.exists(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(fs.open(path), 1 << 16))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Not a streaming word count checkpoint: " + path);
+            }
+            long windowMillis = in.readLong();
+            long slideMillis = in.readLong();
+            if (windowMillis != counts.getWindowMillis() || slideMillis != counts.getSlideMillis()) {
+                throw new IOException("Checkpoint was written with window " + windowMillis + " ms / slide " + slideMillis
+                    + " ms; restart with the same settings or use a new output directory");
+            }
+            nextTumblingEnd = in.readLong();
+            int files = in.readInt();
+            for (int i = 0; i < files; i++) {
+                processed.put(in.readUTF(), in.readLong());
+            }
+            counts.read(in);
+        }
+        return true;
+    }
+
+    private void rename(Path source, Path target) throws IOException {
+        FileContext fc = FileContext.getFileContext(fs.getUri(), fs.getConf());
+        fc.rename(source, target, Options.Rename.OVERWRITE);
+    }
+}
\ No newline at end of file
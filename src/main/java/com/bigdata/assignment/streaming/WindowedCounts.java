@@ -0,0 +1,261 @@
+package com.bigdata.assignment.streaming;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.bigdata.assignment.common.WordCountHashTable;
+
+/**
+ * 流式计数的状态：累计总数 + 按时间分片（pane）的窗口计数
+ * 功能：时间轴按滑动步长切成若干 pane，每个 pane 是一个 WordCountHashTable；
+ * - 滑动窗口 = 最近 window / slide 个 pane 之和
+ * - 滚动窗口 = 边界对齐到 window 整数倍的 window / slide 个 pane 之和
+ * - 累计总数使用 long 计数，长时间运行不会溢出
+ * 只保留仍可能属于某个窗口的 pane，内存上限约为 (window / slide + 1) 个 pane 的词汇量加上累计词汇量
+ *
+ * 非线程安全，由 StreamingWordCounter 的主循环单线程调用
+ */
+class WindowedCounts {
+
+    /** 频率排序：计数降序，计数相同时按字典序（与 word-count-results.txt 一致） */
+    static final Comparator<Map.Entry<String, Long>> BY_FREQUENCY = new Comparator<Map.Entry<String, Long>>() {
+        @Override
+        public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b) {
+            int cmp = Long.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+        }
+    };
+
+    private final long windowMillis;
+    private final long slideMillis;
+
+    private final ArrayDeque<Pane> panes = new ArrayDeque<>();
+    private final Map<String, long[]> totals = new HashMap<>();
+    private long totalWords;
+
+    WindowedCounts(long windowMillis, long slideMillis) {
+        if (slideMillis <= 0 || windowMillis < slideMillis || windowMillis % slideMillis != 0) {
+            throw new IllegalArgumentException("Window (" + windowMillis + " ms) must be a positive multiple of the slide ("
+                + slideMillis + " ms)");
+        }
+        this.windowMillis = windowMillis;
+        this.slideMillis = slideMillis;
+    }
+
+    long getWindowMillis() {
+        return windowMillis;
+    }
+
+    long getSlideMillis() {
+        return slideMillis;
+    }
+
+    long getTotalWords() {
+        return totalWords;
+    }
+
+    int getUniqueWords() {
+        return totals.size();
+    }
+
+    int getPaneCount() {
+        return panes.size();
+    }
+
+    /**
+     * 把一批计数（通常是一个文件或一段追加内容）计入 time 所在的 pane 和累计总数
+     */
+    void add(long time, WordCountHashTable batch) {
+        long start = time - Math.floorMod(time, slideMillis);
+        Pane pane = panes.peekLast();
+        // 时钟回拨时计入最新的 pane
+        if (pane == null || pane.start < start) {
+            pane = new Pane(start, new WordCountHashTable(Math.max(1024, batch.size())));
+            panes.addLast(pane);
+        }
+
+        byte[] keys = batch.keyBytes();
+        for (int i = 0; i < batch.size(); i++) {
+            int offset = batch.keyOffset(i);
+            int length = batch.keyLength(i);
+            int count = batch.count(i);
+            pane.counts.add(keys, offset, length, count);
+
+            String word = new String(keys, offset, length, StandardCharsets.UTF_8);
+            long[] total = totals.get(word);
+            if (total == null) {
+                totals.put(word, new long[] {count});
+            } else {
+                total[0] += count;
+            }
+            totalWords += count;
+        }
+    }
+
+    /**
+     * 窗口 [end - window, end) 内的计数（end 对齐到 pane 边界）
+     */
+    Map<String, Long> window(long end) {
+        long start = end - windowMillis;
+        Map<String, Long> counts = new HashMap<>();
+        for (Pane pane : panes) {
+            if (pane.start < start || pane.start >= end) {
+                continue;
+            }
+            byte[] keys = pane.counts.keyBytes();
+            for (int i = 0; i < pane.counts.size(); i++) {
+                String word = new String(keys, pane.counts.keyOffset(i), pane.counts.keyLength(i), StandardCharsets.UTF_8);
+                Long previous = counts.get(word);
+                counts.put(word, previous == null ? pane.counts.count(i) : previous + pane.counts.count(i));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 截至 now 的滑动窗口（包含 now 所在的、尚未结束的 pane）
+     */
+    Map<String, Long> slidingWindow(long now) {
+        return window(now - Math.floorMod(now, slideMillis) + slideMillis);
+    }
+
+    /**
+     * now 之前最后一个已结束的滚动窗口的结束时间
+     */
+    long lastTumblingEnd(long now) {
+        return now - Math.floorMod(now, windowMillis);
+    }
+
+    /**
+     * 丢弃不会再属于任何窗口的 pane
+     * @param keepFrom 仍需保留的最早时间（尚未输出的滚动窗口的起点）
+     */
+    void evict(long now, long keepFrom) {
+        long horizon = Math.min(keepFrom, now - Math.floorMod(now, slideMillis) + slideMillis - windowMillis);
+        Iterator<Pane> iterator = panes.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().start < horizon) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 累计计数中频率最高的 k 个单词（有界最小堆，O(V log k)）
+     */
+    List<Map.Entry<String, Long>> topTotals(int k) {
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(k + 1, Collections.reverseOrder(BY_FREQUENCY));
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            heap.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()[0]));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<String, Long>> top = new ArrayList<>(heap);
+        Collections.sort(top, BY_FREQUENCY);
+        return top;
+    }
+
+    /**
+     * 按字典序排列的累计计数
+     */
+    List<Map.Entry<String, Long>> sortedTotals() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(totals.size());
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()[0]));
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b) {
+                return a.getKey().compareTo(b.getKey());
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * 写入检查点：累计计数和所有保留的 pane
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(totalWords);
+        out.writeInt(totals.size());
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            writeWord(out, entry.getKey().getBytes(StandardCharsets.UTF_8), 0, -1);
+            out.writeLong(entry.getValue()[0]);
+        }
+        out.writeInt(panes.size());
+        for (Pane pane : panes) {
+            out.writeLong(pane.start);
+            out.writeInt(pane.counts.size());
+            byte[] keys = pane.counts.keyBytes();
+            for (int i = 0; i < pane.counts.size(); i++) {
+                writeWord(out, keys, pane.counts.keyOffset(i), pane.counts.keyLength(i));
+                out.writeInt(pane.counts.count(i));
+            }
+        }
+    }
+
+    /**
+     * 从检查点恢复（替换当前状态）
+     */
+    void read(DataInputStream in) throws IOException {
+        totals.clear();
+        panes.clear();
+        totalWords = in.readLong();
+        int words = in.readInt();
+        for (int i = 0; i < words; i++) {
+            byte[] word = readWord(in);
+            totals.put(new String(word, StandardCharsets.UTF_8), new long[] {in.readLong()});
+        }
+        int paneCount = in.readInt();
+        for (int p = 0; p < paneCount; p++) {
+            long start = in.readLong();
+            Pane pane = new Pane(start, new WordCountHashTable());
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                byte[] word = readWord(in);
+                pane.counts.add(word, 0, word.length, in.readInt());
+            }
+            panes.addLast(pane);
+        }
+    }
+
+    private static void writeWord(DataOutputStream out, byte[] bytes, int offset, int length) throws IOException {
+        if (length < 0) {
+            length = bytes.length;
+        }
+        out.writeInt(length);
+        out.write(bytes, offset, length);
+    }
+
+    private static byte[] readWord(DataInputStream in) throws IOException {
+        byte[] word = new byte[in.readInt()];
+        in.readFully(word);
+        return word;
+    }
+
+    /**
+     * 一个滑动步长内的计数
+     */
+    private static class Pane {
+        final long start;
+        final WordCountHashTable counts;
+
+        Pane(long start, WordCountHashTable counts) {
+            this.start = start;
+            this.counts = counts;
+        }
+    }
+}
\ No newline at end of file
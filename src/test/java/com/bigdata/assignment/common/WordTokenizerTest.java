@@ -0,0 +1,134 @@
+package com.bigdata.assignment.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+/**
+ * WordTokenizer 与原 Mapper 切分流程的差分测试
+ * 原流程：toLowerCase() → replaceAll("[^a-zA-Z\\s]", " ") → StringTokenizer → trim() → 过滤长度小于 2 的单词
+ */
+public class WordTokenizerTest {
+
+    private final WordTokenizer tokenizer = new WordTokenizer();
+
+    /**
+     * 原 Mapper 中的切分流程（toLowerCase 固定为 ROOT 语言环境，与集群默认的英文环境结果相同）
+     */
+    private static List<String> legacy(String text) {
+        String line = text.toLowerCase(Locale.ROOT);
+        line = line.replaceAll("[^a-zA-Z\\s]", " ");
+        StringTokenizer words = new StringTokenizer(line);
+        List<String> tokens = new ArrayList<>();
+        while (words.hasMoreTokens()) {
+            String token = words.nextToken().trim();
+            if (!token.isEmpty() && token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private List<String> tokenize(String text) {
+        tokenizer.reset(new Text(text));
+        List<String> tokens = new ArrayList<>();
+        Text word = new Text();
+        while (tokenizer.next(word)) {
+            tokens.add(word.toString());
+        }
+        return tokens;
+    }
+
+    private void assertSameTokens(String text) {
+        assertEquals("Input: " + escape(text), legacy(text), tokenize(text));
+    }
+
+    @Test
+    public void matchesLegacyOnAsciiWhitespace() {
+        String[] inputs = {
+            "Hello World", "hello\tworld\nagain", "a\rbc\fde", "one  two\t\tthree",
+            "ab\u000Bcd", "\u000Bab\u000B", "ab \u000B cd", "\u000B\u000Bx\u000B", "x\u000By",
+            "a\fb", "\f\f", "\u000B", "ab\u001Ccd\u001Def\u001Egh\u001Fij", "ab\u0085cd\u00A0ef\u2028gh",
+        };
+        for (String input : inputs) {
+            assertSameTokens(input);
+        }
+    }
+
+    @Test
+    public void matchesLegacyOnNonAsciiLowercasingToAscii() {
+        String[] inputs = {
+            "\u212Aelvin", "a\u212A", "\u212A\u212A", "\u212A", "ab\u212Acd",
+            "\u0130stanbul", "ab\u0130cd", "\u0130\u0130", "\u0130", "x\u0130", "\u0130\u212A",
+            "stra\u00DFe", "caf\u00E9 na\u00EFve", "\u4E2D\u6587 words", "emoji\uD83D\uDE00here",
+        };
+        for (String input : inputs) {
+            assertSameTokens(input);
+        }
+    }
+
+    @Test
+    public void matchesLegacyOnPunctuationAndDigitOnlyLines() {
+        String[] inputs = {
+            "", " ", "!!! ... ---", "123 456 7890", "(a) [b] {c}", "--", "a-b c_d e'f", "\"quoted\", words; here.",
+        };
+        for (String input : inputs) {
+            assertSameTokens(input);
+        }
+    }
+
+    @Test
+    public void matchesLegacyForEveryBmpCodePoint() {
+        for (int c = 0; c <= 0xFFFF; c++) {
+            if (Character.isSurrogate((char) c)) {
+                continue;
+            }
+            assertSameTokens("ab" + (char) c + "cd " + (char) c + "x " + (char) c);
+        }
+    }
+
+    @Test
+    public void matchesLegacyOnRandomInputs() {
+        String alphabet = "abcXYZ  \t\n\r\f\u000B\u001C0-9.,'\u00E9\u00DF\u4E2D\u212A\u0130\u0307\u00A0";
+        Random random = new Random(20240601L);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                if (random.nextInt(50) == 0) {
+                    text.append("\uD83D\uDE00");
+                } else {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+            assertSameTokens(text.toString());
+        }
+    }
+
+    @Test
+    public void reusesTheTokenizerAcrossInputs() {
+        assertEquals(legacy("first LINE here"), tokenize("first LINE here"));
+        assertEquals(legacy("x"), tokenize("x"));
+        assertEquals(legacy("a much longer line with many more words than before"),
+            tokenize("a much longer line with many more words than before"));
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c >= 0x20 && c < 0x7F) {
+                escaped.append(c);
+            } else {
+                escaped.append(String.format("\\u%04X", (int) c));
+            }
+        }
+        return escaped.toString();
+    }
+}
\ No newline at end of file